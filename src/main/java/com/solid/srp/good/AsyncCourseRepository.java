@@ -0,0 +1,193 @@
+package com.solid.srp.good;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous facade over a {@link CourseRepository}.
+ *
+ * <p>Each call runs on its own virtual thread and returns a {@link CompletableFuture}, so
+ * callers don't tie up platform threads while waiting on the database. A failed call completes
+ * its future exceptionally with the original {@link SQLException}.
+ *
+ * <p><b>Concurrency limit:</b> At most {@code maxConcurrency} calls touch the database at the
+ * same time; further calls wait (cheaply, on their virtual threads) for a slot. Pair this
+ * facade with a pooled {@link com.solid.srp.utils.PDO} whose maximum pool size is at least
+ * {@code maxConcurrency}, so every running call gets its own connection.
+ *
+ * <p><b>SRP ADHERENCE:</b> This class only decides <i>where and when</i> repository calls
+ * run; what they do stays in the wrapped repository.
+ *
+ * @see CourseRepository for the underlying operations
+ */
+public class AsyncCourseRepository implements AutoCloseable {
+
+  /** The repository doing the actual work. */
+  private final CourseRepository repository;
+
+  /** Runs every call on a fresh virtual thread. */
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  /** Caps the number of calls running against the database. */
+  private final Semaphore permits;
+
+  /**
+   * Constructs an asynchronous facade.
+   *
+   * @param repository the repository to run calls against
+   * @param maxConcurrency the maximum number of calls running at the same time
+   * @throws IllegalArgumentException if {@code maxConcurrency} is less than 1
+   */
+  public AsyncCourseRepository(CourseRepository repository, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("Concurrency must be at least 1, got " + maxConcurrency);
+    }
+    this.repository = repository;
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+
+  /**
+   * Retrieves a course by its ID asynchronously.
+   *
+   * @param id the course ID to retrieve
+   * @return a future with the course, or {@code null} if it doesn't exist
+   * @see CourseRepository#findById(int)
+   */
+  public CompletableFuture<Course> findByIdAsync(int id) {
+    return submit(() -> repository.findById(id));
+  }
+
+  /**
+   * Retrieves many courses by ID asynchronously.
+   *
+   * @param ids the course IDs to retrieve
+   * @return a future with the found courses and missing IDs
+   * @see CourseRepository#findByIds(int[])
+   */
+  public CompletableFuture<CourseLookup> findByIdsAsync(int[] ids) {
+    return submit(() -> repository.findByIds(ids));
+  }
+
+  /**
+   * Returns a page of courses asynchronously.
+   *
+   * @param continuationToken the token of the previous page, or {@code null} for the first page
+   * @param limit the maximum number of courses on the page
+   * @return a future with the page
+   * @see CourseRepository#page(String, int)
+   */
+  public CompletableFuture<CoursePage> pageAsync(String continuationToken, int limit) {
+    return submit(() -> repository.page(continuationToken, limit));
+  }
+
+  /**
+   * Saves a course asynchronously.
+   *
+   * @param course the course to save
+   * @return a future with the same course, its ID assigned
+   * @see CourseRepository#save(Course)
+   */
+  public CompletableFuture<Course> saveAsync(Course course) {
+    return submit(() -> {
+      repository.save(course);
+      return course;
+    });
+  }
+
+  /**
+   * Saves many courses asynchronously using JDBC batching.
+   *
+   * @param courses the courses to save
+   * @return a future that completes when every batch has been written
+   * @see CourseRepository#saveAll(Collection)
+   */
+  public CompletableFuture<Void> saveAllAsync(Collection<Course> courses) {
+    return submit(() -> {
+      repository.saveAll(courses);
+      return null;
+    });
+  }
+
+  /**
+   * Updates a course asynchronously.
+   *
+   * @param course the course with updated data (must have an ID)
+   * @return a future that completes when the update has been written
+   * @see CourseRepository#update(Course)
+   */
+  public CompletableFuture<Void> updateAsync(Course course) {
+    return submit(() -> {
+      repository.update(course);
+      return null;
+    });
+  }
+
+  /**
+   * Deletes a course asynchronously.
+   *
+   * @param id the ID of the course to delete
+   * @return a future that completes when the delete has been written
+   * @see CourseRepository#delete(int)
+   */
+  public CompletableFuture<Void> deleteAsync(int id) {
+    return submit(() -> {
+      repository.delete(id);
+      return null;
+    });
+  }
+
+  /**
+   * Stops accepting calls and waits for running calls to finish.
+   *
+   * <p>Does not close the underlying repository's PDO.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        System.err.println("Timed out waiting for asynchronous repository calls to finish");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs a repository call on a virtual thread once a concurrency slot is free.
+   *
+   * @param call the call to run
+   * @return a future completed with the call's result or exception
+   */
+  private <T> CompletableFuture<T> submit(RepositoryCall<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.completeExceptionally(e);
+        return;
+      }
+      try {
+        future.complete(call.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      } finally {
+        permits.release();
+      }
+    });
+    return future;
+  }
+
+  /** A repository call that may throw {@link SQLException}. */
+  @FunctionalInterface
+  private interface RepositoryCall<T> {
+    T call() throws SQLException;
+  }
+}
@@ -0,0 +1,108 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.IntLruCache;
+import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
+
+/**
+ * Course repository with a read-through cache in front of {@link #findById(int)}.
+ *
+ * <p>Lookups by ID are answered from a size-bounded LRU cache with a time-to-live; only misses
+ * reach the database. This suits read-heavy workloads, where the same courses are read far
+ * more often than they change.
+ *
+ * <p><b>Consistency:</b>
+ * <ul>
+ *   <li>Every update and delete made through this repository ({@code update}, {@code
+ *       updateAll}, {@code delete}, session flushes) invalidates the cached entry once the
+ *       write has committed, which inside {@link PDO#inTransaction(PDO.TransactionWork)} means
+ *       once the outermost transaction commits, so later reads see the new data</li>
+ *   <li>Lookups made inside a transaction bypass the cache, so they see the transaction's own
+ *       uncommitted writes and never cache them</li>
+ *   <li>A load that races with a write is not stored, so the cache never keeps a value read
+ *       before the write completed</li>
+ *   <li>Writes that bypass this repository (another repository instance, raw SQL) are only
+ *       picked up once the entry expires</li>
+ * </ul>
+ *
+ * <p><b>Isolation:</b> The cache stores its own copies and hands out fresh copies, so callers
+ * may freely modify the courses they receive without affecting the cache or each other.
+ *
+ * <p><b>SRP ADHERENCE:</b> Caching is added by extension; {@link CourseRepository} keeps its
+ * single responsibility of talking to the database.
+ *
+ * @see CourseRepository for the underlying persistence operations
+ * @see IntLruCache for the cache implementation
+ */
+public final class CachingCourseRepository extends CourseRepository {
+
+  /** Cached courses by ID. */
+  private final IntLruCache<Course> cache;
+
+  /** Tells whether a lookup runs inside a transaction. */
+  private final PDO pdo;
+
+  /**
+   * Constructs a caching repository.
+   *
+   * @param pdo the database connection manager
+   * @param maxEntries the maximum number of cached courses
+   * @param ttlMillis how long a cached course stays valid
+   */
+  public CachingCourseRepository(PDO pdo, int maxEntries, long ttlMillis) {
+    super(pdo);
+    this.pdo = pdo;
+    this.cache = new IntLruCache<>(maxEntries, ttlMillis);
+    addListener(
+        new CourseRepositoryListener() {
+          @Override
+          public void onUpdated(Course course) {
+            cache.invalidate(course.getId());
+          }
+
+          @Override
+          public void onDeleted(int courseId) {
+            cache.invalidate(courseId);
+          }
+        });
+  }
+
+  /**
+   * Retrieves a course by its ID, from the cache when possible.
+   *
+   * @param id the course ID to retrieve
+   * @return a copy of the course, or null if no course with that ID exists
+   * @throws SQLException if a database error occurs
+   */
+  @Override
+  public Course findById(int id) throws SQLException {
+    if (pdo.isInTransaction()) {
+      return super.findById(id);
+    }
+    Course cached = cache.get(id);
+    if (cached != null) {
+      return new Course(cached);
+    }
+
+    long stamp = cache.stamp();
+    Course course = super.findById(id);
+    if (course != null) {
+      cache.putIfUnchanged(id, new Course(course), stamp);
+    }
+    return course;
+  }
+
+  /**
+   * Gets the cache statistics.
+   *
+   * @return a snapshot of hits, misses, evictions and expirations
+   */
+  public IntLruCache.Statistics getCacheStatistics() {
+    return cache.getStatistics();
+  }
+
+  /** Drops every cached course, e.g. after the database was changed by other means. */
+  public void clearCache() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,134 @@
+package com.solid.srp.good;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.TrigramIndex;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Typo-tolerant lookup of course and category names.
+ *
+ * <p>Finds "Spring Boot" for "Sprnig Boot" using one {@link TrigramIndex} for course names and
+ * one for category names. Matches are ranked by edit distance; by default one edit is
+ * allowed per four characters of the query, at most three.
+ *
+ * <pre>{@code
+ * CatalogFuzzyMatcher matcher = new CatalogFuzzyMatcher();
+ * repository.addListener(matcher);
+ * matcher.rebuild(pdo);
+ * List<TrigramIndex.Match> matches = matcher.matchCourses("sprnig boot", 10);
+ * }</pre>
+ *
+ * Register the matcher before rebuilding it so no write is missed.
+ *
+ * <p><b>Consistency:</b> Course writes are applied after they commit, as a {@link
+ * CourseRepositoryListener}. Categories are picked up the first time a course of theirs is
+ * written; since categories are never renamed or deleted through the repository, they stay
+ * indexed until the next {@link #rebuild(PDO)}.
+ *
+ * <p><b>Thread safety:</b> Safe for concurrent lookups and writes.
+ */
+public class CatalogFuzzyMatcher implements CourseRepositoryListener {
+
+  /** Loads the course names. */
+  private static final String SELECT_COURSES_SQL = "SELECT id, name FROM course";
+
+  /** Loads the category names. */
+  private static final String SELECT_CATEGORIES_SQL = "SELECT id, name FROM category";
+
+  private final TrigramIndex courses = new TrigramIndex();
+  private final TrigramIndex categories = new TrigramIndex();
+
+  /**
+   * Reloads both name indexes from the database.
+   *
+   * <p>Writes reported while the reload runs wait for it and are applied on top.
+   *
+   * @param pdo the database to load from
+   * @throws SQLException if a database error occurs; the indexes are then left incomplete
+   */
+  public synchronized void rebuild(PDO pdo) throws SQLException {
+    courses.clear();
+    categories.clear();
+    try (Connection connection = pdo.borrowConnection()) {
+      load(connection, SELECT_COURSES_SQL, courses);
+      load(connection, SELECT_CATEGORIES_SQL, categories);
+    }
+  }
+
+  /**
+   * Finds courses whose name is close to the query.
+   *
+   * @param query the name as typed
+   * @param limit the maximum number of matches
+   * @return the matches (course ID, name, distance), closest first
+   */
+  public List<TrigramIndex.Match> matchCourses(String query, int limit) {
+    return courses.search(query, limit);
+  }
+
+  /**
+   * Finds courses whose name is within an edit distance of the query.
+   *
+   * @param query the name as typed
+   * @param maxDistance the largest edit distance accepted
+   * @param limit the maximum number of matches
+   * @return the matches (course ID, name, distance), closest first
+   */
+  public List<TrigramIndex.Match> matchCourses(String query, int maxDistance, int limit) {
+    return courses.search(query, maxDistance, limit);
+  }
+
+  /**
+   * Finds categories whose name is close to the query.
+   *
+   * @param query the name as typed
+   * @param limit the maximum number of matches
+   * @return the matches (category ID, name, distance), closest first
+   */
+  public List<TrigramIndex.Match> matchCategories(String query, int limit) {
+    return categories.search(query, limit);
+  }
+
+  @Override
+  public synchronized void onSaved(Course course) {
+    courses.put(course.getId(), course.getName());
+    addCategory(course.getCategory());
+  }
+
+  @Override
+  public synchronized void onUpdated(Course course) {
+    courses.put(course.getId(), course.getName());
+    addCategory(course.getCategory());
+  }
+
+  @Override
+  public synchronized void onDeleted(int courseId) {
+    courses.remove(courseId);
+  }
+
+  @Override
+  public String toString() {
+    return "CatalogFuzzyMatcher{courses=" + courses + ", categories=" + categories + '}';
+  }
+
+  private void addCategory(Category category) {
+    if (category != null && category.getId() > 0 && !categories.contains(category.getId())) {
+      categories.put(category.getId(), category.getName());
+    }
+  }
+
+  private static void load(Connection connection, String sql, TrigramIndex index)
+      throws SQLException {
+    try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        index.put(resultSet.getInt(1), resultSet.getString(2));
+      }
+    }
+  }
+}
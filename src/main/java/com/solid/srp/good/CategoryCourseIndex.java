@@ -0,0 +1,236 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.IntIntMap;
+import com.solid.srp.utils.IntObjectMap;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.RoaringBitmap;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index from category ID to the IDs of its courses.
+ *
+ * <p>Each category's course IDs are held in a {@link RoaringBitmap}, so the index costs about
+ * 2 bytes per course plus a reverse entry in an {@link IntIntMap}, and answers "which courses
+ * are in category X" and "how many" without a query. The index is loaded once with
+ * {@link #rebuild(PDO)} and then kept current as a {@link CourseRepositoryListener} of the
+ * repository that writes the courses.
+ *
+ * <p><b>Set-algebra filters:</b> Filters such as "courses in category A or B but not C"
+ * become bitmap operations instead of SQL:
+ *
+ * <pre>{@code
+ * RoaringBitmap matches = index.anyOf(a, b).andNot(index.courses(c));
+ * }</pre>
+ *
+ * The returned bitmaps are independent copies, so they can be combined freely with bitmaps
+ * built from other attributes and handed to {@link CourseRepository#findByIds(int[])}.
+ *
+ * <p><b>Consistency:</b> Writes are applied after they commit, so a reader may briefly miss a
+ * write that is still being reported. Writes that bypass the repository are only picked up by
+ * the next {@link #rebuild(PDO)}.
+ *
+ * <p><b>Thread safety:</b> Reads share a read lock; writes and rebuilds take the write lock.
+ *
+ * @see CourseRepository#enableCategoryIndex()
+ */
+public class CategoryCourseIndex implements CourseRepositoryListener {
+
+  /** Loads the whole index. */
+  private static final String SELECT_ALL_SQL =
+      "SELECT id, category_id FROM course WHERE category_id IS NOT NULL";
+
+  /** Course IDs by category ID. Guarded by {@link #lock}. */
+  private IntObjectMap<RoaringBitmap> coursesByCategory = new IntObjectMap<>();
+
+  /** Every indexed course ID. Guarded by {@link #lock}. */
+  private RoaringBitmap allCourses = new RoaringBitmap();
+
+  /** Category ID by course ID, to find the set a course must leave. Guarded by {@link #lock}. */
+  private IntIntMap categoryByCourse = new IntIntMap();
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Reloads the index from the database.
+   *
+   * <p>Writes reported while the reload runs wait for it and are applied on top, so none is
+   * lost.
+   *
+   * @param pdo the database to load from
+   * @throws SQLException if a database error occurs; the previous contents are kept
+   */
+  public void rebuild(PDO pdo) throws SQLException {
+    lock.writeLock().lock();
+    try {
+      IntObjectMap<RoaringBitmap> byCategory = new IntObjectMap<>();
+      RoaringBitmap all = new RoaringBitmap();
+      IntIntMap byCourse = new IntIntMap();
+      try (Connection connection = pdo.borrowConnection();
+          PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ALL_SQL)) {
+        ResultSet resultSet = preparedStatement.executeQuery();
+        while (resultSet.next()) {
+          int courseId = resultSet.getInt(1);
+          int categoryId = resultSet.getInt(2);
+          byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(courseId);
+          all.add(courseId);
+          byCourse.put(courseId, categoryId);
+        }
+      }
+      coursesByCategory = byCategory;
+      allCourses = all;
+      categoryByCourse = byCourse;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the IDs of a category's courses.
+   *
+   * @param categoryId the category ID
+   * @return the course IDs in ascending order, empty if the category has no courses
+   */
+  public int[] courseIds(int categoryId) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap courseIds = coursesByCategory.get(categoryId);
+      return courseIds != null ? courseIds.toArray() : new int[0];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the courses of one category as a bitmap.
+   *
+   * @param categoryId the category ID
+   * @return a copy of the category's bitmap, empty if it has no courses
+   */
+  public RoaringBitmap courses(int categoryId) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap courseIds = coursesByCategory.get(categoryId);
+      return courseIds != null ? courseIds.copy() : new RoaringBitmap();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the courses that belong to any of the given categories.
+   *
+   * @param categoryIds the category IDs
+   * @return a new bitmap with the union
+   */
+  public RoaringBitmap anyOf(int... categoryIds) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap union = new RoaringBitmap();
+      for (int categoryId : categoryIds) {
+        RoaringBitmap courseIds = coursesByCategory.get(categoryId);
+        if (courseIds != null) {
+          union = union.or(courseIds);
+        }
+      }
+      return union;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns every indexed course, e.g. as the starting point of an exclusion filter.
+   *
+   * @return a copy of the bitmap of all courses
+   */
+  public RoaringBitmap allCourses() {
+    lock.readLock().lock();
+    try {
+      return allCourses.copy();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of courses in a category.
+   *
+   * @param categoryId the category ID
+   * @return the number of courses
+   */
+  public int count(int categoryId) {
+    lock.readLock().lock();
+    try {
+      RoaringBitmap courseIds = coursesByCategory.get(categoryId);
+      return courseIds != null ? courseIds.cardinality() : 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of indexed courses.
+   *
+   * @return the number of courses across all categories
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return categoryByCourse.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void onSaved(Course course) {
+    put(course.getId(), course.getCategory().getId());
+  }
+
+  @Override
+  public void onUpdated(Course course) {
+    put(course.getId(), course.getCategory().getId());
+  }
+
+  @Override
+  public void onDeleted(int courseId) {
+    lock.writeLock().lock();
+    try {
+      if (categoryByCourse.containsKey(courseId)) {
+        leave(categoryByCourse.getOrDefault(courseId, 0), courseId);
+        categoryByCourse.remove(courseId);
+      }
+      allCourses.remove(courseId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Files a course under a category, moving it out of its previous category if needed. */
+  private void put(int courseId, int categoryId) {
+    lock.writeLock().lock();
+    try {
+      int previous = categoryByCourse.getOrDefault(courseId, categoryId);
+      categoryByCourse.put(courseId, categoryId);
+      if (previous != categoryId) {
+        leave(previous, courseId);
+      }
+      coursesByCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(courseId);
+      allCourses.add(courseId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes a course from a category's bitmap, dropping the bitmap once it is empty. */
+  private void leave(int categoryId, int courseId) {
+    RoaringBitmap courseIds = coursesByCategory.get(categoryId);
+    if (courseIds != null && courseIds.remove(courseId) && courseIds.isEmpty()) {
+      coursesByCategory.remove(categoryId);
+    }
+  }
+}
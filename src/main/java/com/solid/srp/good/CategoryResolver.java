@@ -0,0 +1,154 @@
+package com.solid.srp.good;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.UncheckedSQLException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves category names to database IDs, creating missing categories on demand.
+ *
+ * <p>Resolved IDs are kept in memory, so once a category name has been seen the resolver
+ * answers without touching the database. The first lookup of a name runs an atomic upsert
+ * ({@code MERGE ... KEY (name)}) against the unique {@code category.name} column, which either
+ * inserts the category or returns the existing row. Concurrent callers asking for the same
+ * name wait for that single upsert, so each distinct category costs one database write over
+ * the life of the resolver.
+ *
+ * <p><b>Transactions:</b> Inside {@link PDO#inTransaction(PDO.TransactionWork)} the upsert
+ * joins the running transaction, and its result is cached only once that transaction commits
+ * (through {@link PDO#afterCommit(Runnable)}), since a rollback would leave the cache pointing
+ * at a category that doesn't exist.
+ *
+ * <p><b>SRP ADHERENCE:</b> This class has one reason to change: how category names are
+ * mapped to IDs. {@link CourseRepository} delegates category persistence to it instead of
+ * inserting a new category row for every course.
+ *
+ * @see CourseRepository#save(Course)
+ */
+public class CategoryResolver {
+
+  /** Upsert by name that returns the ID of the inserted or existing row. */
+  static final String UPSERT_SQL =
+      "SELECT id FROM FINAL TABLE (MERGE INTO category (name) KEY (name) VALUES (?))";
+
+  /** Database connection manager. */
+  private final PDO pdo;
+
+  /** Category IDs by name. */
+  private final ConcurrentHashMap<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a resolver for the given database.
+   *
+   * @param pdo the database connection manager
+   */
+  public CategoryResolver(PDO pdo) {
+    this.pdo = pdo;
+  }
+
+  /**
+   * Resolves a category's ID by name and assigns it to the category.
+   *
+   * @param category the category to resolve (must have name set)
+   * @throws SQLException if a database error occurs
+   */
+  public void resolve(Category category) throws SQLException {
+    category.setId(resolve(category.getName()));
+  }
+
+  /**
+   * Returns the ID of the category with the given name, creating the category if needed.
+   *
+   * @param name the category name
+   * @return the category ID
+   * @throws SQLException if a database error occurs
+   */
+  public int resolve(String name) throws SQLException {
+    Integer id = idsByName.get(name);
+    if (id != null) {
+      return id;
+    }
+    if (pdo.isInTransaction()) {
+      int upserted = upsertRow(name);
+      pdo.afterCommit(() -> remember(name, upserted));
+      return upserted;
+    }
+    try {
+      return idsByName.computeIfAbsent(name, this::upsert);
+    } catch (UncheckedSQLException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Returns the cached ID for a category name without touching the database.
+   *
+   * @param name the category name
+   * @return the category ID, or 0 if the name has not been resolved yet
+   */
+  public int cachedId(String name) {
+    Integer id = idsByName.get(name);
+    return id != null ? id : 0;
+  }
+
+  /**
+   * Records the ID of a category that was written by other means, e.g. a session flush or a
+   * committed transaction.
+   *
+   * @param name the category name
+   * @param id the category ID
+   */
+  void remember(String name, int id) {
+    idsByName.putIfAbsent(name, id);
+  }
+
+  /**
+   * Returns the number of category names held in memory.
+   *
+   * @return the number of cached names
+   */
+  public int size() {
+    return idsByName.size();
+  }
+
+  /** Forgets all cached names, e.g. after categories were changed outside this resolver. */
+  public void clear() {
+    idsByName.clear();
+  }
+
+  /**
+   * Inserts the category if missing and returns its ID. Runs inside computeIfAbsent, so
+   * checked exceptions are tunnelled out as {@link UncheckedSQLException}.
+   */
+  private Integer upsert(String name) {
+    try {
+      return upsertRow(name);
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(e);
+    }
+  }
+
+  /**
+   * Inserts the category if missing and returns its ID, without caching it.
+   *
+   * @param name the category name
+   * @return the category ID
+   * @throws SQLException if a database error occurs
+   */
+  private int upsertRow(String name) throws SQLException {
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_SQL)) {
+      preparedStatement.setString(1, name);
+      ResultSet resultSet = preparedStatement.executeQuery();
+      if (!resultSet.next()) {
+        throw new SQLException("Upsert returned no row for category '" + name + "'");
+      }
+      return resultSet.getInt(1);
+    }
+  }
+}
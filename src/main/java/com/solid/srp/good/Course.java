@@ -1,6 +1,8 @@
 package com.solid.srp.good;
 
 import com.solid.srp.Category;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Course entity following the Single Responsibility Principle.
@@ -18,6 +20,15 @@ import com.solid.srp.Category;
  *   <li>Caching strategy changes</li>
  * </ul>
  *
+ * <p><b>Change tracking:</b> A course remembers which of its fields were set since it was last
+ * loaded or written ({@link #getDirtyFields()}), so {@link CourseRepository#update(Course)} can
+ * write only the changed columns and skip the database when nothing changed. New instances
+ * start with every field dirty; the repository marks them clean once they match the database.
+ *
+ * <p><b>Versioning:</b> A course loaded or saved through the repository carries the version of
+ * its row ({@link #getVersion()}), which the repository checks and increments on update to
+ * detect concurrent writers.
+ *
  * <p><b>Separation of concerns:</b>
  * <ul>
  *   <li><b>This class ({@code Course}):</b> Represents course data only</li>
@@ -38,6 +49,19 @@ import com.solid.srp.Category;
  */
 public class Course {
 
+  /** Fields of a course that can be changed and written individually. */
+  public enum Field {
+    /** The course name ({@code course.name}). */
+    NAME,
+    /** The course category ({@code course.category_id}). */
+    CATEGORY,
+    /** The course description ({@code course.description}). */
+    DESCRIPTION
+  }
+
+  /** Version of a course whose row version is not known; updates to it are not checked. */
+  public static final long UNVERSIONED = -1;
+
   /** Unique identifier for the course. */
   private int id;
 
@@ -50,6 +74,12 @@ public class Course {
   /** Detailed description of the course content and objectives. */
   private String description;
 
+  /** Row version the course was loaded or last written at, or {@link #UNVERSIONED}. */
+  private long version = UNVERSIONED;
+
+  /** Fields changed since the course was last loaded or written. */
+  private final EnumSet<Field> dirtyFields = EnumSet.allOf(Field.class);
+
   /**
    * Constructs a new course without an ID.
    *
@@ -85,8 +115,29 @@ public class Course {
     this.description = description;
   }
 
+  /**
+   * Constructs a copy of another course.
+   *
+   * <p>The category is copied as well, so changes to the copy never affect the original. Used
+   * by caches that must not share instances with their callers. Reads {@code other} through
+   * its getters, so read-only views can be copied into ordinary courses.
+   *
+   * @param other the course to copy
+   */
+  public Course(Course other) {
+    Category otherCategory = other.getCategory();
+    this.id = other.getId();
+    this.name = other.getName();
+    this.category =
+        otherCategory == null ? null : new Category(otherCategory.getId(), otherCategory.getName());
+    this.description = other.getDescription();
+    this.version = other.getVersion();
+    this.dirtyFields.retainAll(other.getDirtyFields());
+  }
+
   // ============ SINGLE RESPONSIBILITY ============
-  // This Course class is ONLY responsible for representing course data.
+  // This Course class is ONLY responsible for representing course data
+  // (including which of its fields changed).
   // It does NOT handle database operations (see CourseRepository).
   // It does NOT handle validation, caching, or other concerns.
   // This is clean separation of concerns.
@@ -128,6 +179,7 @@ public class Course {
    */
   public void setName(String name) {
     this.name = name;
+    dirtyFields.add(Field.NAME);
   }
 
   /**
@@ -146,6 +198,7 @@ public class Course {
    */
   public void setCategory(Category category) {
     this.category = category;
+    dirtyFields.add(Field.CATEGORY);
   }
 
   /**
@@ -164,26 +217,89 @@ public class Course {
    */
   public void setDescription(String description) {
     this.description = description;
+    dirtyFields.add(Field.DESCRIPTION);
+  }
+
+  /**
+   * Gets the row version this course was loaded or last written at.
+   *
+   * <p>{@link CourseRepository#update(Course)} only writes the course if the row still has
+   * this version, so concurrent writers cannot silently overwrite each other.
+   *
+   * @return the row version, or {@link #UNVERSIONED} if unknown
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Sets the row version of this course.
+   *
+   * <p>This is typically set by the repository after loading or writing the course.
+   *
+   * @param version the row version, or {@link #UNVERSIONED} to skip the check on update
+   */
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  /**
+   * Returns whether any field changed since the course was last loaded or written.
+   *
+   * @return {@code true} if at least one field is dirty
+   */
+  public boolean isDirty() {
+    return !dirtyFields.isEmpty();
+  }
+
+  /**
+   * Gets the fields changed since the course was last loaded or written.
+   *
+   * @return a copy of the dirty fields
+   */
+  public Set<Field> getDirtyFields() {
+    return EnumSet.copyOf(dirtyFields);
+  }
+
+  /**
+   * Marks fields as changed, e.g. to carry over changes that were not written yet.
+   *
+   * @param fields the fields to mark dirty
+   */
+  public void markDirty(Set<Field> fields) {
+    dirtyFields.addAll(fields);
+  }
+
+  /**
+   * Marks every field as matching the database.
+   *
+   * <p>This is typically called by the repository after loading or writing the course.
+   */
+  public void markClean() {
+    dirtyFields.clear();
   }
 
   /**
    * Returns a string representation of this course.
    *
-   * @return a string in the format "GoodCourse{id=..., name='...', category=..., description='...'}"
+   * @return a string in the format "GoodCourse{id=..., name='...', category=..., description='...',
+   *     version=...}"
    */
   @Override
   public String toString() {
     return "GoodCourse{"
         + "id="
-        + id
+        + getId()
         + ", name='"
-        + name
+        + getName()
         + '\''
         + ", category="
-        + category
+        + getCategory()
         + ", description='"
-        + description
+        + getDescription()
         + '\''
+        + ", version="
+        + getVersion()
         + '}';
   }
 }
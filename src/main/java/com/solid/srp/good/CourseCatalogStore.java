@@ -0,0 +1,361 @@
+package com.solid.srp.good;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.IntIntMap;
+import com.solid.srp.utils.Utf8Arena;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Read-only, column-oriented snapshot of the course catalog.
+ *
+ * <p>A {@link Course} object per row costs headers, references, two {@code String}s and a
+ * {@link Category} each, scattered over the heap. The store keeps one array per column
+ * instead:
+ * <ul>
+ *   <li><b>IDs and versions:</b> {@code int[]} and {@code long[]}, ascending by ID</li>
+ *   <li><b>Categories:</b> dictionary-encoded; each row holds a small code into one table of
+ *       distinct category IDs and names</li>
+ *   <li><b>Names and descriptions:</b> UTF-8 bytes packed into a {@link Utf8Arena} each</li>
+ * </ul>
+ * Scans over one column, such as {@link #countByCategory(int)}, read a single dense array.
+ *
+ * <p><b>Views:</b> Rows are read through {@link Course} views that hold only a row number
+ * and decode fields on demand. {@link #get(int)} returns a new view; {@link #forEach(Consumer)}
+ * reuses one flyweight view for every row, so the consumer must not keep it (copy it with
+ * {@link Course#Course(Course)} instead). Views are read-only: their setters throw
+ * {@link UnsupportedOperationException}, and each {@link Course#getCategory()} call returns a
+ * new {@link Category}.
+ *
+ * <p>The snapshot does not follow later writes; load a new one with
+ * {@link #load(CourseRepository)}. Instances are immutable and safe to share between threads.
+ */
+public class CourseCatalogStore {
+
+  private final int[] ids;
+  private final long[] versions;
+
+  /** Per row, an index into {@link #categoryIds} and {@link #categoryNames}; -1 for none. */
+  private final int[] categoryCodes;
+
+  /** The category dictionary. */
+  private final int[] categoryIds;
+  private final String[] categoryNames;
+
+  /** Index into the dictionary by category ID; never modified once built. */
+  private final IntIntMap codesByCategoryId;
+
+  private final Utf8Arena names;
+  private final Utf8Arena descriptions;
+
+  private CourseCatalogStore(int[] ids, long[] versions, int[] categoryCodes,
+      int[] categoryIds, String[] categoryNames, IntIntMap codesByCategoryId, Utf8Arena names,
+      Utf8Arena descriptions) {
+    this.ids = ids;
+    this.versions = versions;
+    this.categoryCodes = categoryCodes;
+    this.categoryIds = categoryIds;
+    this.categoryNames = categoryNames;
+    this.codesByCategoryId = codesByCategoryId;
+    this.names = names;
+    this.descriptions = descriptions;
+  }
+
+  /**
+   * Loads every course into a new store.
+   *
+   * <p>Courses are streamed from the database in ID order, so the whole catalog is never held
+   * as {@link Course} objects at once.
+   *
+   * @param repository the repository to load from
+   * @return the store
+   * @throws SQLException if a database error occurs
+   */
+  public static CourseCatalogStore load(CourseRepository repository) throws SQLException {
+    try (Stream<Course> courses = repository.streamAll()) {
+      return build(courses);
+    }
+  }
+
+  /**
+   * Builds a store from courses, e.g. ones already in memory.
+   *
+   * @param courses the courses; sorted by ID in the store
+   * @return the store
+   */
+  public static CourseCatalogStore build(Stream<Course> courses) {
+    int[] rowIds = new int[1024];
+    long[] rowVersions = new long[1024];
+    int[] rowCodes = new int[1024];
+    IntIntMap codesByCategoryId = new IntIntMap();
+    int[] dictionaryIds = new int[16];
+    String[] dictionaryNames = new String[16];
+    Utf8Arena rowNames = new Utf8Arena(1024, 32 * 1024);
+    Utf8Arena rowDescriptions = new Utf8Arena(1024, 128 * 1024);
+    int count = 0;
+    for (Course course : (Iterable<Course>) courses::iterator) {
+      if (count == rowIds.length) {
+        rowIds = Arrays.copyOf(rowIds, count * 2);
+        rowVersions = Arrays.copyOf(rowVersions, count * 2);
+        rowCodes = Arrays.copyOf(rowCodes, count * 2);
+      }
+      int code = -1;
+      Category category = course.getCategory();
+      if (category != null) {
+        code = codesByCategoryId.getOrDefault(category.getId(), -1);
+        if (code < 0) {
+          code = codesByCategoryId.size();
+          if (code == dictionaryIds.length) {
+            dictionaryIds = Arrays.copyOf(dictionaryIds, code * 2);
+            dictionaryNames = Arrays.copyOf(dictionaryNames, code * 2);
+          }
+          dictionaryIds[code] = category.getId();
+          dictionaryNames[code] = category.getName();
+          codesByCategoryId.put(category.getId(), code);
+        }
+      }
+      rowIds[count] = course.getId();
+      rowVersions[count] = course.getVersion();
+      rowCodes[count] = code;
+      rowNames.add(course.getName());
+      rowDescriptions.add(course.getDescription());
+      count++;
+    }
+    int categoryCount = codesByCategoryId.size();
+    int[] order = sortedRows(rowIds, count);
+    if (order == null) {
+      rowNames.trimToSize();
+      rowDescriptions.trimToSize();
+      return new CourseCatalogStore(Arrays.copyOf(rowIds, count),
+          Arrays.copyOf(rowVersions, count), Arrays.copyOf(rowCodes, count),
+          Arrays.copyOf(dictionaryIds, categoryCount),
+          Arrays.copyOf(dictionaryNames, categoryCount), codesByCategoryId, rowNames,
+          rowDescriptions);
+    }
+
+    // Input was not in ID order: rewrite every column in sorted order
+    int[] sortedIds = new int[count];
+    long[] sortedVersions = new long[count];
+    int[] sortedCodes = new int[count];
+    Utf8Arena sortedNames = new Utf8Arena(count, 0);
+    Utf8Arena sortedDescriptions = new Utf8Arena(count, 0);
+    for (int row = 0; row < count; row++) {
+      int source = order[row];
+      sortedIds[row] = rowIds[source];
+      sortedVersions[row] = rowVersions[source];
+      sortedCodes[row] = rowCodes[source];
+      sortedNames.add(rowNames.get(source));
+      sortedDescriptions.add(rowDescriptions.get(source));
+    }
+    sortedNames.trimToSize();
+    sortedDescriptions.trimToSize();
+    return new CourseCatalogStore(sortedIds, sortedVersions, sortedCodes,
+        Arrays.copyOf(dictionaryIds, categoryCount),
+        Arrays.copyOf(dictionaryNames, categoryCount), codesByCategoryId, sortedNames,
+        sortedDescriptions);
+  }
+
+  /**
+   * Returns a view of a course.
+   *
+   * @param id the course ID
+   * @return a read-only view, or {@code null} if the course is not in the store
+   */
+  public Course get(int id) {
+    int row = Arrays.binarySearch(ids, id);
+    return row >= 0 ? new CourseView(row) : null;
+  }
+
+  /**
+   * Returns whether a course is in the store.
+   *
+   * @param id the course ID
+   * @return {@code true} if it is
+   */
+  public boolean contains(int id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /**
+   * Passes every course, in ID order, to a consumer through one reused view.
+   *
+   * <p>The view moves to the next row after the consumer returns; copy it to keep a course.
+   *
+   * @param consumer the consumer
+   */
+  public void forEach(Consumer<Course> consumer) {
+    CourseView view = new CourseView(0);
+    for (int row = 0; row < ids.length; row++) {
+      view.row = row;
+      consumer.accept(view);
+    }
+  }
+
+  /**
+   * Counts a category's courses by scanning the category column.
+   *
+   * @param categoryId the category ID
+   * @return the number of courses in it
+   */
+  public int countByCategory(int categoryId) {
+    int code = codeOf(categoryId);
+    if (code < 0) {
+      return 0;
+    }
+    int count = 0;
+    for (int rowCode : categoryCodes) {
+      if (rowCode == code) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the IDs of a category's courses by scanning the category column.
+   *
+   * @param categoryId the category ID
+   * @return the course IDs, ascending
+   */
+  public int[] findIdsByCategory(int categoryId) {
+    int code = codeOf(categoryId);
+    if (code < 0) {
+      return new int[0];
+    }
+    int[] matches = new int[countByCategory(categoryId)];
+    int found = 0;
+    for (int row = 0; row < categoryCodes.length; row++) {
+      if (categoryCodes[row] == code) {
+        matches[found++] = ids[row];
+      }
+    }
+    return matches;
+  }
+
+  /** @return the number of courses */
+  public int size() {
+    return ids.length;
+  }
+
+  /** @return the number of distinct categories */
+  public int categoryCount() {
+    return categoryIds.length;
+  }
+
+  /**
+   * Estimates the heap held by the columns, excluding the category names.
+   *
+   * @return the size in bytes
+   */
+  public long sizeInBytes() {
+    return 4L * ids.length + 8L * versions.length + 4L * categoryCodes.length
+        + 4L * categoryIds.length + names.sizeInBytes() + descriptions.sizeInBytes();
+  }
+
+  @Override
+  public String toString() {
+    return "CourseCatalogStore{courses=" + ids.length
+        + ", categories=" + categoryIds.length
+        + ", bytes=" + sizeInBytes() + '}';
+  }
+
+  private int codeOf(int categoryId) {
+    return codesByCategoryId.getOrDefault(categoryId, -1);
+  }
+
+  /** Row order sorting the IDs, or {@code null} if they are already ascending. */
+  private static int[] sortedRows(int[] ids, int count) {
+    boolean sorted = true;
+    for (int row = 1; row < count && sorted; row++) {
+      sorted = ids[row - 1] < ids[row];
+    }
+    if (sorted) {
+      return null;
+    }
+    long[] keyed = new long[count];
+    for (int row = 0; row < count; row++) {
+      keyed[row] = ((long) ids[row] << 32) | row;
+    }
+    Arrays.sort(keyed);
+    int[] order = new int[count];
+    for (int row = 0; row < count; row++) {
+      order[row] = (int) keyed[row];
+    }
+    return order;
+  }
+
+  /** Read-only course backed by one row of the store. */
+  private final class CourseView extends Course {
+    private int row;
+
+    CourseView(int row) {
+      super(null, null, null);
+      this.row = row;
+      markClean();
+    }
+
+    @Override
+    public int getId() {
+      return ids[row];
+    }
+
+    @Override
+    public String getName() {
+      return names.get(row);
+    }
+
+    @Override
+    public Category getCategory() {
+      int code = categoryCodes[row];
+      return code < 0 ? null : new Category(categoryIds[code], categoryNames[code]);
+    }
+
+    @Override
+    public String getDescription() {
+      return descriptions.get(row);
+    }
+
+    @Override
+    public long getVersion() {
+      return versions[row];
+    }
+
+    @Override
+    public void setId(int id) {
+      throw readOnly();
+    }
+
+    @Override
+    public void setName(String name) {
+      throw readOnly();
+    }
+
+    @Override
+    public void setCategory(Category category) {
+      throw readOnly();
+    }
+
+    @Override
+    public void setDescription(String description) {
+      throw readOnly();
+    }
+
+    @Override
+    public void setVersion(long version) {
+      throw readOnly();
+    }
+
+    @Override
+    public void markDirty(Set<Field> fields) {
+      throw readOnly();
+    }
+
+    private UnsupportedOperationException readOnly() {
+      return new UnsupportedOperationException(
+          "Course " + ids[row] + " is a read-only catalog view; copy it to modify it");
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.solid.srp.good;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a multi-ID course lookup.
+ *
+ * <p>Holds the courses that were found, in the order their IDs were requested, together with
+ * the requested IDs that do not exist in the database.
+ *
+ * @see CourseRepository#findByIds(int[])
+ */
+public class CourseLookup {
+
+  /** Found courses, in request order. */
+  private final List<Course> courses;
+
+  /** Requested IDs with no matching course, in request order. */
+  private final int[] missingIds;
+
+  /**
+   * Constructs a lookup result.
+   *
+   * @param courses the found courses, in request order
+   * @param missingIds the requested IDs that were not found, in request order
+   */
+  public CourseLookup(List<Course> courses, int[] missingIds) {
+    this.courses = Collections.unmodifiableList(courses);
+    this.missingIds = missingIds;
+  }
+
+  /**
+   * Gets the found courses.
+   *
+   * @return an unmodifiable list of courses in the order their IDs were requested
+   */
+  public List<Course> getCourses() {
+    return courses;
+  }
+
+  /**
+   * Gets the requested IDs that did not match any course.
+   *
+   * @return a copy of the missing IDs, in request order
+   */
+  public int[] getMissingIds() {
+    return missingIds.clone();
+  }
+
+  /**
+   * Returns whether every requested ID was found.
+   *
+   * @return {@code true} if no IDs are missing
+   */
+  public boolean isComplete() {
+    return missingIds.length == 0;
+  }
+
+  /**
+   * Returns a string representation of this lookup.
+   *
+   * @return a string in the format "CourseLookup{found=..., missing=...}"
+   */
+  @Override
+  public String toString() {
+    return "CourseLookup{" + "found=" + courses.size() + ", missing=" + missingIds.length + '}';
+  }
+}
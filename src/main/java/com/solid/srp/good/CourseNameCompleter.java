@@ -0,0 +1,467 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.IntIntMap;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.PrefixTrie;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead completion of course names.
+ *
+ * <p>Completions come from an immutable {@link PrefixTrie} snapshot, so a lookup costs a walk
+ * down the prefix and never touches the database. Every word of a name is indexed: "boot"
+ * completes "Spring Boot Masterclass". Results are ranked shortest name first.
+ *
+ * <p><b>Incremental maintenance:</b> As a {@link CourseRepositoryListener} the completer
+ * records each new, renamed or deleted course in a small pending overlay that lookups merge
+ * with the snapshot. The overlay is an append-only log, so recording a change costs the same
+ * however many are pending. Once {@code maxPendingChanges} courses have changed, a background
+ * thread folds the changes into a fresh snapshot built from the old one, without a query;
+ * writers and lookups carry on against the previous snapshot while it is built, and changes
+ * made meanwhile are carried over to the new one. Updates that do not change the name are
+ * ignored.
+ *
+ * <p>Register the completer before loading it so no write is missed:
+ *
+ * <pre>{@code
+ * CourseNameCompleter completer = new CourseNameCompleter(10, 1024);
+ * repository.addListener(completer);
+ * completer.rebuild(pdo);
+ * int[] ids = completer.complete("spr", 5);
+ * }</pre>
+ *
+ * <p><b>Accuracy:</b> Each trie node keeps only its best {@code maxResults} entries. A lookup
+ * whose best entries were mostly renamed or deleted since the last snapshot may therefore
+ * return fewer than {@code k} IDs until the next compaction; the IDs it does return are
+ * still the best ones, in order.
+ *
+ * <p><b>Thread safety:</b> Lookups read a published state without locking; writes, rebuilds
+ * and the publishing of a compacted snapshot are serialized on the completer. The compactor
+ * thread exits when idle, so a completer that is no longer used needs no shutdown.
+ */
+public class CourseNameCompleter implements CourseRepositoryListener {
+
+  /** Default for the largest number of completions per lookup. */
+  public static final int DEFAULT_MAX_RESULTS = 10;
+
+  /** Default number of pending changes that triggers a compaction. */
+  public static final int DEFAULT_MAX_PENDING_CHANGES = 1024;
+
+  /** Loads the whole completer. */
+  private static final String SELECT_ALL_SQL = "SELECT id, name FROM course";
+
+  private static final int[] NO_IDS = new int[0];
+
+  /** Marks a snapshot entry or overlay entry that no later change has replaced. */
+  private static final int CURRENT = Integer.MAX_VALUE;
+
+  private static final int NONE = -1;
+
+  /** How long the idle compactor thread lingers before exiting. */
+  private static final long COMPACTOR_KEEP_ALIVE_SECONDS = 30;
+
+  private final int maxResults;
+  private final int maxPendingChanges;
+
+  /** Current snapshot and overlay, published as a whole after every change. */
+  private volatile State state;
+
+  /** Overlay entry holding each pending course's latest change. Guarded by {@code this}. */
+  private final IntIntMap latestChanges = new IntIntMap();
+
+  /** Whether a compaction is running or queued. Guarded by {@code this}. */
+  private boolean compacting;
+
+  /** Runs the compactions triggered by writes, one at a time. */
+  private final ExecutorService compactor;
+
+  /**
+   * Creates an empty completer with default limits.
+   */
+  public CourseNameCompleter() {
+    this(DEFAULT_MAX_RESULTS, DEFAULT_MAX_PENDING_CHANGES);
+  }
+
+  /**
+   * Creates an empty completer.
+   *
+   * @param maxResults the largest number of completions a lookup returns
+   * @param maxPendingChanges the number of changes held beside the snapshot before it is
+   *     rebuilt
+   * @throws IllegalArgumentException if either limit is less than 1
+   */
+  public CourseNameCompleter(int maxResults, int maxPendingChanges) {
+    if (maxResults < 1 || maxPendingChanges < 1) {
+      throw new IllegalArgumentException(
+          "Completer limits must be positive, got results=" + maxResults
+              + ", pending=" + maxPendingChanges);
+    }
+    this.maxResults = maxResults;
+    this.maxPendingChanges = maxPendingChanges;
+    this.state = State.of(new PrefixTrie(NO_IDS, new String[0], maxResults));
+    this.compactor =
+        new ThreadPoolExecutor(
+            0,
+            1,
+            COMPACTOR_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "course-name-compactor");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Reloads every course name from the database and drops the pending changes.
+   *
+   * <p>Writes reported while the reload runs wait for it and are applied on top.
+   *
+   * @param pdo the database to load from
+   * @throws SQLException if a database error occurs; the previous contents are kept
+   */
+  public synchronized void rebuild(PDO pdo) throws SQLException {
+    int[] ids = new int[256];
+    String[] names = new String[256];
+    int count = 0;
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ALL_SQL)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        if (count == ids.length) {
+          ids = Arrays.copyOf(ids, count * 2);
+          names = Arrays.copyOf(names, count * 2);
+        }
+        ids[count] = resultSet.getInt(1);
+        names[count] = resultSet.getString(2);
+        count++;
+      }
+    }
+    PrefixTrie trie =
+        new PrefixTrie(Arrays.copyOf(ids, count), Arrays.copyOf(names, count), maxResults);
+    state = State.of(trie);
+    latestChanges.clear();
+  }
+
+  /**
+   * Returns the best-ranked courses with a name word starting with the prefix.
+   *
+   * @param prefix the text typed so far; case and extra whitespace are ignored
+   * @param k the number of completions wanted (capped at {@code maxResults})
+   * @return the course IDs, best first
+   */
+  public int[] complete(String prefix, int k) {
+    int limit = Math.min(k, maxResults);
+    if (limit < 1) {
+      return NO_IDS;
+    }
+    String normalized = PrefixTrie.normalize(prefix);
+    State current = state;
+    if (current.count == 0) {
+      return current.trie.complete(normalized, limit);
+    }
+
+    // Changed courses come from the overlay; the snapshot's entries for them are stale
+    List<Integer> changed = new ArrayList<>();
+    for (int entry = 0; entry < current.count; entry++) {
+      String name = current.names[entry];
+      if (current.isLatest(entry) && name != null && PrefixTrie.matches(name, normalized)) {
+        changed.add(entry);
+      }
+    }
+    changed.sort((a, b) -> PrefixTrie.compareRank(
+        current.names[a], current.ids[a], current.names[b], current.ids[b]));
+
+    // A full list may have been cut off: past its end, unseen snapshot entries could still
+    // outrank the remaining overlay entries
+    int[] ranks = current.trie.completeRanks(normalized, maxResults);
+    boolean truncated = ranks.length == maxResults;
+    int[] ids = new int[limit];
+    int found = 0;
+    int rankIndex = 0;
+    int changedIndex = 0;
+    while (found < limit) {
+      while (rankIndex < ranks.length && current.isChanged(ranks[rankIndex])) {
+        rankIndex++;
+      }
+      boolean fromSnapshot = rankIndex < ranks.length;
+      boolean fromOverlay = changedIndex < changed.size();
+      if (fromSnapshot && fromOverlay) {
+        int rank = ranks[rankIndex];
+        int entry = changed.get(changedIndex);
+        fromSnapshot = PrefixTrie.compareRank(current.trie.keyAt(rank), current.trie.idAt(rank),
+            current.names[entry], current.ids[entry]) < 0;
+      } else if (!fromSnapshot && (!fromOverlay || truncated)) {
+        break;
+      }
+      ids[found++] = fromSnapshot
+          ? current.trie.idAt(ranks[rankIndex++])
+          : current.ids[changed.get(changedIndex++)];
+    }
+    return found == limit ? ids : Arrays.copyOf(ids, found);
+  }
+
+  /**
+   * Folds the pending changes into a new snapshot now instead of waiting for the limit.
+   *
+   * <p>Runs on the calling thread. Returns at once if a compaction is already running.
+   */
+  public void compact() {
+    synchronized (this) {
+      if (compacting || state.count == 0) {
+        return;
+      }
+      compacting = true;
+    }
+    runCompaction();
+  }
+
+  /**
+   * Returns the number of courses that can be completed.
+   *
+   * @return the course count, including pending changes
+   */
+  public int size() {
+    State current = state;
+    int size = current.trie.size();
+    for (int entry = 0; entry < current.count; entry++) {
+      if (!current.isLatest(entry)) {
+        continue;
+      }
+      boolean indexed = current.trie.rankOf(current.ids[entry]) >= 0;
+      if (current.names[entry] == null && indexed) {
+        size--;
+      } else if (current.names[entry] != null && !indexed) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of courses changed since the snapshot was built.
+   *
+   * @return the pending change count
+   */
+  public int getPendingChangeCount() {
+    return state.pendingCount;
+  }
+
+  @Override
+  public void onSaved(Course course) {
+    change(course.getId(), PrefixTrie.normalize(course.getName()));
+  }
+
+  @Override
+  public void onUpdated(Course course) {
+    change(course.getId(), PrefixTrie.normalize(course.getName()));
+  }
+
+  @Override
+  public void onDeleted(int courseId) {
+    change(courseId, null);
+  }
+
+  /**
+   * Records a course's new name, or its deletion when {@code name} is {@code null}, and starts
+   * a background compaction once the overlay is full.
+   */
+  private synchronized void change(int courseId, String name) {
+    State current = state;
+    State next = record(current, courseId, name);
+    if (next == current) {
+      return;
+    }
+    state = next;
+    if (next.pendingCount >= maxPendingChanges && !compacting) {
+      compacting = true;
+      compactor.execute(this::compactInBackground);
+    }
+  }
+
+  /**
+   * Appends a change to the overlay of a state, unless it leaves the name as it is. The
+   * caller holds the lock and publishes the result.
+   *
+   * @return the state with the change, or {@code current} if there was nothing to record
+   */
+  private State record(State current, int courseId, String name) {
+    int latest = latestChanges.getOrDefault(courseId, NONE);
+    String previous = latest != NONE ? current.names[latest] : current.trie.keyOf(courseId);
+    if (Objects.equals(previous, name)) {
+      return current;
+    }
+    int entry = current.count;
+    int[] ids = current.ids;
+    String[] names = current.names;
+    int[] replacedAt = current.replacedAt;
+    if (entry == ids.length) {
+      // Readers of older states keep the old arrays, so they never see the copy being made
+      int capacity = Math.max(16, entry * 2);
+      ids = Arrays.copyOf(ids, capacity);
+      names = Arrays.copyOf(names, capacity);
+      replacedAt = Arrays.copyOf(replacedAt, capacity);
+    }
+    ids[entry] = courseId;
+    names[entry] = name;
+    replacedAt[entry] = CURRENT;
+    int pendingCount = current.pendingCount;
+    if (latest != NONE) {
+      replacedAt[latest] = entry;
+    } else {
+      pendingCount++;
+      int rank = current.trie.rankOf(courseId);
+      if (rank >= 0) {
+        current.changedAt[rank] = entry;
+      }
+    }
+    latestChanges.put(courseId, entry);
+    return new State(current.trie, current.changedAt, ids, names, replacedAt, entry + 1,
+        pendingCount);
+  }
+
+  /** Compaction started by a write; errors are logged and the overlay kept. */
+  private void compactInBackground() {
+    try {
+      runCompaction();
+    } catch (RuntimeException e) {
+      System.err.println("Error compacting course names: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Builds a snapshot from the current state and publishes it, then queues another compaction
+   * if the overlay is already full again. The caller has set {@code compacting}.
+   */
+  private void runCompaction() {
+    boolean again = false;
+    try {
+      State base = state;
+      PrefixTrie trie = merge(base);
+      synchronized (this) {
+        State current = state;
+        if (current.trie != base.trie) {
+          // Replaced by a rebuild in the meantime
+          return;
+        }
+        // Carry over the changes made while the new snapshot was being built
+        State next = State.of(trie);
+        latestChanges.clear();
+        for (int entry = base.count; entry < current.count; entry++) {
+          if (current.isLatest(entry)) {
+            next = record(next, current.ids[entry], current.names[entry]);
+          }
+        }
+        state = next;
+        // Writes made during a long build may have filled the new overlay already
+        again = next.pendingCount >= maxPendingChanges;
+      }
+    } finally {
+      synchronized (this) {
+        compacting = again;
+      }
+    }
+    if (again) {
+      compactor.execute(this::compactInBackground);
+    }
+  }
+
+  /** Builds a snapshot holding the base snapshot with its pending changes applied. */
+  private PrefixTrie merge(State base) {
+    int count = base.trie.size() + base.pendingCount;
+    int[] ids = new int[count];
+    String[] names = new String[count];
+    int index = 0;
+    for (int rank = 0; rank < base.trie.size(); rank++) {
+      if (!base.isChanged(rank)) {
+        ids[index] = base.trie.idAt(rank);
+        names[index++] = base.trie.keyAt(rank);
+      }
+    }
+    for (int entry = 0; entry < base.count; entry++) {
+      if (base.isLatest(entry) && base.names[entry] != null) {
+        ids[index] = base.ids[entry];
+        names[index++] = base.names[entry];
+      }
+    }
+    return new PrefixTrie(Arrays.copyOf(ids, index), Arrays.copyOf(names, index), maxResults);
+  }
+
+  @Override
+  public String toString() {
+    State current = state;
+    return "CourseNameCompleter{snapshot=" + current.trie
+        + ", pending=" + current.pendingCount + '}';
+  }
+
+  /**
+   * A snapshot and the log of changes made since it was built: course ID and name, the name
+   * being {@code null} for a deletion.
+   *
+   * <p>The arrays are shared with the states published before and after, and entries below
+   * {@code count} are never rewritten, with one exception: when a course changes again, the
+   * writer records in {@code replacedAt} (or in {@code changedAt}, for a snapshot entry) the
+   * log position of the change. That position is at least the {@code count} of every state
+   * published earlier, so readers of those states still see the entry as current, whichever
+   * value they read.
+   */
+  private static final class State {
+    private final PrefixTrie trie;
+
+    /** Per snapshot rank: log position of the first change to the course, or CURRENT. */
+    private final int[] changedAt;
+
+    /** The change log. */
+    private final int[] ids;
+    private final String[] names;
+
+    /** Per log entry: log position of the next change to the same course, or CURRENT. */
+    private final int[] replacedAt;
+
+    /** Log entries visible in this state. */
+    private final int count;
+
+    /** Distinct courses in the log. */
+    private final int pendingCount;
+
+    State(PrefixTrie trie, int[] changedAt, int[] ids, String[] names, int[] replacedAt,
+        int count, int pendingCount) {
+      this.trie = trie;
+      this.changedAt = changedAt;
+      this.ids = ids;
+      this.names = names;
+      this.replacedAt = replacedAt;
+      this.count = count;
+      this.pendingCount = pendingCount;
+    }
+
+    /** Returns a state with a snapshot and no changes. */
+    static State of(PrefixTrie trie) {
+      int[] changedAt = new int[trie.size()];
+      Arrays.fill(changedAt, CURRENT);
+      return new State(trie, changedAt, NO_IDS, new String[0], NO_IDS, 0, 0);
+    }
+
+    /** Whether the course at a snapshot rank has changed in this state. */
+    boolean isChanged(int rank) {
+      return changedAt[rank] < count;
+    }
+
+    /** Whether a log entry is its course's latest change in this state. */
+    boolean isLatest(int entry) {
+      return replacedAt[entry] >= count;
+    }
+  }
+}
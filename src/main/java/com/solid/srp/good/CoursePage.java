@@ -0,0 +1,121 @@
+package com.solid.srp.good;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated course listing.
+ *
+ * <p>A page carries its courses and, when more rows follow, a continuation token. Passing the
+ * token to {@link CourseRepository#page(String, int)} returns the next page by seeking directly
+ * past the last row of this one, so fetching page N costs the same as fetching page 1.
+ *
+ * <p>Tokens are opaque strings: {@code "id:<lastId>"} for the full listing and
+ * {@code "category:<categoryId>:<lastId>"} for a category listing.
+ *
+ * @see CourseRepository#page(int, int)
+ * @see CourseRepository#pageByCategory(int, int, int)
+ */
+public class CoursePage {
+
+  /** Token prefix for pages over the whole course table. */
+  private static final String ID_PREFIX = "id:";
+
+  /** Token prefix for pages over one category. */
+  private static final String CATEGORY_PREFIX = "category:";
+
+  /** Courses on this page, ordered by ID. */
+  private final List<Course> courses;
+
+  /** Token for the next page, or {@code null} if this is the last page. */
+  private final String continuationToken;
+
+  /**
+   * Constructs a page.
+   *
+   * @param courses the courses on this page, ordered by ID
+   * @param continuationToken the token for the next page, or {@code null} on the last page
+   */
+  public CoursePage(List<Course> courses, String continuationToken) {
+    this.courses = Collections.unmodifiableList(courses);
+    this.continuationToken = continuationToken;
+  }
+
+  /**
+   * Gets the courses on this page.
+   *
+   * @return an unmodifiable list of courses ordered by ID
+   */
+  public List<Course> getCourses() {
+    return courses;
+  }
+
+  /**
+   * Gets the token that fetches the next page.
+   *
+   * @return the continuation token, or {@code null} if this is the last page
+   */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  /**
+   * Returns whether another page follows this one.
+   *
+   * @return {@code true} if {@link #getContinuationToken()} is not {@code null}
+   */
+  public boolean hasMore() {
+    return continuationToken != null;
+  }
+
+  /**
+   * Returns a string representation of this page.
+   *
+   * @return a string in the format "CoursePage{size=..., continuationToken='...'}"
+   */
+  @Override
+  public String toString() {
+    return "CoursePage{"
+        + "size="
+        + courses.size()
+        + ", continuationToken='"
+        + continuationToken
+        + '\''
+        + '}';
+  }
+
+  /** Builds the token for a page over the whole course table. */
+  static String idToken(int lastId) {
+    return ID_PREFIX + lastId;
+  }
+
+  /** Builds the token for a page over one category. */
+  static String categoryToken(int categoryId, int lastId) {
+    return CATEGORY_PREFIX + categoryId + ":" + lastId;
+  }
+
+  /**
+   * Decodes a continuation token.
+   *
+   * @param token a token produced by a previous page
+   * @return {@code {lastId}} for full listings or {@code {categoryId, lastId}} for category
+   *     listings
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  static int[] decodeToken(String token) {
+    try {
+      if (token.startsWith(ID_PREFIX)) {
+        return new int[] {Integer.parseInt(token.substring(ID_PREFIX.length()))};
+      }
+      if (token.startsWith(CATEGORY_PREFIX)) {
+        String[] parts = token.substring(CATEGORY_PREFIX.length()).split(":", -1);
+        if (parts.length == 2) {
+          return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        }
+      }
+    } catch (NumberFormatException e) {
+      // fall through to the error below
+    }
+    throw new IllegalArgumentException("Malformed continuation token: " + token);
+  }
+}
@@ -1,8 +1,30 @@
 package com.solid.srp.good;
 
 import com.solid.srp.Category;
+import com.solid.srp.utils.IdAllocator;
 import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.QueryPlanChecker;
+import com.solid.srp.utils.UncheckedSQLException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.h2.engine.Session;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
 
 /**
  * Repository for managing Course entity persistence operations.
@@ -18,9 +40,9 @@ import java.sql.*;
  *
  * <p><b>Key responsibilities:</b>
  * <ul>
- *   <li>Saving new Course entities to the database</li>
- *   <li>Retrieving Course entities from the database</li>
- *   <li>Updating existing Course entities</li>
+ *   <li>Saving new Course entities to the database, one at a time or in JDBC batches</li>
+ *   <li>Retrieving Course entities from the database, by single ID, in bulk or by category</li>
+ *   <li>Updating existing Course entities, one at a time or in JDBC batches</li>
  *   <li>Deleting Course entities</li>
  *   <li>Managing relationships with Category entities</li>
  * </ul>
@@ -34,6 +56,14 @@ import java.sql.*;
  *   <li><b>Encapsulation:</b> All database knowledge is contained in this class</li>
  * </ul>
  *
+ * <p><b>Connections:</b> Every operation borrows its own connection from {@link PDO} and
+ * gives it back when done, so the repository is safe for concurrent callers when the PDO runs
+ * in pooled mode.
+ *
+ * <p><b>Write notifications:</b> Every committed write is reported to the registered {@link
+ * CourseRepositoryListener}s, which keep caches and in-process indexes such as the {@link
+ * CategoryCourseIndex} current.
+ *
  * <p><b>Contrast with bad design:</b>
  * The bad SRP example puts these methods directly in the Course class, violating SRP. This
  * repository pattern shows the correct approach.
@@ -44,16 +74,176 @@ import java.sql.*;
  */
 public class CourseRepository {
 
+  /** Number of courses sent per JDBC batch by {@link #saveAll(Collection)}. */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  /** Rows fetched per round trip by the streaming queries unless a fetch size is given. */
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+
+  /** Number of IDs bound per statement by {@link #findByIds(int[])}. */
+  private static final int ID_CHUNK_SIZE = 64;
+
+  /** Course columns joined with their category; callers append the WHERE clause. */
+  private static final String SELECT_COURSE_SQL =
+      "SELECT c.id, c.name, c.description, c.version, cat.id as cat_id, cat.name as cat_name "
+          + "FROM course c "
+          + "JOIN category cat ON c.category_id = cat.id ";
+
+  /** Multi-ID lookup with a fixed number of placeholders, so it is prepared only once. */
+  private static final String SELECT_COURSES_BY_IDS_SQL =
+      SELECT_COURSE_SQL + "WHERE c.id IN (" + "?, ".repeat(ID_CHUNK_SIZE - 1) + "?)";
+
+  /** SQL used to insert a course row with a database-generated ID. */
+  private static final String INSERT_COURSE_SQL =
+      "INSERT INTO course (name, category_id, description) VALUES (?, ?, ?)";
+
+  /** SQL used to insert a course row whose ID was allocated up front. */
+  private static final String INSERT_COURSE_WITH_ID_SQL =
+      "INSERT INTO course (id, name, category_id, description) VALUES (?, ?, ?, ?)";
+
+  /** Counts a category's courses when no category index is enabled. */
+  private static final String COUNT_BY_CATEGORY_SQL =
+      "SELECT COUNT(*) FROM course WHERE category_id = ?";
+
+  /** Lists a category's course IDs when no category index is enabled. */
+  private static final String SELECT_IDS_BY_CATEGORY_SQL =
+      "SELECT id FROM course WHERE category_id = ? ORDER BY id";
+
+  /** SQL used to delete a course row. */
+  private static final String DELETE_COURSE_SQL = "DELETE FROM course WHERE id = ?";
+
   /** Database connection manager. */
   private final PDO pdo;
 
+  /** Maps category names to IDs, creating categories on first use. */
+  private final CategoryResolver categoryResolver;
+
+  /** Allocates course IDs before insert, or {@code null} to use database-generated keys. */
+  private final IdAllocator courseIds;
+
+  /** Notified after every committed write. */
+  private final List<CourseRepositoryListener> listeners = new CopyOnWriteArrayList<>();
+
+  /** Serves category listings from memory, or {@code null} to query the database. */
+  private volatile CategoryCourseIndex categoryIndex;
+
   /**
    * Constructs a CourseRepository with the specified database connection.
    *
    * @param pdo the database connection manager
    */
   public CourseRepository(PDO pdo) {
+    this(pdo, new CategoryResolver(pdo));
+  }
+
+  /**
+   * Constructs a CourseRepository that shares a category resolver with other components.
+   *
+   * @param pdo the database connection manager
+   * @param categoryResolver the resolver used to map category names to IDs
+   */
+  public CourseRepository(PDO pdo, CategoryResolver categoryResolver) {
+    this(pdo, categoryResolver, null);
+  }
+
+  /**
+   * Constructs a CourseRepository that assigns course IDs before inserting.
+   *
+   * <p>With an {@link IdAllocator}, inserts carry their ID instead of reading it back through
+   * generated keys, which saves a result set per row and lets batches skip key retrieval.
+   *
+   * @param pdo the database connection manager
+   * @param categoryResolver the resolver used to map category names to IDs
+   * @param courseIds the allocator for course IDs (drawing from {@link PDO#COURSE_SEQUENCE}),
+   *     or {@code null} to use database-generated keys
+   */
+  public CourseRepository(PDO pdo, CategoryResolver categoryResolver, IdAllocator courseIds) {
     this.pdo = pdo;
+    this.categoryResolver = categoryResolver;
+    this.courseIds = courseIds;
+  }
+
+  /**
+   * Gets the category resolver used by this repository.
+   *
+   * @return the category resolver
+   */
+  public CategoryResolver getCategoryResolver() {
+    return categoryResolver;
+  }
+
+  /**
+   * Registers a listener for committed writes.
+   *
+   * @param listener the listener to notify
+   * @see CourseRepositoryListener
+   */
+  public void addListener(CourseRepositoryListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregisters a listener.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(CourseRepositoryListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Serves category listings from an in-process index from now on.
+   *
+   * <p>The index is loaded from the database and then kept current by this repository's
+   * writes, so {@link #findIdsByCategory(int)} and {@link #countByCategory(int)} no longer
+   * query the database and {@link #findByCategory(int)} only fetches the listed courses by
+   * primary key. Writes that bypass this repository are not seen until {@link
+   * CategoryCourseIndex#rebuild(PDO)} is called.
+   *
+   * @return the index (the existing one if already enabled)
+   * @throws SQLException if the index cannot be loaded
+   */
+  public synchronized CategoryCourseIndex enableCategoryIndex() throws SQLException {
+    if (categoryIndex == null) {
+      CategoryCourseIndex index = new CategoryCourseIndex();
+      addListener(index);
+      try {
+        index.rebuild(pdo);
+      } catch (SQLException | RuntimeException e) {
+        removeListener(index);
+        throw e;
+      }
+      categoryIndex = index;
+    }
+    return categoryIndex;
+  }
+
+  /**
+   * Checks that the repository's queries are served by indexes.
+   *
+   * <p>Meant to run once at startup: every query this repository issues is explained, and
+   * those that fall back to a full table scan are reported on stderr (see {@link
+   * QueryPlanChecker}).
+   *
+   * @return the warnings, empty if every query uses an index
+   * @throws SQLException if a query cannot be explained
+   */
+  public List<String> checkQueryPlans() throws SQLException {
+    Map<String, String> queries = new LinkedHashMap<>();
+    queries.put("findById", SELECT_COURSE_SQL + "WHERE c.id = ?");
+    queries.put("findByIds", SELECT_COURSES_BY_IDS_SQL);
+    queries.put("streamAll", SELECT_COURSE_SQL + "ORDER BY c.id");
+    queries.put("streamByCategory", SELECT_COURSE_SQL + "WHERE c.category_id = ? ORDER BY c.id");
+    queries.put("countByCategory", COUNT_BY_CATEGORY_SQL);
+    queries.put("findIdsByCategory", SELECT_IDS_BY_CATEGORY_SQL);
+    queries.put("page", SELECT_COURSE_SQL + "WHERE c.id > ? ORDER BY c.id LIMIT ?");
+    queries.put(
+        "pageByCategory",
+        SELECT_COURSE_SQL + "WHERE c.category_id = ? AND c.id > ? ORDER BY c.id LIMIT ?");
+    queries.put("update", updateSql(EnumSet.allOf(Course.Field.class), true));
+    queries.put("delete", DELETE_COURSE_SQL);
+    queries.put("resolveCategory", CategoryResolver.UPSERT_SQL);
+    return new QueryPlanChecker(pdo).check(queries);
   }
 
   // ============ SINGLE RESPONSIBILITY ============
@@ -65,15 +255,20 @@ public class CourseRepository {
   /**
    * Persists a course to the database.
    *
-   * <p>If the course's category doesn't have an ID yet, this method will save the category
-   * first to ensure referential integrity. The generated database IDs are automatically
-   * assigned back to the Course and Category objects.
+   * <p>If the course's category doesn't have an ID yet, it is resolved by name first to
+   * ensure referential integrity; an existing category with the same name is reused. The
+   * generated database IDs are automatically assigned back to the Course and Category objects.
+   *
+   * <p>The category and the course are written in one transaction (see {@link
+   * PDO#inTransaction(PDO.TransactionWork)}), so a failed insert never leaves a new category
+   * behind; in that case both IDs stay 0.
    *
    * <p><b>Database operations:</b>
    * <ul>
-   *   <li>Inserts the category if needed (INSERT INTO category)</li>
+   *   <li>Upserts the category if its name hasn't been resolved before (MERGE INTO category)</li>
    *   <li>Inserts the course (INSERT INTO course)</li>
    *   <li>Sets generated IDs on both objects</li>
+   *   <li>Commits once for both writes</li>
    * </ul>
    *
    * <p><b>Security:</b> Uses PreparedStatement to prevent SQL injection.
@@ -82,33 +277,238 @@ public class CourseRepository {
    * @throws SQLException if a database error occurs during the insert operation
    */
   public void save(Course course) throws SQLException {
-    // Save category if it doesn't have an ID yet
-    if (course.getCategory().getId() == 0) {
-      saveCategory(course.getCategory());
+    Category category = course.getCategory();
+    boolean newCategory = category.getId() == 0;
+    try {
+      pdo.inTransaction(connection -> {
+        // Resolve category if it doesn't have an ID yet
+        if (newCategory) {
+          categoryResolver.resolve(category);
+        }
+        insert(connection, course);
+        return null;
+      });
+    } catch (SQLException | RuntimeException e) {
+      course.setId(0);
+      if (newCategory) {
+        category.setId(0);
+      }
+      throw e;
+    }
+    course.setVersion(0);
+    markSaved(List.of(course));
+    if (newCategory) {
+      pdo.afterRollback(() -> category.setId(0));
+    }
+    fireSaved(course);
+  }
+
+  /**
+   * Inserts one course row and assigns its ID.
+   *
+   * @param connection the connection to use
+   * @param course the course to insert (its category must have an ID)
+   * @throws SQLException if a database error occurs
+   */
+  private void insert(Connection connection, Course course) throws SQLException {
+    // Save the course with a pre-allocated ID if possible
+    if (courseIds != null) {
+      int id = courseIds.nextId();
+      try (PreparedStatement preparedStatement =
+          connection.prepareStatement(INSERT_COURSE_WITH_ID_SQL)) {
+        bindCourseWithId(preparedStatement, id, course);
+        preparedStatement.executeUpdate();
+      }
+      course.setId(id);
+      return;
+    }
+
+    try (PreparedStatement preparedStatement =
+        connection.prepareStatement(INSERT_COURSE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+      preparedStatement.setString(1, course.getName());
+      preparedStatement.setInt(2, course.getCategory().getId());
+      preparedStatement.setString(3, course.getDescription());
+      preparedStatement.executeUpdate();
+
+      ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+      if (generatedKeys.next()) {
+        course.setId(generatedKeys.getInt(1));
+      }
+    }
+  }
+
+  /**
+   * Persists many courses using JDBC batching, {@link #DEFAULT_BATCH_SIZE} rows at a time.
+   *
+   * @param courses the courses to save
+   * @throws SQLException if a database error occurs
+   * @see #saveAll(Collection, int)
+   */
+  public void saveAll(Collection<Course> courses) throws SQLException {
+    saveAll(courses, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Persists many courses using JDBC batching.
+   *
+   * <p>Courses are sent to the database in batches of {@code batchSize} rows. Each batch runs
+   * in its own transaction, so one round trip and one commit cover a whole batch instead of a
+   * single row. As with {@link #save(Course)}, generated IDs are assigned back to every course.
+   *
+   * <p>Categories without an ID are resolved by name first, so each distinct category name
+   * costs at most one upsert no matter how many courses share it.
+   *
+   * <p>If a batch fails, that batch is rolled back and its courses keep an ID of 0. Batches
+   * committed before the failure stay committed. Called inside {@link
+   * PDO#inTransaction(PDO.TransactionWork)}, the batches become savepoints of the caller's
+   * transaction and are committed (or not) with it; if it rolls back, every course and new
+   * category loses its ID again and the courses are new and dirty once more.
+   *
+   * <p><b>Database operations:</b>
+   * <ul>
+   *   <li>Upserts each category name not resolved before (MERGE INTO category)</li>
+   *   <li>Inserts the courses in batches (INSERT INTO course, executeBatch)</li>
+   *   <li>Reads generated keys for each batch and sets them on the courses</li>
+   * </ul>
+   *
+   * @param courses the courses to save (each must have name, category, and description set)
+   * @param batchSize the number of courses per batch and transaction
+   * @throws SQLException if a database error occurs
+   * @throws IllegalArgumentException if {@code batchSize} is less than 1
+   */
+  public void saveAll(Collection<Course> courses, int batchSize) throws SQLException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1, got " + batchSize);
+    }
+    if (courses.isEmpty()) {
+      return;
+    }
+
+    // Resolve categories up front; repeated names are served from the resolver's cache
+    List<Category> newCategories = new ArrayList<>();
+    for (Course course : courses) {
+      if (course.getCategory().getId() == 0) {
+        newCategories.add(course.getCategory());
+        categoryResolver.resolve(course.getCategory());
+      }
+    }
+    if (!newCategories.isEmpty() && pdo.isInTransaction()) {
+      pdo.afterRollback(() -> newCategories.forEach(category -> category.setId(0)));
     }
 
-    // Save the course
-    String sql = "INSERT INTO course (name, category_id, description) VALUES (?, ?, ?)";
-    PreparedStatement preparedStatement =
-        pdo.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-    preparedStatement.setString(1, course.getName());
-    preparedStatement.setInt(2, course.getCategory().getId());
-    preparedStatement.setString(3, course.getDescription());
-    preparedStatement.executeUpdate();
+    List<Course> batch = new ArrayList<>(Math.min(batchSize, courses.size()));
+    for (Course course : courses) {
+      batch.add(course);
+      if (batch.size() == batchSize) {
+        commitInserts(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      commitInserts(batch);
+    }
+  }
 
-    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-    if (generatedKeys.next()) {
-      course.setId(generatedKeys.getInt(1));
+  /**
+   * Inserts one batch of courses in its own transaction.
+   *
+   * <p>On failure the batch is rolled back and the IDs of its courses are reset to 0.
+   *
+   * @param batch the courses to insert
+   * @throws SQLException if a database error occurs
+   */
+  private void commitInserts(List<Course> batch) throws SQLException {
+    try {
+      pdo.inTransaction(connection -> {
+        insertRows(connection, batch);
+        return null;
+      });
+    } catch (SQLException | RuntimeException e) {
+      for (Course course : batch) {
+        course.setId(0);
+      }
+      throw e;
+    }
+    markSaved(batch);
+    for (Course course : batch) {
+      fireSaved(course);
     }
-    preparedStatement.close();
+  }
+
+  /**
+   * Inserts courses as one JDBC batch and assigns their IDs, without committing.
+   *
+   * <p>IDs come from the course {@link IdAllocator} when one is configured, otherwise from the
+   * generated keys of the batch. The caller owns the transaction and marks the courses clean
+   * once it commits.
+   *
+   * @param connection the connection to use
+   * @param courses the courses to insert (their categories must have IDs)
+   * @throws SQLException if a database error occurs
+   */
+  void insertRows(Connection connection, List<Course> courses) throws SQLException {
+    if (courseIds != null) {
+      try (PreparedStatement preparedStatement =
+          connection.prepareStatement(INSERT_COURSE_WITH_ID_SQL)) {
+        for (Course course : courses) {
+          course.setId(courseIds.nextId());
+          course.setVersion(0);
+          bindCourseWithId(preparedStatement, course.getId(), course);
+          preparedStatement.addBatch();
+        }
+        preparedStatement.executeBatch();
+      }
+      return;
+    }
+
+    try (PreparedStatement preparedStatement =
+        connection.prepareStatement(INSERT_COURSE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+      for (Course course : courses) {
+        preparedStatement.setString(1, course.getName());
+        preparedStatement.setInt(2, course.getCategory().getId());
+        preparedStatement.setString(3, course.getDescription());
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+
+      ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+      int assigned = 0;
+      for (Course course : courses) {
+        if (!generatedKeys.next()) {
+          // Courses without an ID would be marked clean; fail so the transaction rolls back
+          throw new SQLException(
+              "Expected " + courses.size() + " generated keys, got " + assigned);
+        }
+        course.setId(generatedKeys.getInt(1));
+        course.setVersion(0);
+        assigned++;
+      }
+    }
+  }
+
+  /**
+   * Binds the parameters of {@link #INSERT_COURSE_WITH_ID_SQL}.
+   *
+   * @param preparedStatement the insert statement
+   * @param id the course ID
+   * @param course the course
+   * @throws SQLException if a parameter cannot be set
+   */
+  private void bindCourseWithId(PreparedStatement preparedStatement, int id, Course course)
+      throws SQLException {
+    preparedStatement.setInt(1, id);
+    preparedStatement.setString(2, course.getName());
+    preparedStatement.setInt(3, course.getCategory().getId());
+    preparedStatement.setString(4, course.getDescription());
   }
 
   /**
    * Saves a category to the database.
    *
-   * <p>This is a helper method used by save() when a course has a new category that hasn't
-   * been persisted yet. The generated database ID is automatically assigned back to the
-   * Category object.
+   * <p>This is a helper method used when a course has a new category that hasn't been
+   * persisted yet. The category is upserted by name through the {@link CategoryResolver}: if a
+   * category with the same name already exists, its ID is reused instead of inserting a
+   * duplicate row. The database ID is automatically assigned back to the Category object.
    *
    * <p><b>Security:</b> Uses PreparedStatement to prevent SQL injection.
    *
@@ -116,17 +516,7 @@ public class CourseRepository {
    * @throws SQLException if a database error occurs
    */
   public void saveCategory(Category category) throws SQLException {
-    String sql = "INSERT INTO category (name) VALUES (?)";
-    PreparedStatement preparedStatement =
-        pdo.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-    preparedStatement.setString(1, category.getName());
-    preparedStatement.executeUpdate();
-
-    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-    if (generatedKeys.next()) {
-      category.setId(generatedKeys.getInt(1));
-    }
-    preparedStatement.close();
+    categoryResolver.resolve(category);
   }
 
   /**
@@ -144,52 +534,656 @@ public class CourseRepository {
    * @throws SQLException if a database error occurs
    */
   public Course findById(int id) throws SQLException {
-    String sql =
-        "SELECT c.id, c.name, c.description, cat.id as cat_id, cat.name as cat_name "
-            + "FROM course c "
-            + "JOIN category cat ON c.category_id = cat.id "
-            + "WHERE c.id = ?";
+    String sql = SELECT_COURSE_SQL + "WHERE c.id = ?";
 
-    PreparedStatement preparedStatement = pdo.getConnection().prepareStatement(sql);
-    preparedStatement.setInt(1, id);
-    ResultSet resultSet = preparedStatement.executeQuery();
-
-    Course course = null;
-    if (resultSet.next()) {
-      Category category = new Category(resultSet.getInt("cat_id"), resultSet.getString("cat_name"));
-      course =
-          new Course(
-              resultSet.getInt("id"),
-              resultSet.getString("name"),
-              category,
-              resultSet.getString("description"));
-    }
-    preparedStatement.close();
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+      preparedStatement.setInt(1, id);
+      ResultSet resultSet = preparedStatement.executeQuery();
+
+      Course course = null;
+      if (resultSet.next()) {
+        course = mapCourse(resultSet);
+      }
+      return course;
+    }
+  }
+
+  /**
+   * Retrieves many courses by ID with as few queries as possible.
+   *
+   * <p>IDs are deduplicated and looked up with {@code IN} lists of a fixed size, so a page of
+   * up to 64 courses costs a single query and the same prepared statement is reused for every
+   * chunk. The result keeps the caller's ID order (duplicates included) and reports the IDs
+   * that don't exist. IDs stay primitive throughout, so large ID sets are never boxed.
+   *
+   * <p><b>Database operation:</b> SELECT with JOIN ... WHERE c.id IN (?, ?, ...)
+   *
+   * @param ids the course IDs to retrieve
+   * @return the found courses in request order and the missing IDs
+   * @throws SQLException if a database error occurs
+   */
+  public CourseLookup findByIds(int[] ids) throws SQLException {
+    int[] uniqueIds = ids.clone();
+    Arrays.sort(uniqueIds);
+    int uniqueCount = 0;
+    for (int i = 0; i < uniqueIds.length; i++) {
+      if (i == 0 || uniqueIds[i] != uniqueIds[i - 1]) {
+        uniqueIds[uniqueCount++] = uniqueIds[i];
+      }
+    }
+    uniqueIds = Arrays.copyOf(uniqueIds, uniqueCount);
+
+    // found[i] holds the course whose ID is uniqueIds[i]
+    Course[] found = new Course[uniqueCount];
+    if (uniqueCount > 0) {
+      try (Connection connection = pdo.borrowConnection();
+          PreparedStatement preparedStatement =
+              connection.prepareStatement(SELECT_COURSES_BY_IDS_SQL)) {
+        for (int start = 0; start < uniqueCount; start += ID_CHUNK_SIZE) {
+          int end = Math.min(start + ID_CHUNK_SIZE, uniqueCount);
+          for (int parameter = 0; parameter < ID_CHUNK_SIZE; parameter++) {
+            // Pad the last chunk by repeating its final ID
+            preparedStatement.setInt(parameter + 1, uniqueIds[Math.min(start + parameter, end - 1)]);
+          }
+          ResultSet resultSet = preparedStatement.executeQuery();
+          while (resultSet.next()) {
+            Course course = mapCourse(resultSet);
+            found[Arrays.binarySearch(uniqueIds, course.getId())] = course;
+          }
+          resultSet.close();
+        }
+      }
+    }
+
+    List<Course> courses = new ArrayList<>(ids.length);
+    int[] missingIds = new int[ids.length];
+    int missingCount = 0;
+    for (int id : ids) {
+      Course course = found[Arrays.binarySearch(uniqueIds, id)];
+      if (course != null) {
+        courses.add(course);
+      } else {
+        missingIds[missingCount++] = id;
+      }
+    }
+    return new CourseLookup(courses, Arrays.copyOf(missingIds, missingCount));
+  }
+
+  /**
+   * Retrieves every course of a category, ordered by ID.
+   *
+   * <p>With the {@link #enableCategoryIndex() category index} enabled, the course IDs come
+   * from memory and only the courses themselves are fetched, by primary key; an empty category
+   * costs no query at all. Otherwise the courses are selected by {@code category_id}. For very
+   * large categories prefer {@link #streamByCategory(int)} or {@link #pageByCategory}.
+   *
+   * <p><b>Database operation:</b> SELECT with JOIN ... WHERE c.id IN (...), or WHERE
+   * c.category_id = ? without the index
+   *
+   * @param categoryId the category ID
+   * @return the category's courses
+   * @throws SQLException if a database error occurs
+   */
+  public List<Course> findByCategory(int categoryId) throws SQLException {
+    CategoryCourseIndex index = categoryIndex;
+    if (index != null) {
+      int[] ids = index.courseIds(categoryId);
+      return ids.length == 0 ? new ArrayList<>() : findByIds(ids).getCourses();
+    }
+    try (Stream<Course> courses = streamByCategory(categoryId)) {
+      return courses.collect(Collectors.toCollection(ArrayList::new));
+    }
+  }
+
+  /**
+   * Returns the IDs of a category's courses.
+   *
+   * <p>Answered from memory when the {@link #enableCategoryIndex() category index} is enabled.
+   *
+   * @param categoryId the category ID
+   * @return the course IDs in ascending order
+   * @throws SQLException if a database error occurs
+   */
+  public int[] findIdsByCategory(int categoryId) throws SQLException {
+    CategoryCourseIndex index = categoryIndex;
+    if (index != null) {
+      return index.courseIds(categoryId);
+    }
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement =
+            connection.prepareStatement(SELECT_IDS_BY_CATEGORY_SQL)) {
+      preparedStatement.setInt(1, categoryId);
+      ResultSet resultSet = preparedStatement.executeQuery();
+      int[] ids = new int[16];
+      int count = 0;
+      while (resultSet.next()) {
+        if (count == ids.length) {
+          ids = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count++] = resultSet.getInt(1);
+      }
+      return Arrays.copyOf(ids, count);
+    }
+  }
+
+  /**
+   * Counts the courses of a category.
+   *
+   * <p>Answered from memory when the {@link #enableCategoryIndex() category index} is enabled.
+   *
+   * @param categoryId the category ID
+   * @return the number of courses
+   * @throws SQLException if a database error occurs
+   */
+  public int countByCategory(int categoryId) throws SQLException {
+    CategoryCourseIndex index = categoryIndex;
+    if (index != null) {
+      return index.count(categoryId);
+    }
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(COUNT_BY_CATEGORY_SQL)) {
+      preparedStatement.setInt(1, categoryId);
+      ResultSet resultSet = preparedStatement.executeQuery();
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  /**
+   * Streams every course, using {@link #DEFAULT_FETCH_SIZE}.
+   *
+   * @return a lazily populated stream of courses; must be closed by the caller
+   * @throws SQLException if the query cannot be started
+   * @see #streamAll(int)
+   */
+  public Stream<Course> streamAll() throws SQLException {
+    return streamAll(DEFAULT_FETCH_SIZE);
+  }
+
+  /**
+   * Streams every course, ordered by ID.
+   *
+   * <p>The stream is backed by a forward-only, read-only cursor: rows are fetched from the
+   * database {@code fetchSize} at a time as the stream is consumed, so heap use stays flat no
+   * matter how large the catalog is. The stream holds a connection until it is closed or fully
+   * consumed, so always use it in a try-with-resources block.
+   *
+   * <p>Database errors raised while the stream is consumed are thrown as
+   * {@link UncheckedSQLException}.
+   *
+   * @param fetchSize the number of rows fetched per round trip
+   * @return a lazily populated stream of courses; must be closed by the caller
+   * @throws SQLException if the query cannot be started
+   */
+  public Stream<Course> streamAll(int fetchSize) throws SQLException {
+    return stream(SELECT_COURSE_SQL + "ORDER BY c.id", fetchSize, new int[0]);
+  }
+
+  /**
+   * Streams the courses of one category, using {@link #DEFAULT_FETCH_SIZE}.
+   *
+   * @param categoryId the category ID
+   * @return a lazily populated stream of courses; must be closed by the caller
+   * @throws SQLException if the query cannot be started
+   * @see #streamByCategory(int, int)
+   */
+  public Stream<Course> streamByCategory(int categoryId) throws SQLException {
+    return streamByCategory(categoryId, DEFAULT_FETCH_SIZE);
+  }
+
+  /**
+   * Streams the courses of one category, ordered by ID.
+   *
+   * <p>Behaves like {@link #streamAll(int)}, restricted to a single category.
+   *
+   * @param categoryId the category ID
+   * @param fetchSize the number of rows fetched per round trip
+   * @return a lazily populated stream of courses; must be closed by the caller
+   * @throws SQLException if the query cannot be started
+   */
+  public Stream<Course> streamByCategory(int categoryId, int fetchSize) throws SQLException {
+    return stream(
+        SELECT_COURSE_SQL + "WHERE c.category_id = ? ORDER BY c.id", fetchSize, new int[] {categoryId});
+  }
+
+  /**
+   * Returns a page of courses ordered by ID, starting after the given ID.
+   *
+   * <p>Uses keyset pagination: the query seeks on the {@code id} primary key
+   * ({@code WHERE c.id > ?}) instead of skipping rows with {@code OFFSET}, so every page costs
+   * the same no matter how deep the caller pages. Rows inserted or deleted between calls don't
+   * shift later pages.
+   *
+   * <p><b>Database operation:</b> SELECT with JOIN ... WHERE c.id > ? ORDER BY c.id LIMIT ?
+   *
+   * @param afterId return courses with an ID greater than this (0 for the first page)
+   * @param limit the maximum number of courses on the page
+   * @return the page, with a continuation token if more courses follow
+   * @throws SQLException if a database error occurs
+   */
+  public CoursePage page(int afterId, int limit) throws SQLException {
+    List<Course> courses =
+        fetchPage(SELECT_COURSE_SQL + "WHERE c.id > ? ORDER BY c.id LIMIT ?", limit, afterId);
+    if (courses.size() <= limit) {
+      return new CoursePage(courses, null);
+    }
+    courses.remove(limit);
+    return new CoursePage(courses, CoursePage.idToken(courses.get(limit - 1).getId()));
+  }
+
+  /**
+   * Returns a page of one category's courses ordered by ID, starting after the given ID.
+   *
+   * <p>Pages on the {@code (category_id, id)} key, so like {@link #page(int, int)} the cost of
+   * a page does not depend on its position.
+   *
+   * <p><b>Database operation:</b> SELECT with JOIN ... WHERE c.category_id = ? AND c.id > ?
+   * ORDER BY c.id LIMIT ?
+   *
+   * @param categoryId the category ID
+   * @param afterId return courses with an ID greater than this (0 for the first page)
+   * @param limit the maximum number of courses on the page
+   * @return the page, with a continuation token if more courses follow
+   * @throws SQLException if a database error occurs
+   */
+  public CoursePage pageByCategory(int categoryId, int afterId, int limit) throws SQLException {
+    List<Course> courses =
+        fetchPage(
+            SELECT_COURSE_SQL + "WHERE c.category_id = ? AND c.id > ? ORDER BY c.id LIMIT ?",
+            limit,
+            categoryId,
+            afterId);
+    if (courses.size() <= limit) {
+      return new CoursePage(courses, null);
+    }
+    courses.remove(limit);
+    return new CoursePage(
+        courses, CoursePage.categoryToken(categoryId, courses.get(limit - 1).getId()));
+  }
+
+  /**
+   * Returns the page that follows a previous page.
+   *
+   * @param continuationToken the token from {@link CoursePage#getContinuationToken()}, or
+   *     {@code null} for the first page of the full listing
+   * @param limit the maximum number of courses on the page
+   * @return the next page
+   * @throws SQLException if a database error occurs
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  public CoursePage page(String continuationToken, int limit) throws SQLException {
+    if (continuationToken == null) {
+      return page(0, limit);
+    }
+    int[] key = CoursePage.decodeToken(continuationToken);
+    return key.length == 1 ? page(key[0], limit) : pageByCategory(key[0], key[1], limit);
+  }
+
+  /**
+   * Runs a keyset page query, fetching one row more than the limit to detect further pages.
+   *
+   * @param sql a {@link #SELECT_COURSE_SQL} query whose last parameter is the row limit
+   * @param limit the page size
+   * @param parameters the key parameters, bound before the limit
+   * @return up to {@code limit + 1} courses
+   * @throws SQLException if a database error occurs
+   */
+  private List<Course> fetchPage(String sql, int limit, int... parameters) throws SQLException {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Page limit must be at least 1, got " + limit);
+    }
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; i++) {
+        preparedStatement.setInt(i + 1, parameters[i]);
+      }
+      // Computed in long arithmetic so a limit of Integer.MAX_VALUE does not overflow
+      int rows = (int) Math.min(limit + 1L, Integer.MAX_VALUE);
+      preparedStatement.setInt(parameters.length + 1, rows);
+      ResultSet resultSet = preparedStatement.executeQuery();
+
+      // Not presized from the limit: callers may pass a huge limit to mean "everything"
+      List<Course> courses = new ArrayList<>();
+      while (resultSet.next()) {
+        courses.add(mapCourse(resultSet));
+      }
+      return courses;
+    }
+  }
+
+  /**
+   * Opens a cursor over a course query and exposes it as a stream.
+   *
+   * @param sql a {@link #SELECT_COURSE_SQL} query
+   * @param fetchSize the number of rows fetched per round trip
+   * @param parameters integer parameters to bind, in order
+   * @return a stream that closes the cursor and connection when closed
+   * @throws SQLException if the query cannot be started
+   */
+  private Stream<Course> stream(String sql, int fetchSize, int[] parameters) throws SQLException {
+    if (fetchSize < 1) {
+      throw new IllegalArgumentException("Fetch size must be at least 1, got " + fetchSize);
+    }
+    CourseCursor cursor = new CourseCursor(pdo.borrowConnection());
+    try {
+      cursor.open(sql, fetchSize, parameters);
+    } catch (SQLException | RuntimeException e) {
+      cursor.close();
+      throw e;
+    }
+    return StreamSupport.stream(cursor, false).onClose(cursor::close);
+  }
+
+  /**
+   * Maps the current row of a {@link #SELECT_COURSE_SQL} result to a Course.
+   *
+   * @param resultSet a result set positioned on a row
+   * @return the course with its category
+   * @throws SQLException if a column cannot be read
+   */
+  private Course mapCourse(ResultSet resultSet) throws SQLException {
+    Category category = new Category(resultSet.getInt("cat_id"), resultSet.getString("cat_name"));
+    Course course =
+        new Course(
+            resultSet.getInt("id"),
+            resultSet.getString("name"),
+            category,
+            resultSet.getString("description"));
+    course.setVersion(resultSet.getLong("version"));
+    course.markClean();
     return course;
   }
 
   /**
    * Updates an existing course in the database.
    *
-   * <p>Updates the course's name, category association, and description. The category itself
-   * must already exist in the database (i.e., have a valid ID).
+   * <p>Only the columns whose fields changed since the course was loaded or last written are
+   * updated (see {@link Course#getDirtyFields()}). If nothing changed, the database is not
+   * touched at all. The category itself must already exist in the database (i.e., have a
+   * valid ID). After a successful update the course is marked clean.
    *
-   * <p><b>Database operation:</b> UPDATE course SET ... WHERE id = ?
+   * <p><b>Optimistic locking:</b> A course with a known version (see {@link
+   * Course#getVersion()}) is only written if its row still has that version; the version is
+   * incremented with every write. If another writer changed or deleted the row in the meantime,
+   * nothing is written and an {@link OptimisticLockException} is thrown. Courses built by hand
+   * with {@link Course#UNVERSIONED} are written without the check.
+   *
+   * <p><b>Database operation:</b> UPDATE course SET &lt;changed columns&gt;, version = version
+   * + 1 WHERE id = ? AND version = ?
    *
    * <p><b>Security:</b> Uses PreparedStatement to prevent SQL injection.
    *
    * @param course the course with updated data (must have an ID)
+   * @throws OptimisticLockException if the row changed since the course was read
    * @throws SQLException if a database error occurs
    */
   public void update(Course course) throws SQLException {
-    String sql = "UPDATE course SET name = ?, category_id = ?, description = ? WHERE id = ?";
-    PreparedStatement preparedStatement = pdo.getConnection().prepareStatement(sql);
-    preparedStatement.setString(1, course.getName());
-    preparedStatement.setInt(2, course.getCategory().getId());
-    preparedStatement.setString(3, course.getDescription());
-    preparedStatement.setInt(4, course.getId());
-    preparedStatement.executeUpdate();
-    preparedStatement.close();
+    if (!course.isDirty()) {
+      return;
+    }
+    Set<Course.Field> fields = course.getDirtyFields();
+    boolean versioned = course.getVersion() != Course.UNVERSIONED;
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement =
+            connection.prepareStatement(updateSql(fields, versioned))) {
+      bindUpdate(preparedStatement, course, fields);
+      if (preparedStatement.executeUpdate() == 0 && versioned) {
+        throw new OptimisticLockException(course.getId());
+      }
+    }
+    markWritten(List.of(course));
+    fireUpdated(course);
+  }
+
+  /**
+   * Updates many courses using JDBC batching, {@link #DEFAULT_BATCH_SIZE} rows at a time.
+   *
+   * @param courses the courses with updated data (each must have an ID)
+   * @throws SQLException if a database error occurs
+   * @see #updateAll(Collection, int)
+   */
+  public void updateAll(Collection<Course> courses) throws SQLException {
+    updateAll(courses, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Updates many courses using JDBC batching.
+   *
+   * <p>Courses are sent in batches of {@code batchSize} rows, each batch in its own
+   * transaction. If a batch fails it is rolled back; batches committed before the failure stay
+   * committed. As with {@link #saveAll(Collection, int)}, the batches join a surrounding
+   * transaction as savepoints.
+   *
+   * <p>As with {@link #update(Course)}, only changed columns are written, unchanged courses
+   * are skipped and versioned courses are checked for conflicts. A conflict rolls back its
+   * whole batch and is reported with every conflicting ID of that batch.
+   *
+   * <p><b>Database operation:</b> UPDATE course SET &lt;changed columns&gt; WHERE id = ?
+   * (executeBatch)
+   *
+   * @param courses the courses with updated data (each must have an ID)
+   * @param batchSize the number of courses per batch and transaction
+   * @throws OptimisticLockException if rows of a batch changed since their courses were read
+   * @throws SQLException if a database error occurs
+   * @throws IllegalArgumentException if {@code batchSize} is less than 1
+   */
+  public void updateAll(Collection<Course> courses, int batchSize) throws SQLException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1, got " + batchSize);
+    }
+    if (courses.isEmpty()) {
+      return;
+    }
+
+    List<Course> batch = new ArrayList<>(Math.min(batchSize, courses.size()));
+    for (Course course : courses) {
+      batch.add(course);
+      if (batch.size() == batchSize) {
+        commitUpdates(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      commitUpdates(batch);
+    }
+  }
+
+  /**
+   * Updates one batch of courses in its own transaction.
+   *
+   * <p>On failure the batch is rolled back and the courses stay dirty.
+   *
+   * @param batch the courses to update
+   * @throws SQLException if a database error occurs
+   */
+  private void commitUpdates(List<Course> batch) throws SQLException {
+    List<Course> written = pdo.inTransaction(connection -> updateRows(connection, batch));
+    markWritten(written);
+    for (Course course : written) {
+      fireUpdated(course);
+    }
+  }
+
+  /**
+   * Writes the changed columns of many courses, without committing.
+   *
+   * <p>Courses are grouped by the {@code UPDATE} statement they need (their changed fields and
+   * whether they are versioned), one JDBC batch per distinct statement. Unchanged courses are
+   * skipped. The update count of every versioned row is checked; if any is 0, an
+   * {@link OptimisticLockException} naming all of them is thrown and the caller must roll back.
+   * The caller owns the transaction and passes the written courses to {@link
+   * #markWritten(Course)} once it commits.
+   *
+   * @param connection the connection to use
+   * @param courses the courses to update
+   * @return the courses that were written
+   * @throws OptimisticLockException if versioned rows changed since their courses were read
+   * @throws SQLException if a database error occurs
+   */
+  List<Course> updateRows(Connection connection, Collection<Course> courses) throws SQLException {
+    Map<String, List<Course>> bySql = new HashMap<>();
+    List<Course> written = new ArrayList<>(courses.size());
+    for (Course course : courses) {
+      if (course.isDirty()) {
+        String sql = updateSql(course.getDirtyFields(), course.getVersion() != Course.UNVERSIONED);
+        bySql.computeIfAbsent(sql, key -> new ArrayList<>()).add(course);
+        written.add(course);
+      }
+    }
+
+    int[] conflicts = new int[written.size()];
+    int conflictCount = 0;
+    for (Map.Entry<String, List<Course>> shape : bySql.entrySet()) {
+      List<Course> batch = shape.getValue();
+      try (PreparedStatement preparedStatement = connection.prepareStatement(shape.getKey())) {
+        for (Course course : batch) {
+          bindUpdate(preparedStatement, course, course.getDirtyFields());
+          preparedStatement.addBatch();
+        }
+        int[] updateCounts = preparedStatement.executeBatch();
+        for (int i = 0; i < batch.size(); i++) {
+          if (updateCounts[i] == 0 && batch.get(i).getVersion() != Course.UNVERSIONED) {
+            conflicts[conflictCount++] = batch.get(i).getId();
+          }
+        }
+      }
+    }
+    if (conflictCount > 0) {
+      throw new OptimisticLockException(Arrays.copyOf(conflicts, conflictCount));
+    }
+    return written;
+  }
+
+  /**
+   * Records that a course's changes were committed: marks it clean and advances its version.
+   *
+   * @param course a course written by {@link #update(Course)} or {@link #updateRows}
+   */
+  static void markWritten(Course course) {
+    course.markClean();
+    if (course.getVersion() != Course.UNVERSIONED) {
+      course.setVersion(course.getVersion() + 1);
+    }
+  }
+
+  /**
+   * Marks written courses as {@link #markWritten(Course)} does. Inside a surrounding
+   * transaction, registers an {@link PDO#afterRollback(Runnable)} action that gives them back
+   * their dirty fields and old versions if that transaction rolls back.
+   *
+   * @param written courses whose update has committed, or joined the current transaction
+   */
+  void markWritten(List<Course> written) {
+    if (!pdo.isInTransaction()) {
+      written.forEach(CourseRepository::markWritten);
+      return;
+    }
+    List<Course> courses = List.copyOf(written);
+    List<Set<Course.Field>> fields = new ArrayList<>(courses.size());
+    long[] versions = new long[courses.size()];
+    for (int i = 0; i < courses.size(); i++) {
+      Course course = courses.get(i);
+      fields.add(course.getDirtyFields());
+      versions[i] = course.getVersion();
+      markWritten(course);
+    }
+    pdo.afterRollback(() -> {
+      for (int i = 0; i < courses.size(); i++) {
+        courses.get(i).setVersion(versions[i]);
+        courses.get(i).markDirty(fields.get(i));
+      }
+    });
+  }
+
+  /**
+   * Marks inserted courses clean. Inside a surrounding transaction, registers an {@link
+   * PDO#afterRollback(Runnable)} action that makes them new again if that transaction rolls
+   * back: no ID, no version and every field dirty.
+   *
+   * @param inserted courses whose insert has committed, or joined the current transaction
+   */
+  void markSaved(List<Course> inserted) {
+    for (Course course : inserted) {
+      course.markClean();
+    }
+    if (pdo.isInTransaction()) {
+      List<Course> courses = List.copyOf(inserted);
+      pdo.afterRollback(() -> {
+        for (Course course : courses) {
+          course.setId(0);
+          course.setVersion(Course.UNVERSIONED);
+          course.markDirty(EnumSet.allOf(Course.Field.class));
+        }
+      });
+    }
+  }
+
+  /**
+   * Builds an {@code UPDATE} statement that writes only the given fields and bumps the version.
+   *
+   * @param fields the fields to write (not empty)
+   * @param versioned whether the statement checks the row version
+   * @return the SQL text, with the ID (and then the expected version) as the last parameters
+   */
+  private static String updateSql(Set<Course.Field> fields, boolean versioned) {
+    StringBuilder sql = new StringBuilder("UPDATE course SET ");
+    for (Course.Field field : fields) {
+      sql.append(columnOf(field)).append(" = ?, ");
+    }
+    sql.append("version = version + 1 WHERE id = ?");
+    return versioned ? sql.append(" AND version = ?").toString() : sql.toString();
+  }
+
+  /**
+   * Returns the column a course field is stored in.
+   *
+   * @param field the course field
+   * @return the column name
+   */
+  private static String columnOf(Course.Field field) {
+    switch (field) {
+      case NAME:
+        return "name";
+      case CATEGORY:
+        return "category_id";
+      case DESCRIPTION:
+        return "description";
+      default:
+        throw new IllegalArgumentException("Unknown course field: " + field);
+    }
+  }
+
+  /**
+   * Binds the parameters of an {@link #updateSql(Set, boolean)} statement.
+   *
+   * @param preparedStatement the update statement
+   * @param course the course with updated data
+   * @param fields the fields the statement writes, in iteration order
+   * @throws SQLException if a parameter cannot be set
+   */
+  private void bindUpdate(PreparedStatement preparedStatement, Course course, Set<Course.Field> fields)
+      throws SQLException {
+    int index = 0;
+    for (Course.Field field : fields) {
+      switch (field) {
+        case NAME:
+          preparedStatement.setString(++index, course.getName());
+          break;
+        case CATEGORY:
+          preparedStatement.setInt(++index, course.getCategory().getId());
+          break;
+        case DESCRIPTION:
+          preparedStatement.setString(++index, course.getDescription());
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown course field: " + field);
+      }
+    }
+    preparedStatement.setInt(++index, course.getId());
+    if (course.getVersion() != Course.UNVERSIONED) {
+      preparedStatement.setLong(++index, course.getVersion());
+    }
   }
 
   /**
@@ -203,10 +1197,199 @@ public class CourseRepository {
    * @throws SQLException if a database error occurs
    */
   public void delete(int id) throws SQLException {
-    String sql = "DELETE FROM course WHERE id = ?";
-    PreparedStatement preparedStatement = pdo.getConnection().prepareStatement(sql);
-    preparedStatement.setInt(1, id);
-    preparedStatement.executeUpdate();
-    preparedStatement.close();
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(DELETE_COURSE_SQL)) {
+      preparedStatement.setInt(1, id);
+      preparedStatement.executeUpdate();
+    }
+    fireDeleted(id);
+  }
+
+  /**
+   * Reports an insert to the listeners once it has committed.
+   *
+   * <p>Inside a surrounding transaction the listeners are called after its outermost commit,
+   * through {@link PDO#afterCommit(Runnable)}, with a copy of the course as it was written, and
+   * not at all if the transaction rolls back.
+   */
+  void fireSaved(Course course) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Course written = snapshot(course);
+    pdo.afterCommit(() -> {
+      for (CourseRepositoryListener listener : listeners) {
+        try {
+          listener.onSaved(written);
+        } catch (RuntimeException e) {
+          System.err.println("Course listener failed on save: " + e.getMessage());
+        }
+      }
+    });
+  }
+
+  /** Reports an update to the listeners once it has committed, like {@link #fireSaved}. */
+  void fireUpdated(Course course) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Course written = snapshot(course);
+    pdo.afterCommit(() -> {
+      for (CourseRepositoryListener listener : listeners) {
+        try {
+          listener.onUpdated(written);
+        } catch (RuntimeException e) {
+          System.err.println("Course listener failed on update: " + e.getMessage());
+        }
+      }
+    });
+  }
+
+  /** Reports a delete to the listeners once it has committed, like {@link #fireSaved}. */
+  void fireDeleted(int id) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    pdo.afterCommit(() -> {
+      for (CourseRepositoryListener listener : listeners) {
+        try {
+          listener.onDeleted(id);
+        } catch (RuntimeException e) {
+          System.err.println("Course listener failed on delete: " + e.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the course to report to listeners: the course itself if the write has already
+   * committed, or a copy if the report waits for a surrounding transaction, so changes the
+   * caller makes in the meantime don't leak into it.
+   */
+  private Course snapshot(Course course) {
+    return pdo.isInTransaction() ? new Course(course) : course;
+  }
+
+  /**
+   * Deletes many courses as one JDBC batch, without committing.
+   *
+   * @param connection the connection to use
+   * @param ids the IDs of the courses to delete
+   * @throws SQLException if a database error occurs
+   */
+  void deleteRows(Connection connection, Collection<Integer> ids) throws SQLException {
+    try (PreparedStatement preparedStatement =
+        connection.prepareStatement(DELETE_COURSE_SQL)) {
+      for (int id : ids) {
+        preparedStatement.setInt(1, id);
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+  }
+
+  /**
+   * Opens a unit-of-work session over this repository.
+   *
+   * @return a new session; close it when the unit of work ends
+   * @see CourseSession
+   */
+  public CourseSession openSession() {
+    return new CourseSession(pdo, this);
+  }
+
+  /**
+   * Forward-only cursor over a course query, exposed as a {@link Spliterator}.
+   *
+   * <p>Keeps the H2 session in lazy query execution mode while open, so rows are produced as
+   * they are read instead of being materialized up front. Closes itself when the rows run out.
+   * Inside a transaction the connection is the caller's, so the cursor only switches lazy mode
+   * on if it was off, and switches it back off on close.
+   */
+  private final class CourseCursor extends Spliterators.AbstractSpliterator<Course> {
+
+    private final Connection connection;
+    private PreparedStatement preparedStatement;
+    private ResultSet resultSet;
+    private boolean lazyEnabled;
+    private boolean closed;
+
+    CourseCursor(Connection connection) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.connection = connection;
+    }
+
+    void open(String sql, int fetchSize, int[] parameters) throws SQLException {
+      if (!isLazyExecution()) {
+        setLazyExecution(true);
+        lazyEnabled = true;
+      }
+      preparedStatement =
+          connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      preparedStatement.setFetchSize(fetchSize);
+      for (int i = 0; i < parameters.length; i++) {
+        preparedStatement.setInt(i + 1, parameters[i]);
+      }
+      resultSet = preparedStatement.executeQuery();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Course> action) {
+      if (closed) {
+        return false;
+      }
+      try {
+        if (!resultSet.next()) {
+          close();
+          return false;
+        }
+        action.accept(mapCourse(resultSet));
+        return true;
+      } catch (SQLException e) {
+        close();
+        throw new UncheckedSQLException(e);
+      }
+    }
+
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (resultSet != null) {
+          resultSet.close();
+        }
+        if (preparedStatement != null) {
+          preparedStatement.close();
+        }
+        if (lazyEnabled) {
+          setLazyExecution(false);
+        }
+      } catch (SQLException e) {
+        System.err.println("Error closing course cursor: " + e.getMessage());
+      } finally {
+        try {
+          connection.close();
+        } catch (SQLException e) {
+          System.err.println("Error releasing cursor connection: " + e.getMessage());
+        }
+      }
+    }
+
+    /**
+     * Reads the session's lazy execution flag, which H2 does not expose through SQL. A remote
+     * session cannot be inspected and is reported as H2's default, off.
+     */
+    private boolean isLazyExecution() throws SQLException {
+      Session session = connection.unwrap(JdbcConnection.class).getSession();
+      return session instanceof SessionLocal local && local.isLazyQueryExecution();
+    }
+
+    private void setLazyExecution(boolean lazy) throws SQLException {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+      }
+    }
   }
 }
@@ -0,0 +1,44 @@
+package com.solid.srp.good;
+
+/**
+ * Callback for successful writes made through a {@link CourseRepository}.
+ *
+ * <p>Listeners are notified after the write has been committed, from the central write paths:
+ * {@code save}, {@code saveAll}, {@code update}, {@code updateAll}, {@code delete} and
+ * {@link CourseSession#flush()}. They let in-process derived data (caches, indexes) follow the
+ * database without every repository variant overriding every write method.
+ *
+ * <p>A write made inside a surrounding {@link com.solid.srp.utils.PDO#inTransaction
+ * transaction} is reported once the outermost transaction commits (see
+ * {@link com.solid.srp.utils.PDO#afterCommit(Runnable)}), with a copy of the course as it was
+ * written; if the transaction rolls back, the write is never reported. Writes that bypass the
+ * repository (raw SQL, another repository instance) are not reported.
+ *
+ * <p>Listeners run on the thread that committed and must be fast and thread-safe. A listener
+ * that throws is logged and does not fail the write, which has already been committed.
+ *
+ * @see CourseRepository#addListener(CourseRepositoryListener)
+ */
+public interface CourseRepositoryListener {
+
+  /**
+   * Called after a new course was inserted.
+   *
+   * @param course the saved course, with its ID and category ID assigned
+   */
+  default void onSaved(Course course) {}
+
+  /**
+   * Called after an existing course was updated.
+   *
+   * @param course the course as written
+   */
+  default void onUpdated(Course course) {}
+
+  /**
+   * Called after a course was deleted.
+   *
+   * @param courseId the ID of the deleted course
+   */
+  default void onDeleted(int courseId) {}
+}
@@ -0,0 +1,105 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.InvertedIndex;
+import com.solid.srp.utils.PDO;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Full-text search over course names and descriptions.
+ *
+ * <p>Searching {@code description} in SQL means a {@code LIKE '%...%'} scan of every row. This
+ * index keeps an {@link InvertedIndex} of each course's name and description in memory
+ * instead, ranks matches with BM25 and understands {@code +required} and {@code -excluded}
+ * words:
+ *
+ * <pre>{@code
+ * CourseSearchIndex search = new CourseSearchIndex();
+ * repository.addListener(search);
+ * search.rebuild(pdo);
+ * List<Course> hits = repository.findByIds(search.search("+java spring -legacy", 20)).getCourses();
+ * }</pre>
+ *
+ * Since {@link CourseRepository#findByIds(int[])} keeps the request order, the courses come
+ * back ranked. Register the index before rebuilding it so no write is missed.
+ *
+ * <p><b>Consistency:</b> Writes are indexed after they commit, as a {@link
+ * CourseRepositoryListener}. Writes that bypass the repository are only picked up by the
+ * next {@link #rebuild(PDO)}.
+ *
+ * <p><b>Thread safety:</b> Safe for concurrent searches and writes.
+ */
+public class CourseSearchIndex implements CourseRepositoryListener {
+
+  /** Loads the whole index. */
+  private static final String SELECT_ALL_SQL = "SELECT id, name, description FROM course";
+
+  private final InvertedIndex index = new InvertedIndex();
+
+  /**
+   * Reloads the index from the database.
+   *
+   * <p>Writes reported while the reload runs wait for it and are applied on top.
+   *
+   * @param pdo the database to load from
+   * @throws SQLException if a database error occurs; the index is then left empty
+   */
+  public synchronized void rebuild(PDO pdo) throws SQLException {
+    index.clear();
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ALL_SQL)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        index.put(resultSet.getInt(1), text(resultSet.getString(2), resultSet.getString(3)));
+      }
+    }
+  }
+
+  /**
+   * Searches course names and descriptions.
+   *
+   * @param query words, each optionally prefixed with {@code +} (must match) or {@code -}
+   *     (must not match)
+   * @param limit the maximum number of results
+   * @return the IDs of the matching courses, best match first
+   */
+  public int[] search(String query, int limit) {
+    return index.search(query, limit);
+  }
+
+  /**
+   * Returns the number of indexed courses.
+   *
+   * @return the course count
+   */
+  public int size() {
+    return index.size();
+  }
+
+  @Override
+  public synchronized void onSaved(Course course) {
+    index.put(course.getId(), text(course.getName(), course.getDescription()));
+  }
+
+  @Override
+  public synchronized void onUpdated(Course course) {
+    index.put(course.getId(), text(course.getName(), course.getDescription()));
+  }
+
+  @Override
+  public synchronized void onDeleted(int courseId) {
+    index.remove(courseId);
+  }
+
+  @Override
+  public String toString() {
+    return "CourseSearchIndex{" + index + '}';
+  }
+
+  /** Joins the searchable fields; the separator keeps their words apart. */
+  private static String text(String name, String description) {
+    return (name == null ? "" : name) + '\n' + (description == null ? "" : description);
+  }
+}
@@ -0,0 +1,459 @@
+package com.solid.srp.good;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.IntObjectMap;
+import com.solid.srp.utils.PDO;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit of work over a {@link CourseRepository}.
+ *
+ * <p>A session collects the reads and writes of one request and sends the writes to the
+ * database together:
+ * <ul>
+ *   <li><b>Identity map:</b> Each course ID is loaded at most once per session, and every
+ *       lookup of that ID returns the same {@link Course} instance. Courses that share a
+ *       category share one {@link Category} instance too</li>
+ *   <li><b>Change tracking:</b> New courses are registered with {@link #persist(Course)},
+ *       deletions with {@link #delete(Course)}; loaded courses whose setters were called are
+ *       picked up as dirty automatically</li>
+ *   <li><b>Batched flush:</b> {@link #flush()} writes new categories, then new courses, then
+ *       changed courses, then deletions, each as JDBC batches, in a single transaction</li>
+ * </ul>
+ *
+ * <p>Changed courses are written with the same optimistic version check as {@link
+ * CourseRepository#update(Course)}; a conflict fails the flush with an {@link
+ * OptimisticLockException}.
+ *
+ * <p>A flush runs through {@link PDO#inTransaction(PDO.TransactionWork)}, so inside a
+ * surrounding transaction it becomes a savepoint of that transaction. If that transaction
+ * later rolls back, the session is put back as it was before the flush: new courses lose
+ * their IDs and are pending again, written courses are dirty again at their old versions, and
+ * deletions are pending again.
+ *
+ * <p>If a flush fails, the transaction is rolled back, the IDs it assigned are reset to 0 and
+ * the session keeps every pending change, so the flush can be retried.
+ *
+ * <p><b>Threading:</b> A session belongs to one unit of work and is not thread-safe.
+ *
+ * <p><b>SRP ADHERENCE:</b> The session decides <i>when</i> changes are written and in which
+ * order; the SQL for courses stays in {@link CourseRepository}.
+ *
+ * @see CourseRepository#openSession()
+ */
+public class CourseSession implements AutoCloseable {
+
+  /** Number of category names bound per lookup statement during a flush. */
+  private static final int NAME_CHUNK_SIZE = 64;
+
+  /** Inserts a category unless one with the same name exists. */
+  private static final String MERGE_CATEGORY_SQL =
+      "MERGE INTO category (name) KEY (name) VALUES (?)";
+
+  /** Category lookup by name with a fixed number of placeholders, so it is prepared once. */
+  private static final String SELECT_CATEGORIES_BY_NAME_SQL =
+      "SELECT id, name FROM category WHERE name IN ("
+          + "?, ".repeat(NAME_CHUNK_SIZE - 1)
+          + "?)";
+
+  /** Database connection manager. */
+  private final PDO pdo;
+
+  /** Repository that loads courses and owns the course SQL. */
+  private final CourseRepository repository;
+
+  /** Loaded and flushed courses by ID. */
+  private final IntObjectMap<Course> courses = new IntObjectMap<>();
+
+  /** Categories of managed courses by ID. */
+  private final IntObjectMap<Category> categories = new IntObjectMap<>();
+
+  /** Courses registered with {@link #persist(Course)} and not flushed yet. */
+  private final List<Course> newCourses = new ArrayList<>();
+
+  /** IDs of courses registered with {@link #delete(int)} and not flushed yet. */
+  private final Set<Integer> deletedIds = new LinkedHashSet<>();
+
+  /**
+   * Constructs a session; use {@link CourseRepository#openSession()}.
+   *
+   * @param pdo the database connection manager
+   * @param repository the repository that loads and writes courses
+   */
+  CourseSession(PDO pdo, CourseRepository repository) {
+    this.pdo = pdo;
+    this.repository = repository;
+  }
+
+  /**
+   * Returns the course with the given ID, loading it only if this session hasn't yet.
+   *
+   * @param id the course ID
+   * @return the managed course, or null if it doesn't exist or was deleted in this session
+   * @throws SQLException if a database error occurs
+   */
+  public Course find(int id) throws SQLException {
+    if (deletedIds.contains(id)) {
+      return null;
+    }
+    Course course = courses.get(id);
+    if (course == null) {
+      course = repository.findById(id);
+      if (course != null) {
+        manage(course);
+      }
+    }
+    return course;
+  }
+
+  /**
+   * Returns many courses by ID, loading only those this session hasn't seen yet.
+   *
+   * <p>Unseen IDs are fetched together with {@link CourseRepository#findByIds(int[])}.
+   *
+   * @param ids the course IDs
+   * @return the managed courses in request order and the missing IDs
+   * @throws SQLException if a database error occurs
+   */
+  public CourseLookup find(int[] ids) throws SQLException {
+    int[] unseen = new int[ids.length];
+    int unseenCount = 0;
+    for (int id : ids) {
+      if (!courses.containsKey(id) && !deletedIds.contains(id)) {
+        unseen[unseenCount++] = id;
+      }
+    }
+    if (unseenCount > 0) {
+      for (Course course : repository.findByIds(Arrays.copyOf(unseen, unseenCount)).getCourses()) {
+        if (!courses.containsKey(course.getId())) {
+          manage(course);
+        }
+      }
+    }
+
+    List<Course> found = new ArrayList<>(ids.length);
+    int[] missingIds = new int[ids.length];
+    int missingCount = 0;
+    for (int id : ids) {
+      Course course = deletedIds.contains(id) ? null : courses.get(id);
+      if (course != null) {
+        found.add(course);
+      } else {
+        missingIds[missingCount++] = id;
+      }
+    }
+    return new CourseLookup(found, Arrays.copyOf(missingIds, missingCount));
+  }
+
+  /**
+   * Registers a new course to be inserted on the next flush.
+   *
+   * <p>Its category is created on flush if it doesn't have an ID yet.
+   *
+   * @param course the new course (must not have an ID)
+   * @throws IllegalArgumentException if the course already has an ID
+   */
+  public void persist(Course course) {
+    if (course.getId() != 0) {
+      throw new IllegalArgumentException(
+          "Course " + course.getId() + " already exists; load it with find instead");
+    }
+    for (Course pending : newCourses) {
+      if (pending == course) {
+        return;
+      }
+    }
+    newCourses.add(course);
+  }
+
+  /**
+   * Registers a course to be deleted on the next flush.
+   *
+   * <p>A course that was persisted but not flushed yet is simply forgotten.
+   *
+   * @param course the course to delete
+   */
+  public void delete(Course course) {
+    if (course.getId() == 0) {
+      newCourses.removeIf(pending -> pending == course);
+      return;
+    }
+    delete(course.getId());
+  }
+
+  /**
+   * Registers a course ID to be deleted on the next flush.
+   *
+   * @param id the ID of the course to delete
+   */
+  public void delete(int id) {
+    courses.remove(id);
+    deletedIds.add(id);
+  }
+
+  /**
+   * Returns whether this session holds changes that {@link #flush()} would write.
+   *
+   * @return {@code true} if there are new, changed or deleted courses
+   */
+  public boolean hasChanges() {
+    return !newCourses.isEmpty() || !deletedIds.isEmpty() || !dirtyCourses().isEmpty();
+  }
+
+  /**
+   * Writes every pending change in one transaction.
+   *
+   * <p><b>Database operations, in order:</b>
+   * <ul>
+   *   <li>Upserts the new category names (MERGE INTO category, executeBatch) and reads their
+   *       IDs back (SELECT ... WHERE name IN (...))</li>
+   *   <li>Inserts the new courses (INSERT INTO course, executeBatch)</li>
+   *   <li>Writes the changed columns of dirty courses (UPDATE course, executeBatch)</li>
+   *   <li>Deletes the removed courses (DELETE FROM course, executeBatch)</li>
+   * </ul>
+   *
+   * <p>After the commit, new courses join the identity map and every written course is marked
+   * clean. Inside a surrounding transaction that happens once the flush's savepoint is
+   * released, and is undone if the surrounding transaction rolls back.
+   *
+   * @throws OptimisticLockException if changed courses were modified by another writer
+   * @throws SQLException if a database error occurs; nothing is written and the pending
+   *     changes are kept
+   */
+  public void flush() throws SQLException {
+    List<Course> dirty = dirtyCourses();
+    if (newCourses.isEmpty() && dirty.isEmpty() && deletedIds.isEmpty()) {
+      return;
+    }
+
+    Map<String, List<Category>> unresolved = unresolvedCategories(dirty);
+    List<Course> written;
+    try {
+      written =
+          pdo.inTransaction(connection -> {
+            insertCategories(connection, unresolved);
+            int batchSize = CourseRepository.DEFAULT_BATCH_SIZE;
+            for (int start = 0; start < newCourses.size(); start += batchSize) {
+              int end = Math.min(start + batchSize, newCourses.size());
+              repository.insertRows(connection, newCourses.subList(start, end));
+            }
+            List<Course> updated = repository.updateRows(connection, dirty);
+            if (!deletedIds.isEmpty()) {
+              repository.deleteRows(connection, deletedIds);
+            }
+            return updated;
+          });
+    } catch (SQLException | RuntimeException e) {
+      resetIds(unresolved);
+      throw e;
+    }
+
+    for (List<Category> sameName : unresolved.values()) {
+      Category category = sameName.get(0);
+      String name = category.getName();
+      int id = category.getId();
+      pdo.afterCommit(() -> repository.getCategoryResolver().remember(name, id));
+    }
+    repository.markWritten(written);
+    for (Course course : written) {
+      repository.fireUpdated(course);
+    }
+    repository.markSaved(newCourses);
+    for (Course course : newCourses) {
+      manage(course);
+      repository.fireSaved(course);
+    }
+    for (int id : deletedIds) {
+      repository.fireDeleted(id);
+    }
+    if (pdo.isInTransaction()) {
+      List<Course> inserted = new ArrayList<>(newCourses);
+      Set<Integer> deleted = new LinkedHashSet<>(deletedIds);
+      pdo.afterRollback(() -> restorePending(unresolved, inserted, deleted));
+    }
+    newCourses.clear();
+    deletedIds.clear();
+  }
+
+  /**
+   * Returns the number of courses in the identity map.
+   *
+   * @return the number of managed courses
+   */
+  public int size() {
+    return courses.size();
+  }
+
+  /** Forgets every managed course and pending change without writing anything. */
+  public void clear() {
+    courses.clear();
+    categories.clear();
+    newCourses.clear();
+    deletedIds.clear();
+  }
+
+  /**
+   * Ends the session, discarding changes that were not flushed.
+   *
+   * <p>Does not close the PDO.
+   */
+  @Override
+  public void close() {
+    clear();
+  }
+
+  /**
+   * Adds a course to the identity map, sharing its category with other managed courses.
+   *
+   * @param course the course to manage (must have an ID)
+   */
+  private void manage(Course course) {
+    Category category = course.getCategory();
+    if (category.getId() != 0) {
+      Category shared = categories.putIfAbsent(category.getId(), category);
+      if (shared != null && shared != category) {
+        boolean dirty = course.isDirty();
+        course.setCategory(shared);
+        if (!dirty) {
+          course.markClean();
+        }
+      }
+    }
+    courses.put(course.getId(), course);
+  }
+
+  /** Returns the managed courses that have unwritten changes, in ID order. */
+  private List<Course> dirtyCourses() {
+    List<Course> dirty = new ArrayList<>();
+    courses.forEach((id, course) -> {
+      if (course.isDirty()) {
+        dirty.add(course);
+      }
+    });
+    dirty.sort(Comparator.comparingInt(Course::getId));
+    return dirty;
+  }
+
+  /**
+   * Collects the categories without an ID that the pending courses refer to, grouped by name.
+   * Names the category resolver already knows are assigned their ID right away.
+   *
+   * @param dirty the dirty managed courses
+   * @return categories still needing an ID, by name
+   */
+  private Map<String, List<Category>> unresolvedCategories(List<Course> dirty) {
+    Map<String, List<Category>> unresolved = new LinkedHashMap<>();
+    List<Course> pending = new ArrayList<>(newCourses);
+    pending.addAll(dirty);
+    for (Course course : pending) {
+      Category category = course.getCategory();
+      if (category.getId() != 0) {
+        continue;
+      }
+      int cachedId = repository.getCategoryResolver().cachedId(category.getName());
+      if (cachedId != 0) {
+        category.setId(cachedId);
+      } else {
+        unresolved.computeIfAbsent(category.getName(), name -> new ArrayList<>()).add(category);
+      }
+    }
+    return unresolved;
+  }
+
+  /**
+   * Upserts categories by name in one batch and assigns the resulting IDs.
+   *
+   * @param connection the transaction's connection
+   * @param unresolved categories needing an ID, by name
+   * @throws SQLException if a database error occurs or a category cannot be found afterwards
+   */
+  private void insertCategories(Connection connection, Map<String, List<Category>> unresolved)
+      throws SQLException {
+    if (unresolved.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement preparedStatement = connection.prepareStatement(MERGE_CATEGORY_SQL)) {
+      for (String name : unresolved.keySet()) {
+        preparedStatement.setString(1, name);
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+
+    String[] names = unresolved.keySet().toArray(new String[0]);
+    try (PreparedStatement preparedStatement =
+        connection.prepareStatement(SELECT_CATEGORIES_BY_NAME_SQL)) {
+      for (int start = 0; start < names.length; start += NAME_CHUNK_SIZE) {
+        int end = Math.min(start + NAME_CHUNK_SIZE, names.length);
+        for (int parameter = 0; parameter < NAME_CHUNK_SIZE; parameter++) {
+          // Pad the last chunk by repeating its final name
+          preparedStatement.setString(parameter + 1, names[Math.min(start + parameter, end - 1)]);
+        }
+        ResultSet resultSet = preparedStatement.executeQuery();
+        while (resultSet.next()) {
+          for (Category category : unresolved.get(resultSet.getString("name"))) {
+            category.setId(resultSet.getInt("id"));
+          }
+        }
+        resultSet.close();
+      }
+    }
+
+    for (Map.Entry<String, List<Category>> entry : unresolved.entrySet()) {
+      if (entry.getValue().get(0).getId() == 0) {
+        throw new SQLException("Category '" + entry.getKey() + "' was not found after upsert");
+      }
+    }
+  }
+
+  /**
+   * Makes the changes of a flush pending again after the surrounding transaction rolled back.
+   * The repository's own rollback actions make the courses new or dirty again afterwards.
+   *
+   * @param unresolved the categories the flush created
+   * @param inserted the courses the flush inserted
+   * @param deleted the IDs the flush deleted
+   */
+  private void restorePending(Map<String, List<Category>> unresolved, List<Course> inserted,
+      Set<Integer> deleted) {
+    for (List<Category> sameName : unresolved.values()) {
+      for (Category category : sameName) {
+        category.setId(0);
+      }
+    }
+    for (Course course : inserted) {
+      if (courses.get(course.getId()) == course) {
+        courses.remove(course.getId());
+      }
+    }
+    newCourses.addAll(0, inserted);
+    deletedIds.addAll(deleted);
+  }
+
+  /**
+   * Undoes the IDs a failed flush assigned to new categories and courses.
+   *
+   * @param unresolved the categories the flush tried to create
+   */
+  private void resetIds(Map<String, List<Category>> unresolved) {
+    for (List<Category> sameName : unresolved.values()) {
+      for (Category category : sameName) {
+        category.setId(0);
+      }
+    }
+    for (Course course : newCourses) {
+      course.setId(0);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.IntIntMap;
+import com.solid.srp.utils.IntObjectMap;
+import com.solid.srp.utils.InvertedIndex;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.VectorIndex;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "Courses similar to this one", by description.
+ *
+ * <p>Each description becomes a TF-IDF vector: a term weighs {@code (1 + ln tf) * idf}, with
+ * {@code idf = ln((N + 1) / (df + 1)) + 1}. The sparse vector is folded into
+ * {@code dimensions} floats by feature hashing; each term adds its weight to one bucket with
+ * a sign taken from its hash, so collisions tend to cancel instead of piling up. The dense
+ * vectors are kept in a {@link VectorIndex} and compared by cosine similarity.
+ *
+ * <pre>{@code
+ * CourseSimilarityIndex similar = new CourseSimilarityIndex();
+ * repository.addListener(similar);
+ * similar.rebuild(pdo);
+ * int[] ids = similar.similarTo(course.getId(), 5);
+ * }</pre>
+ *
+ * Register the index before rebuilding it so no write is missed.
+ *
+ * <p><b>Incremental maintenance:</b> As a {@link CourseRepositoryListener} the index
+ * re-projects a course whenever it is written and keeps the document frequencies current.
+ * Vectors of courses that were not written keep the IDF weights of the time they were
+ * projected, which drift slowly as the catalog grows; {@link #rebuild(PDO)} re-projects all of
+ * them.
+ *
+ * <p><b>Thread safety:</b> Safe for concurrent searches and writes.
+ */
+public class CourseSimilarityIndex implements CourseRepositoryListener {
+
+  /** Default vector width. */
+  public static final int DEFAULT_DIMENSIONS = 256;
+
+  /** Loads every description. */
+  private static final String SELECT_ALL_SQL = "SELECT id, description FROM course";
+
+  private final VectorIndex vectors;
+
+  /** Courses containing each term, by term hash. Guarded by {@code this}. */
+  private final IntIntMap documentFrequencies = new IntIntMap();
+
+  /** Distinct term hashes per course, to undo its frequencies. Guarded by {@code this}. */
+  private final IntObjectMap<int[]> termsByCourse = new IntObjectMap<>();
+
+  /**
+   * Creates an empty index with {@link #DEFAULT_DIMENSIONS} dimensions.
+   */
+  public CourseSimilarityIndex() {
+    this(DEFAULT_DIMENSIONS);
+  }
+
+  /**
+   * Creates an empty index.
+   *
+   * @param dimensions the width descriptions are projected to; wider means fewer hash
+   *     collisions and slower scoring
+   */
+  public CourseSimilarityIndex(int dimensions) {
+    this.vectors = new VectorIndex(dimensions);
+  }
+
+  /**
+   * Reloads every description and re-projects all vectors with fresh IDF weights.
+   *
+   * <p>Writes reported while the reload runs wait for it and are applied on top.
+   *
+   * @param pdo the database to load from
+   * @throws SQLException if a database error occurs; the index is then left empty
+   */
+  public synchronized void rebuild(PDO pdo) throws SQLException {
+    vectors.clear();
+    documentFrequencies.clear();
+    termsByCourse.clear();
+    List<Integer> ids = new ArrayList<>();
+    List<IntIntMap> frequencies = new ArrayList<>();
+    try (Connection connection = pdo.borrowConnection();
+        PreparedStatement preparedStatement = connection.prepareStatement(SELECT_ALL_SQL)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        IntIntMap termFrequencies = termFrequencies(resultSet.getString(2));
+        ids.add(resultSet.getInt(1));
+        frequencies.add(termFrequencies);
+        count(resultSet.getInt(1), termFrequencies);
+      }
+    }
+    // Project only once all document frequencies are known
+    for (int i = 0; i < ids.size(); i++) {
+      vectors.put(ids.get(i), project(frequencies.get(i)));
+    }
+  }
+
+  /**
+   * Finds the courses whose descriptions are most similar to a course's.
+   *
+   * @param courseId the course to compare with
+   * @param limit the maximum number of results
+   * @return the IDs of similar courses, most similar first; empty if the course is not indexed
+   */
+  public int[] similarTo(int courseId, int limit) {
+    float[] vector = vectors.get(courseId);
+    return vector == null ? new int[0] : vectors.nearest(vector, limit, courseId);
+  }
+
+  /**
+   * Finds the courses whose descriptions are most similar to a text.
+   *
+   * @param text the text to compare with
+   * @param limit the maximum number of results
+   * @return the IDs of similar courses, most similar first
+   */
+  public int[] similarTo(String text, int limit) {
+    float[] vector;
+    synchronized (this) {
+      vector = project(termFrequencies(text));
+    }
+    return vectors.nearest(vector, limit, Integer.MIN_VALUE);
+  }
+
+  /**
+   * Returns the number of indexed courses.
+   *
+   * @return the course count
+   */
+  public int size() {
+    return vectors.size();
+  }
+
+  @Override
+  public synchronized void onSaved(Course course) {
+    index(course);
+  }
+
+  @Override
+  public synchronized void onUpdated(Course course) {
+    index(course);
+  }
+
+  @Override
+  public synchronized void onDeleted(int courseId) {
+    uncount(courseId);
+    vectors.remove(courseId);
+  }
+
+  @Override
+  public String toString() {
+    return "CourseSimilarityIndex{" + vectors + '}';
+  }
+
+  /** Re-projects one course; the caller holds the lock. */
+  private void index(Course course) {
+    IntIntMap termFrequencies = termFrequencies(course.getDescription());
+    uncount(course.getId());
+    count(course.getId(), termFrequencies);
+    vectors.put(course.getId(), project(termFrequencies));
+  }
+
+  /** Adds a course's terms to the document frequencies; the caller holds the lock. */
+  private void count(int courseId, IntIntMap termFrequencies) {
+    int[] terms = termFrequencies.keys();
+    for (int term : terms) {
+      documentFrequencies.addTo(term, 1);
+    }
+    termsByCourse.put(courseId, terms);
+  }
+
+  /** Removes a course's terms from the document frequencies; the caller holds the lock. */
+  private void uncount(int courseId) {
+    int[] terms = termsByCourse.remove(courseId);
+    if (terms != null) {
+      for (int term : terms) {
+        if (documentFrequencies.addTo(term, -1) == 0) {
+          documentFrequencies.remove(term);
+        }
+      }
+    }
+  }
+
+  /** Folds TF-IDF weights into a dense vector; the caller holds the lock. */
+  private float[] project(IntIntMap termFrequencies) {
+    float[] vector = new float[vectors.getDimensions()];
+    int documents = termsByCourse.size();
+    termFrequencies.forEach((term, termFrequency) -> {
+      int documentFrequency = documentFrequencies.getOrDefault(term, 0);
+      double idf = Math.log((documents + 1.0) / (documentFrequency + 1.0)) + 1;
+      double weight = (1 + Math.log(termFrequency)) * idf;
+      int mixed = term * 0x9E3779B9;
+      mixed ^= mixed >>> 16;
+      int bucket = Math.floorMod(mixed, vector.length);
+      vector[bucket] += (float) (mixed < 0 ? -weight : weight);
+    });
+    return vector;
+  }
+
+  /** Term frequencies of a text, keyed by term hash. */
+  private static IntIntMap termFrequencies(String text) {
+    IntIntMap frequencies = new IntIntMap();
+    for (String token : InvertedIndex.tokenize(text)) {
+      frequencies.addTo(token.hashCode(), 1);
+    }
+    return frequencies;
+  }
+}
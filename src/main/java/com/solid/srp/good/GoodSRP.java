@@ -2,6 +2,7 @@ package com.solid.srp.good;
 
 import com.solid.srp.Category;
 import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
 
 /**
  * Main class demonstrating proper adherence to the Single Responsibility Principle.
@@ -90,6 +91,13 @@ public class GoodSRP {
     CourseRepository courseRepository = new CourseRepository(pdo);
     System.out.println("CourseRepository created.\n");
 
+    // Make sure every repository query is served by an index
+    try {
+      courseRepository.checkQueryPlans();
+    } catch (SQLException e) {
+      System.err.println("Error checking query plans: " + e.getMessage());
+    }
+
     // Creating a category
     Category category = new Category("Web Development");
     System.out.println("Created category: " + category);
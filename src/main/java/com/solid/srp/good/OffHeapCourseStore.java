@@ -0,0 +1,512 @@
+package com.solid.srp.good;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.ConcurrentIntObjectMap;
+import com.solid.srp.utils.IntHashing;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Course store in native memory, outside the garbage-collected heap.
+ *
+ * <p>Multi-gigabyte catalogs on the heap make every full collection walk millions of course
+ * objects. This store keeps them in memory segments allocated through the Foreign Function
+ * and Memory API, which the collector never scans:
+ * <ul>
+ *   <li><b>Records:</b> appended to native pages (64 MB by default); each is a 32-byte header
+ *       ({@code id, categoryId, version, name length, description length, flags}) followed
+ *       by the UTF-8 name and description, padded to 8 bytes</li>
+ *   <li><b>ID index:</b> an open-addressing table with linear probing, also in native memory,
+ *       mapping each ID to its record's address; 16-byte slots, at most half full</li>
+ *   <li><b>Categories:</b> the few distinct category names stay on the heap</li>
+ * </ul>
+ *
+ * <p><b>Writes:</b> {@link #put(Course)} appends a new record and repoints the index, leaving
+ * the old record as garbage; once garbage makes up half of the pages, the live records are
+ * copied to fresh pages and the old ones freed. As a {@link CourseRepositoryListener} the
+ * store follows the repository's writes.
+ *
+ * <p><b>Reads:</b> {@link #get(int)} decodes a record into a new, clean {@link Course}.
+ *
+ * <p><b>Lifetime:</b> Native memory is released by {@link #close()}, not by the garbage
+ * collector; any use after closing throws {@link IllegalStateException}.
+ *
+ * <p><b>Thread safety:</b> Reads share a read lock; writes, compaction and closing take the
+ * write lock.
+ */
+public class OffHeapCourseStore implements CourseRepositoryListener, AutoCloseable {
+
+  /** Default native page size. */
+  public static final int DEFAULT_PAGE_SIZE = 64 * 1024 * 1024;
+
+  // Record header layout
+  private static final int ID_OFFSET = 0;
+  private static final int CATEGORY_OFFSET = 4;
+  private static final int VERSION_OFFSET = 8;
+  private static final int NAME_LENGTH_OFFSET = 16;
+  private static final int DESCRIPTION_LENGTH_OFFSET = 20;
+  private static final int FLAGS_OFFSET = 24;
+  private static final int HEADER_SIZE = 32;
+
+  private static final int FLAG_NULL_NAME = 1;
+  private static final int FLAG_NULL_DESCRIPTION = 2;
+  private static final int FLAG_NO_CATEGORY = 4;
+
+  // Index slot layout
+  private static final int SLOT_ID_OFFSET = 0;
+  private static final int SLOT_USED_OFFSET = 4;
+  private static final int SLOT_ADDRESS_OFFSET = 8;
+  private static final int SLOT_SIZE = 16;
+  private static final int MIN_INDEX_CAPACITY = 1024;
+
+  private final int pageSize;
+
+  /** Category names by ID, shared by all records. */
+  private final ConcurrentIntObjectMap<String> categoryNames = new ConcurrentIntObjectMap<>();
+
+  /** Owns the record pages. Guarded by {@link #lock}, like all fields below. */
+  private Arena pageArena = Arena.ofShared();
+  private final List<MemorySegment> pages = new ArrayList<>();
+  private long pageFill;
+
+  /** Owns the index; replaced on every resize so the old table can be freed. */
+  private Arena indexArena;
+  private MemorySegment index;
+  private int indexCapacity;
+  private int size;
+
+  /** Bytes of records still referenced by the index, and of all records appended. */
+  private long liveBytes;
+  private long usedBytes;
+
+  private boolean closed;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Creates an empty store with {@link #DEFAULT_PAGE_SIZE} pages.
+   */
+  public OffHeapCourseStore() {
+    this(DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Creates an empty store.
+   *
+   * @param pageSize the size of each native page; records larger than a page get a page of
+   *     their own
+   * @throws IllegalArgumentException if {@code pageSize} is smaller than a record header
+   */
+  public OffHeapCourseStore(int pageSize) {
+    if (pageSize < HEADER_SIZE) {
+      throw new IllegalArgumentException("Page size must be at least " + HEADER_SIZE);
+    }
+    this.pageSize = pageSize;
+    allocateIndex(MIN_INDEX_CAPACITY);
+  }
+
+  /**
+   * Creates a store holding every course of a repository.
+   *
+   * @param repository the repository to load from
+   * @return the store; the caller must close it
+   * @throws SQLException if a database error occurs
+   */
+  public static OffHeapCourseStore load(CourseRepository repository) throws SQLException {
+    OffHeapCourseStore store = new OffHeapCourseStore();
+    try (Stream<Course> courses = repository.streamAll()) {
+      courses.forEach(store::put);
+    } catch (SQLException | RuntimeException e) {
+      store.close();
+      throw e;
+    }
+    return store;
+  }
+
+  /**
+   * Stores a course, replacing any previous record with the same ID.
+   *
+   * @param course the course; only its fields are copied
+   */
+  public void put(Course course) {
+    byte[] name = encode(course.getName());
+    byte[] description = encode(course.getDescription());
+    Category category = course.getCategory();
+    int flags = (course.getName() == null ? FLAG_NULL_NAME : 0)
+        | (course.getDescription() == null ? FLAG_NULL_DESCRIPTION : 0)
+        | (category == null ? FLAG_NO_CATEGORY : 0);
+    if (category != null) {
+      categoryNames.putIfAbsent(category.getId(), category.getName());
+    }
+
+    lock.writeLock().lock();
+    try {
+      checkOpen();
+      int recordSize = align(HEADER_SIZE + name.length + description.length);
+      long address = reserve(recordSize);
+      MemorySegment page = pages.get(pageOf(address));
+      long offset = offsetOf(address);
+      page.set(ValueLayout.JAVA_INT, offset + ID_OFFSET, course.getId());
+      page.set(ValueLayout.JAVA_INT, offset + CATEGORY_OFFSET,
+          category == null ? 0 : category.getId());
+      page.set(ValueLayout.JAVA_LONG, offset + VERSION_OFFSET, course.getVersion());
+      page.set(ValueLayout.JAVA_INT, offset + NAME_LENGTH_OFFSET, name.length);
+      page.set(ValueLayout.JAVA_INT, offset + DESCRIPTION_LENGTH_OFFSET, description.length);
+      page.set(ValueLayout.JAVA_INT, offset + FLAGS_OFFSET, flags);
+      MemorySegment.copy(name, 0, page, ValueLayout.JAVA_BYTE, offset + HEADER_SIZE,
+          name.length);
+      MemorySegment.copy(description, 0, page, ValueLayout.JAVA_BYTE,
+          offset + HEADER_SIZE + name.length, description.length);
+
+      long previous = indexPut(course.getId(), address);
+      liveBytes += recordSize;
+      if (previous >= 0) {
+        liveBytes -= recordSizeAt(previous);
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads a course.
+   *
+   * @param id the course ID
+   * @return a new, clean course, or {@code null} if the store has none with that ID
+   */
+  public Course get(int id) {
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      long address = indexGet(id);
+      return address < 0 ? null : decode(address);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns whether a course is stored.
+   *
+   * @param id the course ID
+   * @return {@code true} if it is
+   */
+  public boolean contains(int id) {
+    lock.readLock().lock();
+    try {
+      checkOpen();
+      return indexGet(id) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a course.
+   *
+   * @param id the course ID
+   * @return {@code true} if it was stored
+   */
+  public boolean remove(int id) {
+    lock.writeLock().lock();
+    try {
+      checkOpen();
+      long address = indexRemove(id);
+      if (address < 0) {
+        return false;
+      }
+      liveBytes -= recordSizeAt(address);
+      compactIfNeeded();
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** @return the number of stored courses */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the native memory held by the pages and the index.
+   *
+   * @return the size in bytes
+   */
+  public long sizeInBytes() {
+    lock.readLock().lock();
+    try {
+      long total = (long) indexCapacity * SLOT_SIZE;
+      for (MemorySegment page : pages) {
+        total += page.byteSize();
+      }
+      return total;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void onSaved(Course course) {
+    put(course);
+  }
+
+  @Override
+  public void onUpdated(Course course) {
+    put(course);
+  }
+
+  @Override
+  public void onDeleted(int courseId) {
+    remove(courseId);
+  }
+
+  /** Releases all native memory. Idempotent. */
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      if (!closed) {
+        closed = true;
+        pages.clear();
+        pageArena.close();
+        indexArena.close();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    lock.readLock().lock();
+    try {
+      return "OffHeapCourseStore{courses=" + size
+          + ", liveBytes=" + liveBytes
+          + ", usedBytes=" + usedBytes
+          + ", pages=" + pages.size()
+          + (closed ? ", closed" : "") + '}';
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // ============ Records ============
+
+  private static byte[] encode(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int align(int size) {
+    return (size + 7) & ~7;
+  }
+
+  private static int pageOf(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static long offsetOf(long address) {
+    return address & 0xFFFFFFFFL;
+  }
+
+  /** Finds room for a record, opening a new page if needed, and returns its address. */
+  private long reserve(int recordSize) {
+    if (pages.isEmpty() || pageFill + recordSize > pages.get(pages.size() - 1).byteSize()) {
+      pages.add(pageArena.allocate(Math.max(pageSize, recordSize), 8));
+      pageFill = 0;
+    }
+    long address = ((long) (pages.size() - 1) << 32) | pageFill;
+    pageFill += recordSize;
+    usedBytes += recordSize;
+    return address;
+  }
+
+  private int recordSizeAt(long address) {
+    MemorySegment page = pages.get(pageOf(address));
+    long offset = offsetOf(address);
+    return align(HEADER_SIZE
+        + page.get(ValueLayout.JAVA_INT, offset + NAME_LENGTH_OFFSET)
+        + page.get(ValueLayout.JAVA_INT, offset + DESCRIPTION_LENGTH_OFFSET));
+  }
+
+  private Course decode(long address) {
+    MemorySegment page = pages.get(pageOf(address));
+    long offset = offsetOf(address);
+    int flags = page.get(ValueLayout.JAVA_INT, offset + FLAGS_OFFSET);
+    int nameLength = page.get(ValueLayout.JAVA_INT, offset + NAME_LENGTH_OFFSET);
+    int descriptionLength = page.get(ValueLayout.JAVA_INT, offset + DESCRIPTION_LENGTH_OFFSET);
+    String name = (flags & FLAG_NULL_NAME) != 0
+        ? null
+        : readString(page, offset + HEADER_SIZE, nameLength);
+    String description = (flags & FLAG_NULL_DESCRIPTION) != 0
+        ? null
+        : readString(page, offset + HEADER_SIZE + nameLength, descriptionLength);
+    Category category = null;
+    if ((flags & FLAG_NO_CATEGORY) == 0) {
+      int categoryId = page.get(ValueLayout.JAVA_INT, offset + CATEGORY_OFFSET);
+      category = new Category(categoryId, categoryNames.get(categoryId));
+    }
+    Course course = new Course(
+        page.get(ValueLayout.JAVA_INT, offset + ID_OFFSET), name, category, description);
+    course.setVersion(page.get(ValueLayout.JAVA_LONG, offset + VERSION_OFFSET));
+    course.markClean();
+    return course;
+  }
+
+  private static String readString(MemorySegment page, long offset, int length) {
+    byte[] bytes = new byte[length];
+    MemorySegment.copy(page, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Copies the live records to fresh pages once garbage fills half of the used bytes, then
+   * frees the old pages. The caller holds the write lock.
+   */
+  private void compactIfNeeded() {
+    if (usedBytes < pageSize || liveBytes * 2 > usedBytes) {
+      return;
+    }
+    Arena oldArena = pageArena;
+    List<MemorySegment> oldPages = new ArrayList<>(pages);
+    pageArena = Arena.ofShared();
+    pages.clear();
+    pageFill = 0;
+    usedBytes = 0;
+    for (int slot = 0; slot < indexCapacity; slot++) {
+      long slotOffset = (long) slot * SLOT_SIZE;
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET) == 0) {
+        continue;
+      }
+      long oldAddress = index.get(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET);
+      MemorySegment oldPage = oldPages.get(pageOf(oldAddress));
+      long oldOffset = offsetOf(oldAddress);
+      int recordSize = align(HEADER_SIZE
+          + oldPage.get(ValueLayout.JAVA_INT, oldOffset + NAME_LENGTH_OFFSET)
+          + oldPage.get(ValueLayout.JAVA_INT, oldOffset + DESCRIPTION_LENGTH_OFFSET));
+      long newAddress = reserve(recordSize);
+      MemorySegment.copy(oldPage, oldOffset, pages.get(pageOf(newAddress)),
+          offsetOf(newAddress), recordSize);
+      index.set(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET, newAddress);
+    }
+    oldArena.close();
+  }
+
+  // ============ ID index ============
+
+  private void allocateIndex(int capacity) {
+    indexArena = Arena.ofShared();
+    index = indexArena.allocate((long) capacity * SLOT_SIZE, 8);
+    index.fill((byte) 0);
+    indexCapacity = capacity;
+  }
+
+  /** Returns the address stored for an ID, or -1. */
+  private long indexGet(int id) {
+    int mask = indexCapacity - 1;
+    for (int slot = IntHashing.mix(id) & mask; ; slot = (slot + 1) & mask) {
+      long slotOffset = (long) slot * SLOT_SIZE;
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET) == 0) {
+        return -1;
+      }
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_ID_OFFSET) == id) {
+        return index.get(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET);
+      }
+    }
+  }
+
+  /** Maps an ID to an address, growing the table first if needed; returns the old address. */
+  private long indexPut(int id, long address) {
+    if ((size + 1) * 2 > indexCapacity) {
+      resizeIndex(indexCapacity * 2);
+    }
+    int mask = indexCapacity - 1;
+    for (int slot = IntHashing.mix(id) & mask; ; slot = (slot + 1) & mask) {
+      long slotOffset = (long) slot * SLOT_SIZE;
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET) == 0) {
+        index.set(ValueLayout.JAVA_INT, slotOffset + SLOT_ID_OFFSET, id);
+        index.set(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET, 1);
+        index.set(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET, address);
+        size++;
+        return -1;
+      }
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_ID_OFFSET) == id) {
+        long previous = index.get(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET);
+        index.set(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET, address);
+        return previous;
+      }
+    }
+  }
+
+  /**
+   * Removes an ID and returns its address, or -1. Later entries of the probe run are shifted
+   * back, so the table never needs tombstones.
+   */
+  private long indexRemove(int id) {
+    int mask = indexCapacity - 1;
+    int slot = IntHashing.mix(id) & mask;
+    while (true) {
+      long slotOffset = (long) slot * SLOT_SIZE;
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET) == 0) {
+        return -1;
+      }
+      if (index.get(ValueLayout.JAVA_INT, slotOffset + SLOT_ID_OFFSET) == id) {
+        break;
+      }
+      slot = (slot + 1) & mask;
+    }
+    long address =
+        index.get(ValueLayout.JAVA_LONG, (long) slot * SLOT_SIZE + SLOT_ADDRESS_OFFSET);
+    int gap = slot;
+    for (int next = (gap + 1) & mask; ; next = (next + 1) & mask) {
+      long nextOffset = (long) next * SLOT_SIZE;
+      if (index.get(ValueLayout.JAVA_INT, nextOffset + SLOT_USED_OFFSET) == 0) {
+        break;
+      }
+      int home =
+          IntHashing.mix(index.get(ValueLayout.JAVA_INT, nextOffset + SLOT_ID_OFFSET)) & mask;
+      if (IntHashing.shouldShift(gap, next, home)) {
+        MemorySegment.copy(index, nextOffset, index, (long) gap * SLOT_SIZE, SLOT_SIZE);
+        gap = next;
+      }
+    }
+    index.asSlice((long) gap * SLOT_SIZE, SLOT_SIZE).fill((byte) 0);
+    size--;
+    return address;
+  }
+
+  private void resizeIndex(int capacity) {
+    Arena oldArena = indexArena;
+    MemorySegment oldIndex = index;
+    int oldCapacity = indexCapacity;
+    allocateIndex(capacity);
+    size = 0;
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      long slotOffset = (long) slot * SLOT_SIZE;
+      if (oldIndex.get(ValueLayout.JAVA_INT, slotOffset + SLOT_USED_OFFSET) != 0) {
+        indexPut(oldIndex.get(ValueLayout.JAVA_INT, slotOffset + SLOT_ID_OFFSET),
+            oldIndex.get(ValueLayout.JAVA_LONG, slotOffset + SLOT_ADDRESS_OFFSET));
+      }
+    }
+    oldArena.close();
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Off-heap course store has been closed");
+    }
+  }
+}
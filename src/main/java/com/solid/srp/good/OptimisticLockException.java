@@ -0,0 +1,50 @@
+package com.solid.srp.good;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when an update is rejected because the course row changed since it was read.
+ *
+ * <p>{@link CourseRepository} writes a versioned course only if the row still carries the
+ * version the course was loaded at (see {@link Course#getVersion()}). If another writer got
+ * there first, or the row was deleted, nothing is written and this exception reports the
+ * conflicting course IDs. Callers typically reload the course, reapply their change and retry.
+ *
+ * <p>The SQL state is {@code 40001} (serialization failure), the state databases use for
+ * transactions that lost a concurrency race and may be retried.
+ *
+ * @see CourseRepository#update(Course)
+ */
+public class OptimisticLockException extends SQLException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** SQL state for a retryable concurrency conflict. */
+  private static final String SQL_STATE = "40001";
+
+  /** IDs of the courses whose rows changed underneath the writer. */
+  private final int[] courseIds;
+
+  /**
+   * Constructs a conflict exception.
+   *
+   * @param courseIds the IDs of the courses whose updates were rejected
+   */
+  public OptimisticLockException(int... courseIds) {
+    super(
+        courseIds.length == 1
+            ? "Course " + courseIds[0] + " was modified or deleted by another writer"
+            : courseIds.length + " courses were modified or deleted by another writer",
+        SQL_STATE);
+    this.courseIds = courseIds.clone();
+  }
+
+  /**
+   * Gets the IDs of the courses whose updates were rejected.
+   *
+   * @return a copy of the conflicting course IDs
+   */
+  public int[] getCourseIds() {
+    return courseIds.clone();
+  }
+}
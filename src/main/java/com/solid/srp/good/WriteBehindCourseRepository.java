@@ -0,0 +1,279 @@
+package com.solid.srp.good;
+
+import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Course repository that buffers updates and writes them behind the caller.
+ *
+ * <p>{@link #update(Course)} records the new state of a course in memory and returns
+ * immediately. Repeated updates to the same course before the next flush are coalesced, so a
+ * course edited ten times in quick succession costs one {@code UPDATE}. Pending updates are
+ * written with {@link CourseRepository#updateAll(java.util.Collection)} in batched
+ * transactions when:
+ * <ul>
+ *   <li><b>Size trigger:</b> {@code maxPending} distinct courses are waiting</li>
+ *   <li><b>Time trigger:</b> {@code flushIntervalMillis} have passed since the last flush</li>
+ *   <li><b>Explicit flush:</b> the caller invokes {@link #flush()} for durability</li>
+ *   <li><b>Close:</b> the repository is closed</li>
+ * </ul>
+ *
+ * <p><b>Consistency:</b>
+ * <ul>
+ *   <li>{@link #findById(int)} sees pending updates (read-your-writes)</li>
+ *   <li>{@link #delete(int)} drops any pending update for the course first</li>
+ *   <li>Bulk reads (streams, pages, {@code findByIds}) read the database and may not see
+ *       updates that are still pending; call {@link #flush()} first when that matters</li>
+ *   <li>If a background flush fails, its updates go back into the buffer (unless newer ones
+ *       arrived meanwhile) and are retried on the next flush</li>
+ *   <li>Versioned courses are checked against the version they were read at when the buffered
+ *       update is finally written. Updates rejected with an {@link OptimisticLockException} are
+ *       dropped rather than retried, since retrying cannot succeed</li>
+ * </ul>
+ *
+ * <p><b>SRP ADHERENCE:</b> Buffering is added by extension; the SQL stays in
+ * {@link CourseRepository}.
+ *
+ * @see CourseRepository#updateAll(java.util.Collection)
+ */
+public final class WriteBehindCourseRepository extends CourseRepository implements AutoCloseable {
+
+  /** Pending updates by course ID, in arrival order. Guarded by {@code this}. */
+  private Map<Integer, Course> pending = new LinkedHashMap<>();
+
+  /** Updates taken by the running flush and not yet committed. Guarded by {@code this}. */
+  private Map<Integer, Course> inFlight = Map.of();
+
+  /** Number of pending courses that triggers a flush. */
+  private final int maxPending;
+
+  /** Serializes flushes so an older state of a course can never overwrite a newer one. */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  /** Runs the time-triggered flushes. */
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * Constructs a write-behind repository.
+   *
+   * @param pdo the database connection manager
+   * @param maxPending the number of distinct pending courses that triggers a flush
+   * @param flushIntervalMillis the maximum time an update waits before being flushed
+   * @throws IllegalArgumentException if either limit is less than 1
+   */
+  public WriteBehindCourseRepository(PDO pdo, int maxPending, long flushIntervalMillis) {
+    super(pdo);
+    if (maxPending < 1 || flushIntervalMillis < 1) {
+      throw new IllegalArgumentException(
+          "Flush limits must be positive, got size="
+              + maxPending
+              + ", interval="
+              + flushIntervalMillis);
+    }
+    this.maxPending = maxPending;
+    this.flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "course-write-behind");
+              thread.setDaemon(true);
+              return thread;
+            });
+    flusher.scheduleWithFixedDelay(
+        this::flushInBackground, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Buffers an update to a course.
+   *
+   * <p>A copy of the course is buffered, so later changes to {@code course} don't leak into the
+   * pending write. The changed fields of coalesced updates are combined, so the flush writes
+   * every column changed by any of them, and are checked against the version the first of them
+   * was read at. Once buffered, {@code course} is marked clean and given the version its row
+   * will have after the flush, so the caller can keep updating it; a course with no changes is
+   * not buffered at all. If the buffer reaches its size limit, it is flushed before this method
+   * returns.
+   *
+   * @param course the course with updated data (must have an ID)
+   * @throws SQLException if a size-triggered flush fails
+   */
+  @Override
+  public void update(Course course) throws SQLException {
+    if (!course.isDirty()) {
+      return;
+    }
+    boolean full;
+    synchronized (this) {
+      Course buffered = new Course(course);
+      Course previous = pending.put(course.getId(), buffered);
+      if (previous != null) {
+        buffered.markDirty(previous.getDirtyFields());
+        buffered.setVersion(previous.getVersion());
+      }
+      course.setVersion(flushedVersion(buffered));
+      full = pending.size() >= maxPending;
+    }
+    course.markClean();
+    if (full) {
+      flush();
+    }
+  }
+
+  /**
+   * Retrieves a course by its ID, including any pending update.
+   *
+   * @param id the course ID to retrieve
+   * @return the course, or null if no course with that ID exists
+   * @throws SQLException if a database error occurs
+   */
+  @Override
+  public Course findById(int id) throws SQLException {
+    synchronized (this) {
+      Course buffered = pending.get(id);
+      if (buffered == null) {
+        buffered = inFlight.get(id);
+      }
+      if (buffered != null) {
+        Course copy = new Course(buffered);
+        copy.setVersion(flushedVersion(buffered));
+        return copy;
+      }
+    }
+    return super.findById(id);
+  }
+
+  /**
+   * Deletes a course, discarding any pending update for it.
+   *
+   * @param id the ID of the course to delete
+   * @throws SQLException if a database error occurs
+   */
+  @Override
+  public void delete(int id) throws SQLException {
+    flushLock.lock();
+    try {
+      synchronized (this) {
+        pending.remove(id);
+      }
+      super.delete(id);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Writes every pending update to the database.
+   *
+   * <p>Returns once the updates are committed, so callers that need durability can call this
+   * after their last {@link #update(Course)}.
+   *
+   * @throws OptimisticLockException if rows changed since their courses were read; those
+   *     updates are dropped and the others stay pending
+   * @throws SQLException if a database error occurs; the failed updates stay pending
+   */
+  public void flush() throws SQLException {
+    flushLock.lock();
+    try {
+      Map<Integer, Course> batch;
+      synchronized (this) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        pending = new LinkedHashMap<>();
+        inFlight = batch;
+      }
+      try {
+        super.updateAll(batch.values());
+      } catch (OptimisticLockException e) {
+        for (int id : e.getCourseIds()) {
+          batch.remove(id);
+        }
+        requeue(batch);
+        throw e;
+      } catch (SQLException | RuntimeException e) {
+        requeue(batch);
+        throw e;
+      } finally {
+        synchronized (this) {
+          inFlight = Map.of();
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of courses with a pending update.
+   *
+   * @return the number of pending courses
+   */
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Stops the background flusher and writes every pending update.
+   *
+   * <p>Does not close the PDO.
+   *
+   * @throws SQLException if the final flush fails
+   */
+  @Override
+  public void close() throws SQLException {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  /** Time-triggered flush; errors are logged and the updates retried next time. */
+  private void flushInBackground() {
+    try {
+      flush();
+    } catch (SQLException | RuntimeException e) {
+      System.err.println("Error flushing pending course updates: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the version a buffered course's row will have once its update is written.
+   *
+   * @param buffered a buffered course
+   * @return the version after the flush, or {@link Course#UNVERSIONED}
+   */
+  private static long flushedVersion(Course buffered) {
+    if (buffered.getVersion() == Course.UNVERSIONED || !buffered.isDirty()) {
+      return buffered.getVersion();
+    }
+    return buffered.getVersion() + 1;
+  }
+
+  /**
+   * Puts failed updates back into the buffer, keeping any newer update that arrived meanwhile.
+   *
+   * @param failed the updates that could not be written
+   */
+  private synchronized void requeue(Map<Integer, Course> failed) {
+    List<Map.Entry<Integer, Course>> newer = new ArrayList<>(pending.entrySet());
+    pending = new LinkedHashMap<>(failed);
+    for (Map.Entry<Integer, Course> entry : newer) {
+      Course older = pending.put(entry.getKey(), entry.getValue());
+      if (older != null) {
+        entry.getValue().markDirty(older.getDirtyFields());
+        entry.getValue().setVersion(older.getVersion());
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.solid.srp.utils;
+
+/**
+ * Thread-safe {@link IntIntMap}, striped by key.
+ *
+ * <p>Keys are spread over a power-of-two number of independent {@link IntIntMap} stripes,
+ * each guarded by its own monitor. Single-key operations, including {@link #addTo(int, int)},
+ * are atomic; {@link #size()} and {@link #forEach(IntIntMap.EntryConsumer)} visit the stripes
+ * one at a time and are only weakly consistent while other threads write.
+ */
+public class ConcurrentIntIntMap {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final IntIntMap[] stripes;
+
+    /** Creates an empty map with 16 stripes. */
+    public ConcurrentIntIntMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param concurrencyLevel the expected number of concurrently writing threads
+     */
+    public ConcurrentIntIntMap(int concurrencyLevel) {
+        this.stripes = new IntIntMap[IntHashing.stripesFor(concurrencyLevel)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new IntIntMap();
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is absent
+     * @return the value, or {@code defaultValue}
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        IntIntMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.getOrDefault(key, defaultValue);
+        }
+    }
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if it has a value
+     */
+    public boolean containsKey(int key) {
+        IntIntMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        IntIntMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Atomically adds to the value of a key, treating an absent key as 0.
+     *
+     * @param key the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        IntIntMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.addTo(key, delta);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        IntIntMap stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Passes every entry to a consumer, locking one stripe at a time. The consumer must not
+     * touch this map.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(IntIntMap.EntryConsumer consumer) {
+        for (IntIntMap stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach(consumer);
+            }
+        }
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        int size = 0;
+        for (IntIntMap stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /** @return {@code true} if the map has no keys */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes every key. */
+    public void clear() {
+        for (IntIntMap stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentIntIntMap{size=" + size() + ", stripes=" + stripes.length + '}';
+    }
+
+    private IntIntMap stripeFor(int key) {
+        return stripes[IntHashing.stripeOf(key, stripes.length)];
+    }
+}
@@ -0,0 +1,171 @@
+package com.solid.srp.utils;
+
+import java.util.function.IntFunction;
+
+/**
+ * Thread-safe {@link IntObjectMap}, striped by key.
+ *
+ * <p>Keys are spread over a power-of-two number of independent {@link IntObjectMap} stripes,
+ * each guarded by its own monitor, so threads working on keys in different stripes do not
+ * block each other. Single-key operations are atomic; {@link #size()} and
+ * {@link #forEach(IntObjectMap.EntryConsumer)} visit the stripes one at a time and are only
+ * weakly consistent while other threads write.
+ *
+ * @param <V> the value type
+ */
+public class ConcurrentIntObjectMap<V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final IntObjectMap<V>[] stripes;
+
+    /** Creates an empty map with 16 stripes. */
+    public ConcurrentIntObjectMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param concurrencyLevel the expected number of concurrently writing threads
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentIntObjectMap(int concurrencyLevel) {
+        int stripeCount = IntHashing.stripesFor(concurrencyLevel);
+        this.stripes = (IntObjectMap<V>[]) new IntObjectMap<?>[stripeCount];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new IntObjectMap<>();
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is absent
+     */
+    public V get(int key) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if it has a value
+     */
+    public boolean containsKey(int key) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null} if the key was absent
+     */
+    public V put(int key, V value) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Atomically sets the value of a key unless it already has one.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the existing value, or {@code null} if {@code value} was stored
+     */
+    public V putIfAbsent(int key, V value) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.putIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * Atomically returns the value of a key, computing and storing it first if the key is
+     * absent. The function runs while the key's stripe is locked, so it should be short and
+     * must not touch this map.
+     *
+     * @param key the key
+     * @param function computes the value from the key; must not return {@code null}
+     * @return the existing or computed value
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> function) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(key, function);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the key was absent
+     */
+    public V remove(int key) {
+        IntObjectMap<V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Passes every entry to a consumer, locking one stripe at a time. The consumer must not
+     * touch this map.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(IntObjectMap.EntryConsumer<? super V> consumer) {
+        for (IntObjectMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach(consumer);
+            }
+        }
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        int size = 0;
+        for (IntObjectMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /** @return {@code true} if the map has no keys */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes every key. */
+    public void clear() {
+        for (IntObjectMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentIntObjectMap{size=" + size() + ", stripes=" + stripes.length + '}';
+    }
+
+    private IntObjectMap<V> stripeFor(int key) {
+        return stripes[IntHashing.stripeOf(key, stripes.length)];
+    }
+}
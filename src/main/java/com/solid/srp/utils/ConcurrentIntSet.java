@@ -0,0 +1,146 @@
+package com.solid.srp.utils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Thread-safe {@link IntSet}, striped by value.
+ *
+ * <p>Values are spread over a power-of-two number of independent {@link IntSet} stripes, each
+ * guarded by its own monitor. {@link #add(int)}, {@link #remove(int)} and
+ * {@link #contains(int)} are atomic; {@link #size()}, {@link #forEach(IntConsumer)} and
+ * {@link #toArray()} visit the stripes one at a time and are only weakly consistent while
+ * other threads write.
+ */
+public class ConcurrentIntSet {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final IntSet[] stripes;
+
+    /** Creates an empty set with 16 stripes. */
+    public ConcurrentIntSet() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param concurrencyLevel the expected number of concurrently writing threads
+     */
+    public ConcurrentIntSet(int concurrencyLevel) {
+        this.stripes = new IntSet[IntHashing.stripesFor(concurrencyLevel)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new IntSet();
+        }
+    }
+
+    /**
+     * Returns whether a value is present.
+     *
+     * @param value the value
+     * @return {@code true} if it is in the set
+     */
+    public boolean contains(int value) {
+        IntSet stripe = stripeFor(value);
+        synchronized (stripe) {
+            return stripe.contains(value);
+        }
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was not already present
+     */
+    public boolean add(int value) {
+        IntSet stripe = stripeFor(value);
+        synchronized (stripe) {
+            return stripe.add(value);
+        }
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was present
+     */
+    public boolean remove(int value) {
+        IntSet stripe = stripeFor(value);
+        synchronized (stripe) {
+            return stripe.remove(value);
+        }
+    }
+
+    /**
+     * Passes every value to a consumer, locking one stripe at a time. The consumer must not
+     * touch this set.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        for (IntSet stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach(consumer);
+            }
+        }
+    }
+
+    /**
+     * Returns the values.
+     *
+     * @return a new array of the values, in unspecified order
+     */
+    public int[] toArray() {
+        int[][] parts = new int[stripes.length][];
+        int length = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                parts[i] = stripes[i].toArray();
+            }
+            length += parts[i].length;
+        }
+        int[] result = new int[length];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    /** @return the number of values */
+    public int size() {
+        int size = 0;
+        for (IntSet stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /** @return {@code true} if the set has no values */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes every value. */
+    public void clear() {
+        for (IntSet stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentIntSet{size=" + size() + ", stripes=" + stripes.length + '}';
+    }
+
+    private IntSet stripeFor(int value) {
+        return stripes[IntHashing.stripeOf(value, stripes.length)];
+    }
+}
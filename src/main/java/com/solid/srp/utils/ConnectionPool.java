@@ -0,0 +1,441 @@
+package com.solid.srp.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of JDBC connections.
+ *
+ * <p>The pool keeps between {@code minSize} and {@code maxSize} physical connections open.
+ * Callers borrow a connection with {@link #borrow()} and give it back by closing the returned
+ * handle, typically with try-with-resources.
+ *
+ * <p><b>Pool behaviour:</b>
+ * <ul>
+ *   <li><b>Fair borrowing:</b> Waiting callers are served in arrival order</li>
+ *   <li><b>Borrow timeout:</b> {@link #borrow()} fails with {@link SQLTimeoutException} if no
+ *       connection frees up in time</li>
+ *   <li><b>Validation:</b> Idle connections are validated before they are handed out; broken
+ *       ones are discarded and replaced</li>
+ *   <li><b>Idle eviction:</b> Connections idle for longer than the idle timeout are closed,
+ *       never dropping the pool below {@code minSize}</li>
+ *   <li><b>Statistics:</b> {@link #getStatistics()} reports active, idle, waiters and wait
+ *       times</li>
+ * </ul>
+ *
+ * <p>Returned connections are reset to auto-commit mode, rolling back any transaction the
+ * borrower left open.
+ *
+ * @see PDO for the pooled mode that uses this class
+ */
+public class ConnectionPool {
+
+    /** Seconds allowed for {@link Connection#isValid(int)} during borrow validation. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+
+    /** One permit per connection that may be checked out; fair so waiters are FIFO. */
+    private final Semaphore permits;
+
+    /** Idle connections, most recently returned first. */
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+
+    /** Number of physical connections currently open. */
+    private final AtomicInteger total = new AtomicInteger();
+
+    /** Number of connections currently checked out. */
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /** Statement cache attached to every connection, or {@code null} if caching is off. */
+    private final StatementCache statementCache;
+
+    /** Background task that evicts idle connections and keeps the minimum size. */
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool and opens {@code minSize} connections eagerly.
+     *
+     * @param url the JDBC URL
+     * @param user the database user
+     * @param password the database password
+     * @param minSize connections kept open even when idle (at least 1)
+     * @param maxSize maximum connections checked out at the same time
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection; 0 fails
+     *     at once if none is idle
+     * @param idleTimeoutMillis how long a connection above {@code minSize} may stay idle
+     * @throws SQLException if the initial connections cannot be opened
+     * @throws IllegalArgumentException if the sizes or timeouts are out of range
+     */
+    public ConnectionPool(
+            String url,
+            String user,
+            String password,
+            int minSize,
+            int maxSize,
+            long borrowTimeoutMillis,
+            long idleTimeoutMillis) throws SQLException {
+        this(url, user, password, minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis, null);
+    }
+
+    /**
+     * Creates a pool whose connections prepare statements through a {@link StatementCache}.
+     *
+     * @param url the JDBC URL
+     * @param user the database user
+     * @param password the database password
+     * @param minSize connections kept open even when idle (at least 1)
+     * @param maxSize maximum connections checked out at the same time
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection; 0 fails
+     *     at once if none is idle
+     * @param idleTimeoutMillis how long a connection above {@code minSize} may stay idle
+     * @param statementCache cache for prepared statements, or {@code null} to disable caching
+     * @throws SQLException if the initial connections cannot be opened
+     * @throws IllegalArgumentException if the sizes or timeouts are out of range
+     */
+    public ConnectionPool(
+            String url,
+            String user,
+            String password,
+            int minSize,
+            int maxSize,
+            long borrowTimeoutMillis,
+            long idleTimeoutMillis,
+            StatementCache statementCache) throws SQLException {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException(
+                    "Pool sizes must satisfy 1 <= min <= max, got min=" + minSize + ", max=" + maxSize);
+        }
+        if (borrowTimeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Borrow timeout must not be negative, got " + borrowTimeoutMillis);
+        }
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "Idle timeout must be positive, got " + idleTimeoutMillis);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.statementCache = statementCache;
+
+        for (int i = 0; i < minSize; i++) {
+            idle.offerLast(new IdleConnection(openConnection()));
+        }
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool.
+     *
+     * <p>Closing the returned connection gives it back to the pool; the physical connection
+     * stays open.
+     *
+     * @return a validated connection handle
+     * @throws SQLTimeoutException if no connection became available within the borrow timeout
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException(
+                        "Timed out after " + borrowTimeoutMillis + " ms waiting for a connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            Connection physical = takeIdleOrOpen();
+            active.incrementAndGet();
+            return ManagedConnection.wrap(physical, statementCache, () -> release(physical));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics.
+     *
+     * @return current pool statistics
+     */
+    public Statistics getStatistics() {
+        long borrows = borrowCount.sum();
+        return new Statistics(
+                active.get(),
+                idle.size(),
+                total.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                timeoutCount.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    /**
+     * Closes the pool and every idle connection.
+     *
+     * <p>Connections still checked out are closed when their borrowers return them.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry.connection);
+        }
+    }
+
+    /**
+     * Takes the most recently used idle connection, validating it, or opens a new one.
+     */
+    private Connection takeIdleOrOpen() throws SQLException {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry.connection)) {
+                return entry.connection;
+            }
+            destroy(entry.connection);
+        }
+        return openConnection();
+    }
+
+    /**
+     * Gives a physical connection back to the pool, resetting its transaction state.
+     */
+    private void release(Connection physical) {
+        active.decrementAndGet();
+        try {
+            if (closed || physical.isClosed()) {
+                destroy(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(physical));
+        } catch (SQLException e) {
+            System.err.println("Error returning connection to pool: " + e.getMessage());
+            destroy(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections idle for longer than the idle timeout and tops the pool back up to
+     * its minimum size.
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        // The deque is ordered most recent first, so the stalest entries sit at the tail.
+        while (total.get() > minSize) {
+            IdleConnection oldest = idle.pollLast();
+            if (oldest == null) {
+                break;
+            }
+            if (now - oldest.idleSince < timeoutNanos) {
+                idle.offerLast(oldest);
+                break;
+            }
+            destroy(oldest.connection);
+        }
+        try {
+            while (!closed && total.get() < minSize) {
+                idle.offerLast(new IdleConnection(openConnection()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error replenishing connection pool: " + e.getMessage());
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        return connection;
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(Connection connection) {
+        total.decrementAndGet();
+        if (statementCache != null) {
+            statementCache.discard(connection);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** An idle physical connection together with the time it was returned. */
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+            this.idleSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * Point-in-time statistics of a {@link ConnectionPool}.
+     */
+    public static final class Statistics {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int maxSize;
+        private final int waiters;
+        private final long borrowCount;
+        private final long timeoutCount;
+        private final long totalWaitMillis;
+        private final long maxWaitMillis;
+
+        Statistics(
+                int active,
+                int idle,
+                int total,
+                int maxSize,
+                int waiters,
+                long borrowCount,
+                long timeoutCount,
+                long totalWaitMillis,
+                long maxWaitMillis) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.waiters = waiters;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.totalWaitMillis = totalWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        /** @return connections currently checked out */
+        public int getActive() {
+            return active;
+        }
+
+        /** @return open connections waiting in the pool */
+        public int getIdle() {
+            return idle;
+        }
+
+        /** @return physical connections currently open */
+        public int getTotal() {
+            return total;
+        }
+
+        /** @return maximum connections that may be checked out at once */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /** @return callers currently blocked in {@link ConnectionPool#borrow()} */
+        public int getWaiters() {
+            return waiters;
+        }
+
+        /** @return successful borrows since the pool was created */
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        /** @return borrows that gave up after the borrow timeout */
+        public long getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        /** @return total time callers spent waiting for a connection, in milliseconds */
+        public long getTotalWaitMillis() {
+            return totalWaitMillis;
+        }
+
+        /** @return longest single wait for a connection, in milliseconds */
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        /** @return average wait per successful borrow, in milliseconds */
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0 : (double) totalWaitMillis / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{"
+                    + "active=" + active
+                    + ", idle=" + idle
+                    + ", total=" + total
+                    + ", maxSize=" + maxSize
+                    + ", waiters=" + waiters
+                    + ", borrowCount=" + borrowCount
+                    + ", timeoutCount=" + timeoutCount
+                    + ", totalWaitMillis=" + totalWaitMillis
+                    + ", maxWaitMillis=" + maxWaitMillis
+                    + '}';
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.solid.srp.utils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gathers transactional work from concurrent callers and commits it in groups.
+ *
+ * <p>Every commit costs a log flush, so many small transactions from concurrent callers spend
+ * most of their time committing. A group committer queues the work instead and runs it in
+ * shared transactions:
+ * <ul>
+ *   <li><b>Size trigger:</b> a group is committed once {@code maxOperations} pieces of work
+ *       are in it</li>
+ *   <li><b>Time trigger:</b> a group is committed at the latest {@code maxDelayMillis} after
+ *       its first piece of work arrived</li>
+ *   <li><b>Isolation:</b> each piece of work runs under its own savepoint; one that fails is
+ *       rolled back alone and only its caller sees the error</li>
+ *   <li><b>Durability:</b> a caller's future completes only after the group's commit, and
+ *       fails if the commit fails</li>
+ * </ul>
+ *
+ * <p>Work runs one piece at a time on the committer's thread, through
+ * {@link PDO#inTransaction(PDO.TransactionWork)}, so repository calls made by the work join the
+ * group's transaction. Work should therefore be short; long work delays the whole group.
+ *
+ * @see PDO#inTransaction(PDO.TransactionWork)
+ */
+public class GroupCommitter implements AutoCloseable {
+
+    /** Longest the committer thread waits before checking whether it was closed. */
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final PDO pdo;
+    private final int maxOperations;
+    private final long maxDelayNanos;
+
+    /** Work waiting for the next group. */
+    private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<>();
+
+    /** Runs the groups. */
+    private final Thread committer;
+
+    /** Set by {@link #close()}; guarded by {@code this} so no work is queued after it. */
+    private boolean closed;
+
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong operationCount = new AtomicLong();
+
+    /**
+     * Creates a group committer and starts its thread.
+     *
+     * @param pdo the database to commit to
+     * @param maxOperations the number of pieces of work that closes a group
+     * @param maxDelayMillis the longest a piece of work waits for its group to be committed
+     * @throws IllegalArgumentException if either limit is less than 1
+     */
+    public GroupCommitter(PDO pdo, int maxOperations, long maxDelayMillis) {
+        if (maxOperations < 1 || maxDelayMillis < 1) {
+            throw new IllegalArgumentException(
+                    "Group limits must be positive, got operations=" + maxOperations
+                            + ", delay=" + maxDelayMillis);
+        }
+        this.pdo = pdo;
+        this.maxOperations = maxOperations;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.committer = new Thread(this::runGroups, "group-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Queues work for the next group.
+     *
+     * @param work the work to run in the group's transaction
+     * @param <T> the result type
+     * @return a future completed with the work's result once the group is committed, or
+     *     exceptionally if the work or the commit fails
+     * @throws IllegalStateException if the committer has been closed
+     */
+    public <T> CompletableFuture<T> submit(PDO.TransactionWork<T> work) {
+        Request<T> request = new Request<>(work);
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Group committer has been closed");
+            }
+            queue.add(request);
+        }
+        return request.future;
+    }
+
+    /**
+     * Returns the number of groups committed so far.
+     *
+     * @return the commit count
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * Returns the number of pieces of work that ran in committed groups.
+     *
+     * @return the operation count
+     */
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+
+    /**
+     * Stops accepting work, commits the work already queued and stops the thread.
+     *
+     * <p>Does not close the PDO.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Returns whether {@link #close()} has been called. */
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /** Committer loop: collects a group, runs it, repeats until closed and drained. */
+    private void runGroups() {
+        List<Request<?>> group = new ArrayList<>(maxOperations);
+        while (true) {
+            try {
+                Request<?> first = queue.poll(POLL_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    synchronized (this) {
+                        if (closed && queue.isEmpty()) {
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxOperations) {
+                    // Waits in short slices so close() doesn't have to wait out the whole delay
+                    long remaining = deadline - System.nanoTime();
+                    Request<?> next = queue.poll(
+                            Math.min(remaining, POLL_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        group.add(next);
+                    } else if (remaining <= POLL_INTERVAL_NANOS || isClosed()) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Commit what was gathered; the loop ends once the queue is drained
+            }
+            commit(group);
+            group.clear();
+        }
+    }
+
+    /**
+     * Runs a group in one transaction and completes its futures.
+     *
+     * @param group the work to run
+     */
+    private void commit(List<Request<?>> group) {
+        try {
+            pdo.inTransaction(connection -> {
+                for (Request<?> request : group) {
+                    request.execute(pdo);
+                }
+                return null;
+            });
+            commitCount.incrementAndGet();
+            operationCount.addAndGet(group.size());
+        } catch (SQLException | RuntimeException e) {
+            for (Request<?> request : group) {
+                request.fail(e);
+            }
+        }
+        for (Request<?> request : group) {
+            request.complete();
+        }
+    }
+
+    /** One piece of queued work and its caller's future. */
+    private static final class Request<T> {
+        private final PDO.TransactionWork<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+
+        Request(PDO.TransactionWork<T> work) {
+            this.work = work;
+        }
+
+        /** Runs the work under its own savepoint, remembering the result or failure. */
+        void execute(PDO pdo) {
+            try {
+                result = pdo.inTransaction(work);
+            } catch (SQLException | RuntimeException | Error e) {
+                failure = e;
+            }
+        }
+
+        /** Fails the request because its group could not be committed. */
+        void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+        }
+
+        /** Completes the caller's future; called only once the group's outcome is known. */
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.solid.srp.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out IDs from a database sequence in blocks.
+ *
+ * <p>Each refill reserves {@code blockSize} values from an H2 {@code SEQUENCE} in a single
+ * query. IDs are then handed out from memory without locking, so entities can get their IDs
+ * before they are inserted. That removes the need for {@code RETURN_GENERATED_KEYS} and makes
+ * JDBC batching and pipelining of inserts possible.
+ *
+ * <p>The sequences created by {@link PDO} are also the default values of the tables' id
+ * columns, so IDs from this allocator never collide with rows inserted without an ID. IDs left
+ * unused in a block (e.g. when the process exits) are simply skipped.
+ *
+ * <p>Only a refill takes a lock; concurrent callers asking for IDs from the current block
+ * never block each other.
+ */
+public class IdAllocator {
+
+    /** Database connection manager. */
+    private final PDO pdo;
+
+    /** Query that reserves one block of sequence values. */
+    private final String reserveSql;
+
+    /** Number of IDs reserved per refill. */
+    private final int blockSize;
+
+    /** The block IDs are currently handed out from. */
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+
+    /**
+     * Creates an allocator for a sequence.
+     *
+     * @param pdo the database connection manager
+     * @param sequenceName the sequence to draw IDs from (e.g. {@link PDO#COURSE_SEQUENCE})
+     * @param blockSize the number of IDs reserved per database round trip
+     * @throws IllegalArgumentException if the block size is less than 1 or the sequence name is
+     *     not a plain SQL identifier
+     */
+    public IdAllocator(PDO pdo, String sequenceName, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1, got " + blockSize);
+        }
+        if (!sequenceName.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid sequence name: " + sequenceName);
+        }
+        this.pdo = pdo;
+        this.blockSize = blockSize;
+        this.reserveSql = "SELECT NEXT VALUE FOR " + sequenceName + " FROM SYSTEM_RANGE(1, " + blockSize + ")";
+    }
+
+    /**
+     * Returns the next unused ID.
+     *
+     * @return a fresh ID
+     * @throws SQLException if a new block had to be reserved and that failed
+     */
+    public int nextId() throws SQLException {
+        while (true) {
+            Block block = current.get();
+            int index = block.cursor.getAndIncrement();
+            if (index < block.ids.length) {
+                return block.ids[index];
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Gets the number of IDs reserved per refill.
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Reserves a new block unless another thread already replaced the exhausted one.
+     *
+     * @param exhausted the block the caller found empty
+     * @throws SQLException if the block cannot be reserved
+     */
+    private synchronized void refill(Block exhausted) throws SQLException {
+        if (current.get() != exhausted) {
+            return;
+        }
+        int[] ids = new int[blockSize];
+        int count = 0;
+        try (Connection connection = pdo.borrowConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(reserveSql)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next() && count < blockSize) {
+                ids[count++] = resultSet.getInt(1);
+            }
+        }
+        if (count == 0) {
+            throw new SQLException("Sequence returned no values");
+        }
+        current.set(new Block(count == blockSize ? ids : Arrays.copyOf(ids, count)));
+    }
+
+    /** A reserved set of IDs and the position of the next one to hand out. */
+    private static final class Block {
+        private static final Block EMPTY = new Block(new int[0]);
+
+        private final int[] ids;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Block(int[] ids) {
+            this.ids = ids;
+        }
+    }
+}
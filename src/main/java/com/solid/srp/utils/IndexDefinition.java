@@ -0,0 +1,85 @@
+package com.solid.srp.utils;
+
+import java.util.List;
+
+/**
+ * Declarative definition of a secondary index.
+ *
+ * <p>{@link PDO} keeps the schema's indexes as a list of definitions ({@link PDO#INDEXES}) and
+ * creates them at startup, so the indexes behind the hot query paths are listed in one place
+ * instead of being scattered over DDL strings.
+ *
+ * @see QueryPlanChecker for verifying that queries actually use them
+ */
+public final class IndexDefinition {
+
+    private final String name;
+    private final String table;
+    private final boolean unique;
+    private final List<String> columns;
+
+    /**
+     * Defines an index.
+     *
+     * @param name the index name
+     * @param table the indexed table
+     * @param unique whether the index also enforces uniqueness
+     * @param columns the indexed columns, most selective lookup key first
+     * @throws IllegalArgumentException if a name is not a plain SQL identifier or no column is given
+     */
+    public IndexDefinition(String name, String table, boolean unique, String... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("Index " + name + " needs at least one column");
+        }
+        this.name = checkIdentifier(name);
+        this.table = checkIdentifier(table);
+        this.unique = unique;
+        for (String column : columns) {
+            checkIdentifier(column);
+        }
+        this.columns = List.of(columns);
+    }
+
+    /** @return the index name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the indexed table */
+    public String getTable() {
+        return table;
+    }
+
+    /** @return whether the index enforces uniqueness */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /** @return the indexed columns, in key order */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the DDL that creates this index if it doesn't exist yet.
+     *
+     * @return a {@code CREATE [UNIQUE] INDEX IF NOT EXISTS} statement
+     */
+    public String toSql() {
+        return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + name
+                + " ON " + table + " (" + String.join(", ", columns) + ")";
+    }
+
+    @Override
+    public String toString() {
+        return name + " ON " + table + columns;
+    }
+
+    /** Names are concatenated into DDL, so only plain identifiers are accepted. */
+    private static String checkIdentifier(String identifier) {
+        if (identifier == null || !identifier.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid SQL identifier: " + identifier);
+        }
+        return identifier;
+    }
+}
@@ -0,0 +1,83 @@
+package com.solid.srp.utils;
+
+/**
+ * Hashing and sizing shared by the open-addressing {@code int} collections.
+ *
+ * <p>{@link #mix} and {@link #shouldShift} are public for tables kept outside this package,
+ * such as the off-heap ID index of {@code OffHeapCourseStore}.
+ */
+public final class IntHashing {
+
+    /** Tables are grown once more than this fraction of their slots is used. */
+    static final float MAX_LOAD = 0.66f;
+
+    private IntHashing() {
+    }
+
+    /**
+     * Spreads the bits of a key, so sequential IDs do not fill neighbouring slots.
+     *
+     * @param key the key
+     * @return the mixed hash
+     */
+    public static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the power-of-two table size that holds {@code expectedSize} keys without
+     * growing.
+     *
+     * @param expectedSize the number of keys expected
+     * @return the table size
+     */
+    static int capacityFor(int expectedSize) {
+        long needed = Math.max(4, (long) Math.ceil(Math.max(0, expectedSize) / MAX_LOAD) + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Too many keys: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /**
+     * Returns whether the entry in slot {@code next} must move back into the free slot
+     * {@code gap} during backward-shift deletion: it must, unless its home slot lies
+     * cyclically in {@code (gap, next]}.
+     *
+     * @param gap the slot being freed
+     * @param next a later slot of the same probe run
+     * @param home the home slot of the entry in {@code next}
+     * @return {@code true} if the entry must move into the gap
+     */
+    public static boolean shouldShift(int gap, int next, int home) {
+        boolean homeAfterGap = gap <= next
+                ? gap < home && home <= next
+                : gap < home || home <= next;
+        return !homeAfterGap;
+    }
+
+    /**
+     * Returns the number of stripes for a concurrent collection: {@code concurrencyLevel}
+     * rounded up to a power of two, between 1 and 256.
+     *
+     * @param concurrencyLevel the expected number of concurrently writing threads
+     * @return the stripe count
+     */
+    static int stripesFor(int concurrencyLevel) {
+        int level = Math.max(1, Math.min(256, concurrencyLevel));
+        return level == 1 ? 1 : Integer.highestOneBit(level - 1) << 1;
+    }
+
+    /**
+     * Picks the stripe of a key from the high bits of its hash, which the tables themselves
+     * do not use for small capacities.
+     *
+     * @param key the key
+     * @param stripes the stripe count, a power of two
+     * @return the stripe index
+     */
+    static int stripeOf(int key, int stripes) {
+        return (mix(key) >>> 24) & (stripes - 1);
+    }
+}
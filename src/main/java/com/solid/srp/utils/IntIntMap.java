@@ -0,0 +1,252 @@
+package com.solid.srp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code int} keys to {@code int} values, without boxing.
+ *
+ * <p>Keys and values live in two parallel {@code int[]} tables with linear probing, so a slot
+ * costs eight bytes where a {@code HashMap<Integer, Integer>} entry costs about 64. An empty
+ * slot holds key 0; the key 0 itself is kept beside the table. Removal shifts later entries
+ * of the probe run back, so no tombstones accumulate. Iteration order is unspecified.
+ *
+ * <p>Not thread-safe; see {@link ConcurrentIntIntMap}.
+ */
+public class IntIntMap {
+
+    /** Receives the entries of a map. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Accepts one entry.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(int key, int value);
+    }
+
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int maxFill;
+
+    /** Whether the key 0 is present, and its value. */
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /** Creates an empty map. */
+    public IntIntMap() {
+        this(8);
+    }
+
+    /**
+     * Creates an empty map with room for some keys.
+     *
+     * @param expectedSize the number of keys to hold without growing
+     */
+    public IntIntMap(int expectedSize) {
+        allocate(IntHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is absent
+     * @return the value, or {@code defaultValue}
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if it has a value
+     */
+    public boolean containsKey(int key) {
+        return key == FREE ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = IntHashing.mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxFill) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as 0.
+     *
+     * @param key the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int value = getOrDefault(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            if (IntHashing.shouldShift(gap, next, IntHashing.mix(keys[next]) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    /**
+     * Passes every entry to a consumer, which must not modify the map.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys.
+     *
+     * @return a new array of the keys, in unspecified order
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        if (hasZeroKey) {
+            result[index++] = FREE;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the map has no keys */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every key, keeping the table's capacity. */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = IntHashing.mix(key) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        maxFill = (int) (capacity * IntHashing.MAX_LOAD);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = IntHashing.mix(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
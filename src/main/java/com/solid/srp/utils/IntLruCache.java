@@ -0,0 +1,324 @@
+package com.solid.srp.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe, size-bounded LRU cache with a time-to-live, keyed by primitive {@code int}s.
+ *
+ * <p>Holds at most {@code maxEntries}, evicting the least recently used entry, and expires
+ * entries {@code ttlMillis} after they were stored. Invalidation stamps let a read-through
+ * loader skip storing a value made stale while it was loading, and {@link #getStatistics()}
+ * reports hits, misses, evictions and expirations.
+ *
+ * <p>Keys are not boxed and entries are not allocated one by one: entries live in parallel
+ * arrays of slots, an {@link IntIntMap} finds the slot of a key, and the access order is a
+ * doubly linked list threaded through the slots by index. Freed slots are reused; the arrays
+ * grow on demand up to {@code maxEntries}.
+ *
+ * @param <V> the value type
+ */
+public class IntLruCache<V> {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_SLOTS = 16;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    /** Slot of every cached key. Guarded by {@code this}. */
+    private final IntIntMap slotByKey = new IntIntMap();
+
+    // Slot arrays, guarded by {@code this}. Free slots are chained through next.
+    private int[] keys;
+    private Object[] values;
+    private long[] storedAt;
+    private int[] prev;
+    private int[] next;
+
+    /** Least recently used slot, or {@link #NONE}. Guarded by {@code this}. */
+    private int head = NONE;
+    /** Most recently used slot, or {@link #NONE}. Guarded by {@code this}. */
+    private int tail = NONE;
+    /** First free slot, or {@link #NONE}. Guarded by {@code this}. */
+    private int free = NONE;
+    /** Slots handed out so far; slots at and above it have never been used. */
+    private int used;
+
+    /** Incremented by every invalidation. Guarded by {@code this}. */
+    private long invalidations;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param ttlMillis how long an entry stays valid after it is stored
+     * @throws IllegalArgumentException if either bound is less than 1
+     */
+    public IntLruCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException(
+                    "Cache size and TTL must be positive, got size=" + maxEntries + ", ttl=" + ttlMillis);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        allocate(Math.min(maxEntries, INITIAL_SLOTS));
+    }
+
+    /**
+     * Returns the cached value for a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if absent or expired
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(int key) {
+        int slot = slotByKey.getOrDefault(key, NONE);
+        if (slot == NONE) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - storedAt[slot] >= ttlNanos) {
+            release(slot);
+            expirations++;
+            misses++;
+            return null;
+        }
+        moveToTail(slot);
+        hits++;
+        return (V) values[slot];
+    }
+
+    /**
+     * Stores a value unconditionally.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public synchronized void put(int key, V value) {
+        store(key, value);
+    }
+
+    /**
+     * Returns the current invalidation stamp.
+     *
+     * <p>Take a stamp before loading a value from its source and pass it to
+     * {@link #putIfUnchanged} afterwards.
+     *
+     * @return the current stamp
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Stores a value only if no invalidation happened since {@code stamp} was taken.
+     *
+     * @param key the key
+     * @param value the value
+     * @param stamp a stamp from {@link #stamp()}
+     * @return {@code true} if the value was stored
+     */
+    public synchronized boolean putIfUnchanged(int key, V value, long stamp) {
+        if (stamp != invalidations) {
+            return false;
+        }
+        store(key, value);
+        return true;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key to remove
+     */
+    public synchronized void invalidate(int key) {
+        invalidations++;
+        int slot = slotByKey.getOrDefault(key, NONE);
+        if (slot != NONE) {
+            release(slot);
+        }
+    }
+
+    /** Removes every entry. */
+    public synchronized void clear() {
+        invalidations++;
+        slotByKey.clear();
+        allocate(Math.min(maxEntries, INITIAL_SLOTS));
+    }
+
+    /**
+     * Returns the number of entries, including expired ones not yet removed.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return slotByKey.size();
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return current cache statistics
+     */
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hits, misses, evictions, expirations, slotByKey.size());
+    }
+
+    private void store(int key, V value) {
+        int slot = slotByKey.getOrDefault(key, NONE);
+        if (slot == NONE) {
+            if (slotByKey.size() == maxEntries) {
+                release(head);
+                evictions++;
+            }
+            slot = acquire();
+            keys[slot] = key;
+            slotByKey.put(key, slot);
+            link(slot);
+        } else {
+            moveToTail(slot);
+        }
+        values[slot] = value;
+        storedAt[slot] = System.nanoTime();
+    }
+
+    /** Takes a slot from the free list, or a fresh one, growing the arrays if needed. */
+    private int acquire() {
+        if (free != NONE) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == keys.length) {
+            int capacity = (int) Math.min(maxEntries, 2L * keys.length);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            storedAt = Arrays.copyOf(storedAt, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return used++;
+    }
+
+    /** Drops the entry in a slot and puts the slot on the free list. */
+    private void release(int slot) {
+        slotByKey.remove(keys[slot]);
+        unlink(slot);
+        values[slot] = null;
+        next[slot] = free;
+        free = slot;
+    }
+
+    private void moveToTail(int slot) {
+        if (slot != tail) {
+            unlink(slot);
+            link(slot);
+        }
+    }
+
+    /** Appends a slot at the most recently used end. */
+    private void link(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        storedAt = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        head = NONE;
+        tail = NONE;
+        free = NONE;
+        used = 0;
+    }
+
+    /**
+     * Point-in-time statistics of an {@link IntLruCache}.
+     */
+    public static final class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final int size;
+
+        Statistics(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        /** @return lookups answered from the cache */
+        public long getHits() {
+            return hits;
+        }
+
+        /** @return lookups that found no valid entry */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** @return entries removed to respect the size bound */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /** @return entries removed because their TTL elapsed */
+        public long getExpirations() {
+            return expirations;
+        }
+
+        /** @return entries currently held */
+        public int getSize() {
+            return size;
+        }
+
+        /** @return fraction of lookups answered from the cache, between 0 and 1 */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{"
+                    + "hits=" + hits
+                    + ", misses=" + misses
+                    + ", evictions=" + evictions
+                    + ", expirations=" + expirations
+                    + ", size=" + size
+                    + '}';
+        }
+    }
+}
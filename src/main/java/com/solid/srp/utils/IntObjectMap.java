@@ -0,0 +1,257 @@
+package com.solid.srp.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Map from {@code int} keys to objects, without boxing.
+ *
+ * <p>A {@code HashMap<Integer, V>} spends an {@code Integer} and a 32-byte node on every
+ * entry. This map keeps keys and values in two parallel arrays and resolves collisions by
+ * linear probing, so a slot costs one {@code int} and one reference, with at least a third
+ * of the slots kept free. Removal shifts later entries of the probe run back, so no
+ * tombstones accumulate.
+ *
+ * <p>Values may not be {@code null}; an empty slot is one with a {@code null} value. Iteration
+ * order is unspecified.
+ *
+ * <p>Not thread-safe; see {@link ConcurrentIntObjectMap}.
+ *
+ * @param <V> the value type
+ */
+public class IntObjectMap<V> {
+
+    /** Receives the entries of a map. */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Accepts one entry.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(int key, V value);
+    }
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int maxFill;
+
+    /** Creates an empty map. */
+    public IntObjectMap() {
+        this(8);
+    }
+
+    /**
+     * Creates an empty map with room for some keys.
+     *
+     * @param expectedSize the number of keys to hold without growing
+     */
+    public IntObjectMap(int expectedSize) {
+        allocate(IntHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if it has a value
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        int mask = keys.length - 1;
+        int slot = IntHashing.mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxFill) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Sets the value of a key unless it already has one.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the existing value, or {@code null} if {@code value} was stored
+     */
+    public V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    /**
+     * Returns the value of a key, computing and storing it first if the key is absent.
+     *
+     * @param key the key
+     * @param function computes the value from the key; must not return {@code null}
+     * @return the existing or computed value
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> function) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        V value = function.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            if (IntHashing.shouldShift(gap, next, IntHashing.mix(keys[next]) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Passes every entry to a consumer, which must not modify the map.
+     *
+     * @param consumer the consumer
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys.
+     *
+     * @return a new array of the keys, in unspecified order
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the map has no keys */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every key, keeping the table's capacity. */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = IntHashing.mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        maxFill = (int) (capacity * IntHashing.MAX_LOAD);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = IntHashing.mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.solid.srp.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of {@code int} values, without boxing.
+ *
+ * <p>Values live in one {@code int[]} table with linear probing, four bytes per slot where a
+ * {@code HashSet<Integer>} spends about 48 bytes per element. An empty slot holds 0; the value
+ * 0 itself is tracked by a flag. Removal shifts later values of the probe run back, so no
+ * tombstones accumulate. Iteration order is unspecified.
+ *
+ * <p>Not thread-safe; see {@link ConcurrentIntSet}.
+ */
+public class IntSet {
+
+    private static final int FREE = 0;
+
+    private int[] values;
+    private int size;
+    private int maxFill;
+
+    /** Whether the value 0 is present. */
+    private boolean hasZero;
+
+    /** Creates an empty set. */
+    public IntSet() {
+        this(8);
+    }
+
+    /**
+     * Creates an empty set with room for some values.
+     *
+     * @param expectedSize the number of values to hold without growing
+     */
+    public IntSet(int expectedSize) {
+        allocate(IntHashing.capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns whether a value is present.
+     *
+     * @param value the value
+     * @return {@code true} if it is in the set
+     */
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return hasZero;
+        }
+        int mask = values.length - 1;
+        int slot = IntHashing.mix(value) & mask;
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was not already present
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = values.length - 1;
+        int slot = IntHashing.mix(value) & mask;
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        if (++size > maxFill) {
+            rehash(values.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was present
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int mask = values.length - 1;
+        int gap = IntHashing.mix(value) & mask;
+        while (values[gap] != value) {
+            if (values[gap] == FREE) {
+                return false;
+            }
+            gap = (gap + 1) & mask;
+        }
+        for (int next = (gap + 1) & mask; values[next] != FREE; next = (next + 1) & mask) {
+            if (IntHashing.shouldShift(gap, next, IntHashing.mix(values[next]) & mask)) {
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    /**
+     * Passes every value to a consumer, which must not modify the set.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        if (hasZero) {
+            consumer.accept(FREE);
+        }
+        for (int value : values) {
+            if (value != FREE) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the values.
+     *
+     * @return a new array of the values, in unspecified order
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        if (hasZero) {
+            result[index++] = FREE;
+        }
+        for (int value : values) {
+            if (value != FREE) {
+                result[index++] = value;
+            }
+        }
+        return result;
+    }
+
+    /** @return the number of values */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the set has no values */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every value, keeping the table's capacity. */
+    public void clear() {
+        Arrays.fill(values, FREE);
+        hasZero = false;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void allocate(int capacity) {
+        values = new int[capacity];
+        maxFill = (int) (capacity * IntHashing.MAX_LOAD);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int value : oldValues) {
+            if (value != FREE) {
+                int slot = IntHashing.mix(value) & mask;
+                while (values[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package com.solid.srp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index with BM25 ranking and simple boolean queries.
+ *
+ * <p><b>Layout:</b> Documents get dense internal numbers in the order they are added; the
+ * caller's IDs are mapped to and from them. Each term keeps a posting list of
+ * {@code (document gap, term frequency)} pairs in one growable {@code int[]}. Since documents
+ * are only ever appended, gaps are small positive numbers and a list is read by summing them.
+ *
+ * <p><b>Updates and deletes:</b> Re-adding an ID gives the document a new number and marks
+ * the old one deleted; deleted numbers are skipped while reading postings. Once as many
+ * documents are deleted as are live, the index renumbers the live ones and rewrites every
+ * posting list without the deleted ones.
+ *
+ * <p><b>Queries:</b> Words separated by whitespace. A word prefixed with {@code +} is
+ * required, one prefixed with {@code -} is excluded, any other word is optional. Documents
+ * must contain every required word, no excluded word and, when nothing is required, at least
+ * one optional word. Matches are ranked by their BM25 score over the required and optional
+ * words. Only documents in the postings of the rarest required word, or of the optional words
+ * when nothing is required, are scored, so a query costs the length of its posting lists
+ * rather than the size of the index.
+ *
+ * <p>Text is split into runs of letters and digits and lower-cased, both when indexing and
+ * when querying.
+ *
+ * <p><b>Thread safety:</b> Searches share a read lock; writes take the write lock.
+ */
+public class InvertedIndex {
+
+    /** BM25 term-frequency saturation. */
+    private static final float K1 = 1.2f;
+
+    /** BM25 document-length normalization. */
+    private static final float B = 0.75f;
+
+    /** Deleted documents tolerated before compaction, regardless of the live count. */
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    private static final int[] NO_IDS = new int[0];
+
+    /** Posting lists by term. Guarded by {@link #lock}. */
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+    /** Internal document number by caller's ID, for live documents. Guarded by {@link #lock}. */
+    private final IntIntMap documentsById = new IntIntMap();
+
+    /** Caller's ID and token count by internal document number. Guarded by {@link #lock}. */
+    private int[] idsByDocument = new int[16];
+    private int[] lengthsByDocument = new int[16];
+
+    /** Internal numbers of deleted documents. Guarded by {@link #lock}. */
+    private BitSet deleted = new BitSet();
+
+    /** Internal numbers handed out so far. Guarded by {@link #lock}. */
+    private int documentCount;
+    private int deletedCount;
+
+    /** Token count over live documents, for the average document length. */
+    private long liveTokenCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Splits text into lower-cased runs of letters and digits.
+     *
+     * @param text the text to split; {@code null} is treated as empty
+     * @return the tokens in order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes a document, replacing any previous version with the same ID.
+     *
+     * @param id the caller's ID of the document
+     * @param text the document's text
+     */
+    public void put(int id, String text) {
+        List<String> tokens = tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            int document = documentCount++;
+            if (document == idsByDocument.length) {
+                idsByDocument = Arrays.copyOf(idsByDocument, document * 2);
+                lengthsByDocument = Arrays.copyOf(lengthsByDocument, document * 2);
+            }
+            idsByDocument[document] = id;
+            lengthsByDocument[document] = tokens.size();
+            liveTokenCount += tokens.size();
+            documentsById.put(id, document);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postingsByTerm.computeIfAbsent(entry.getKey(), term -> new Postings())
+                        .append(document, entry.getValue());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document.
+     *
+     * @param id the caller's ID of the document
+     * @return {@code true} if the document was indexed
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeDocument(id);
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every document. */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            documentsById.clear();
+            idsByDocument = new int[16];
+            lengthsByDocument = new int[16];
+            deleted = new BitSet();
+            documentCount = 0;
+            deletedCount = 0;
+            liveTokenCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the best matches for a query.
+     *
+     * @param query words, each optionally prefixed with {@code +} (required) or {@code -}
+     *     (excluded)
+     * @param limit the maximum number of IDs to return
+     * @return the matching IDs, best first; ties go to the lower ID
+     */
+    public int[] search(String query, int limit) {
+        if (limit < 1) {
+            return NO_IDS;
+        }
+        Set<String> required = new LinkedHashSet<>();
+        Set<String> optional = new LinkedHashSet<>();
+        Set<String> excluded = new LinkedHashSet<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.startsWith("+")) {
+                required.addAll(tokenize(word.substring(1)));
+            } else if (word.startsWith("-")) {
+                excluded.addAll(tokenize(word.substring(1)));
+            } else {
+                optional.addAll(tokenize(word));
+            }
+        }
+        optional.removeAll(required);
+        if (required.isEmpty() && optional.isEmpty()) {
+            return NO_IDS;
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveCount = documentCount - deletedCount;
+            if (liveCount == 0) {
+                return NO_IDS;
+            }
+            for (String term : required) {
+                if (!postingsByTerm.containsKey(term)) {
+                    return NO_IDS;
+                }
+            }
+            float averageLength = Math.max(1f, (float) liveTokenCount / liveCount);
+            Candidates candidates = candidates(required, optional);
+            // Terms are scored in query order so equal documents get bit-identical scores
+            for (String term : required) {
+                accumulate(postingsByTerm.get(term), liveCount, averageLength, candidates, true);
+            }
+            for (String term : optional) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings != null) {
+                    accumulate(postings, liveCount, averageLength, candidates, false);
+                }
+            }
+            for (String term : excluded) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings != null) {
+                    candidates.rewind();
+                    postings.forEach((document, frequency) -> {
+                        int candidate = candidates.seek(document);
+                        if (candidate >= 0) {
+                            candidates.rejected.set(candidate);
+                        }
+                    });
+                }
+            }
+            return topIds(candidates, required.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether a document is indexed.
+     *
+     * @param id the caller's ID
+     * @return {@code true} if it is indexed
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return documentsById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of live documents */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of distinct terms, including terms only deleted documents use */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postingsByTerm.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "InvertedIndex{documents=" + (documentCount - deletedCount)
+                    + ", deleted=" + deletedCount
+                    + ", terms=" + postingsByTerm.size() + '}';
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the live documents a query can match. With required terms these are the
+     * postings of the rarest one, since a match must contain it; otherwise they are the union
+     * of the optional terms' postings. The caller holds the read lock.
+     */
+    private Candidates candidates(Set<String> required, Set<String> optional) {
+        if (!required.isEmpty()) {
+            Postings rarest = null;
+            for (String term : required) {
+                Postings postings = postingsByTerm.get(term);
+                if (rarest == null || postings.count < rarest.count) {
+                    rarest = postings;
+                }
+            }
+            return new Candidates(liveDocuments(rarest));
+        }
+        int[] documents = NO_IDS;
+        for (String term : optional) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                documents = union(documents, liveDocuments(postings));
+            }
+        }
+        return new Candidates(documents);
+    }
+
+    /** Returns the live documents of a posting list in ascending order. */
+    private int[] liveDocuments(Postings postings) {
+        int[] documents = new int[postings.count];
+        int[] size = new int[1];
+        postings.forEach((document, frequency) -> {
+            if (!deleted.get(document)) {
+                documents[size[0]++] = document;
+            }
+        });
+        return Arrays.copyOf(documents, size[0]);
+    }
+
+    /** Merges two ascending arrays of distinct documents. */
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                merged[size++] = a[i++];
+            } else if (a[i] > b[j]) {
+                merged[size++] = b[j++];
+            } else {
+                merged[size++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            merged[size++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[size++] = b[j++];
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /** Adds one term's BM25 contribution to every candidate containing it. */
+    private void accumulate(Postings postings, int liveCount, float averageLength,
+                            Candidates candidates, boolean required) {
+        int frequency = Math.min(postings.count, liveCount);
+        float idf = (float) Math.log(1 + (liveCount - frequency + 0.5) / (frequency + 0.5));
+        candidates.rewind();
+        postings.forEach((document, termFrequency) -> {
+            int candidate = candidates.seek(document);
+            if (candidate < 0) {
+                return;
+            }
+            float norm = K1 * (1 - B + B * lengthsByDocument[document] / averageLength);
+            candidates.scores[candidate] += idf * termFrequency * (K1 + 1) / (termFrequency + norm);
+            if (required) {
+                candidates.requiredHits[candidate]++;
+            }
+        });
+    }
+
+    /** Selects the best-scoring accepted candidates with a min-heap of size {@code limit}. */
+    private int[] topIds(Candidates candidates, int requiredCount, int limit) {
+        int[] documents = candidates.documents;
+        float[] scores = candidates.scores;
+        // The heap's head is the weakest hit kept: lowest score, then highest ID
+        int capacity = Math.min(limit, documents.length) + 1;
+        PriorityQueue<Integer> heap = new PriorityQueue<>(capacity, (candidate, other) -> {
+            int byScore = Float.compare(scores[candidate], scores[other]);
+            return byScore != 0
+                    ? byScore
+                    : Integer.compare(idsByDocument[documents[other]],
+                            idsByDocument[documents[candidate]]);
+        });
+        for (int candidate = 0; candidate < documents.length; candidate++) {
+            boolean accepted = requiredCount > 0
+                    ? candidates.requiredHits[candidate] == requiredCount
+                    : scores[candidate] > 0;
+            if (!accepted || candidates.rejected.get(candidate)) {
+                continue;
+            }
+            heap.add(candidate);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        int[] ids = new int[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = idsByDocument[documents[heap.poll()]];
+        }
+        return ids;
+    }
+
+    /** Marks a document deleted; the caller holds the write lock. */
+    private boolean removeDocument(int id) {
+        int document = documentsById.getOrDefault(id, -1);
+        if (document < 0) {
+            return false;
+        }
+        documentsById.remove(id);
+        deleted.set(document);
+        deletedCount++;
+        liveTokenCount -= lengthsByDocument[document];
+        return true;
+    }
+
+    /**
+     * Renumbers the live documents and drops deleted ones from the postings once they
+     * outnumber the live ones. The caller holds the write lock.
+     */
+    private void compactIfNeeded() {
+        int liveCount = documentCount - deletedCount;
+        if (deletedCount < Math.max(MIN_DELETED_BEFORE_COMPACTION, liveCount)) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int[] ids = new int[Math.max(16, liveCount)];
+        int[] lengths = new int[ids.length];
+        int next = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = next;
+                ids[next] = idsByDocument[document];
+                lengths[next] = lengthsByDocument[document];
+                documentsById.put(ids[next], next);
+                next++;
+            }
+        }
+        postingsByTerm.values().removeIf(postings -> {
+            Postings live = new Postings();
+            postings.forEach((document, frequency) -> {
+                if (renumbered[document] >= 0) {
+                    live.append(renumbered[document], frequency);
+                }
+            });
+            postings.replaceWith(live);
+            return postings.count == 0;
+        });
+        idsByDocument = ids;
+        lengthsByDocument = lengths;
+        deleted = new BitSet();
+        documentCount = next;
+        deletedCount = 0;
+    }
+
+    /**
+     * Documents a query can match, in ascending order, with their scores so far. Posting lists
+     * are read in ascending order too, so {@link #seek} finds a document by moving a cursor
+     * forward rather than by hashing.
+     */
+    private static final class Candidates {
+        final int[] documents;
+        final float[] scores;
+        final int[] requiredHits;
+        final BitSet rejected = new BitSet();
+        private int cursor;
+
+        Candidates(int[] documents) {
+            this.documents = documents;
+            this.scores = new float[documents.length];
+            this.requiredHits = new int[documents.length];
+        }
+
+        /** Moves the cursor back to the first candidate, before reading a posting list. */
+        void rewind() {
+            cursor = 0;
+        }
+
+        /**
+         * Returns the position of a document, or -1 if it is not a candidate. Documents must
+         * be passed in ascending order since the last {@link #rewind}.
+         */
+        int seek(int document) {
+            while (cursor < documents.length && documents[cursor] < document) {
+                cursor++;
+            }
+            return cursor < documents.length && documents[cursor] == document ? cursor : -1;
+        }
+    }
+
+    /** Receives the entries of a posting list. */
+    private interface PostingConsumer {
+        void accept(int document, int frequency);
+    }
+
+    /** Gap-encoded posting list of one term. */
+    private final class Postings {
+        /** Pairs of (gap to the previous document, term frequency). */
+        private int[] data = new int[4];
+        private int length;
+        private int lastDocument = -1;
+
+        /**
+         * Number of postings, for the inverse document frequency. Includes deleted documents
+         * until the next compaction, since a delete does not know which terms it touched.
+         */
+        private int count;
+
+        void append(int document, int frequency) {
+            if (length + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[length++] = document - lastDocument;
+            data[length++] = frequency;
+            lastDocument = document;
+            count++;
+        }
+
+        void forEach(PostingConsumer consumer) {
+            int document = -1;
+            for (int i = 0; i < length; i += 2) {
+                document += data[i];
+                consumer.accept(document, data[i + 1]);
+            }
+        }
+
+        void replaceWith(Postings other) {
+            data = Arrays.copyOf(other.data, other.length);
+            length = other.length;
+            lastDocument = other.lastDocument;
+            count = other.count;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.solid.srp.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection handle handed out by {@link PDO#borrowConnection()}.
+ *
+ * <p>The handle forwards every call to the underlying physical connection except
+ * {@link Connection#close()}, which runs a release action instead of closing the physical
+ * connection. This lets callers use try-with-resources regardless of whether the connection
+ * comes from a {@link ConnectionPool} or is the single shared connection.
+ *
+ * <p>When a {@link StatementCache} is attached, {@code prepareStatement(String)} and
+ * {@code prepareStatement(String, int)} are served from that cache.
+ *
+ * <p>Once closed, the handle rejects further use so a caller cannot keep working on a
+ * connection that has already been given to somebody else.
+ */
+final class ManagedConnection implements InvocationHandler {
+
+    /** The physical JDBC connection. */
+    private final Connection target;
+
+    /** Statement cache for the physical connection, or {@code null} if caching is off. */
+    private final StatementCache statementCache;
+
+    /** Action to run when the handle is closed (e.g. return to the pool). */
+    private final Runnable onClose;
+
+    /** Whether this handle has been closed; set once, so the release action runs only once. */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ManagedConnection(Connection target, StatementCache statementCache, Runnable onClose) {
+        this.target = target;
+        this.statementCache = statementCache;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Wraps a physical connection in a handle.
+     *
+     * @param target the physical connection
+     * @param statementCache cache for prepared statements, or {@code null} to disable caching
+     * @param onClose action to run the first time the handle is closed
+     * @return a connection handle backed by {@code target}
+     */
+    static Connection wrap(Connection target, StatementCache statementCache, Runnable onClose) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new ManagedConnection(target, statementCache, onClose));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+                return null;
+            case "isClosed":
+                return closed.get() || target.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ManagedConnection[" + target + (closed.get() ? ", closed]" : "]");
+            default:
+                break;
+        }
+        if (closed.get()) {
+            throw new SQLException("Connection handle has already been closed");
+        }
+        if (statementCache != null && method.getName().equals("prepareStatement")) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 1) {
+                return statementCache.prepare(target, (Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+            }
+            if (parameterTypes.length == 2 && parameterTypes[1] == int.class) {
+                return statementCache.prepare(target, (Connection) proxy, (String) args[0], (Integer) args[1]);
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
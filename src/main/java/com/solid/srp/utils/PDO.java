@@ -4,6 +4,9 @@ import com.solid.srp.Category;
 import com.solid.srp.bad.Course;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Database connection manager using H2 in-memory database.
@@ -14,9 +17,13 @@ import java.sql.*;
  *
  * <p><b>Key responsibilities:</b>
  * <ul>
- *   <li>Managing JDBC connections to H2 database</li>
+ *   <li>Managing JDBC connections to H2 database (single shared connection or a pool)</li>
  *   <li>Creating database tables on initialization</li>
  *   <li>Providing access to the database connection</li>
+ *   <li>Caching prepared statements per connection ({@link StatementCache})</li>
+ *   <li>Running work in explicit transactions ({@link #inTransaction(TransactionWork)}) and
+ *       actions once they commit ({@link #afterCommit(Runnable)}) or roll back ({@link
+ *       #afterRollback(Runnable)})</li>
  *   <li>Closing connections when done</li>
  * </ul>
  *
@@ -25,7 +32,20 @@ import java.sql.*;
  *   <li><b>Type:</b> H2 in-memory database (auto-deleted when JVM exits)</li>
  *   <li><b>Driver:</b> org.h2.Driver</li>
  *   <li><b>URL:</b> jdbc:h2:mem:test</li>
- *   <li><b>Tables created:</b> category (id, name), course (id, name, category_id FK, description)</li>
+ *   <li><b>Tables created:</b> category (id, name UNIQUE), course (id, name, category_id FK, description, version)</li>
+ *   <li><b>Sequences created:</b> category_seq, course_seq (default values of the id columns)</li>
+ *   <li><b>Indexes created:</b> {@link #INDEXES}</li>
+ * </ul>
+ *
+ * <p><b>Connection modes:</b>
+ * <ul>
+ *   <li><b>Single connection</b> ({@link #PDO()}): one shared connection, as used by the
+ *       examples. Concurrent callers take turns: a borrowed handle holds the connection until
+ *       it is closed, and a transaction holds it until it ends, so no other thread's work can
+ *       slip into a running transaction. Handles must be closed on the thread that borrowed
+ *       them.</li>
+ *   <li><b>Pooled</b> ({@link #PDO(int, int, long, long)}): a bounded {@link ConnectionPool};
+ *       each caller borrows its own connection through {@link #borrowConnection()}.</li>
  * </ul>
  *
  * <p><b>Usage in examples:</b>
@@ -51,9 +71,55 @@ public class PDO {
     /** Database password (empty for in-memory H2). */
     private static final String DB_PASSWORD = "";
 
-    /** Active database connection. */
+    /** Sequence that supplies category IDs. */
+    public static final String CATEGORY_SEQUENCE = "category_seq";
+
+    /** Sequence that supplies course IDs. */
+    public static final String COURSE_SEQUENCE = "course_seq";
+
+    /**
+     * Secondary indexes of the schema, created with the tables.
+     *
+     * <ul>
+     *   <li><b>idx_category_name:</b> unique category names; serves the upsert by name and
+     *       joins from the category side</li>
+     *   <li><b>idx_course_category:</b> {@code (category_id, id)}; serves category filters and
+     *       keyset pages within a category without a sort</li>
+     *   <li><b>idx_course_name:</b> lookups and sorting by course name</li>
+     * </ul>
+     */
+    public static final List<IndexDefinition> INDEXES = List.of(
+            new IndexDefinition("idx_category_name", "category", true, "name"),
+            new IndexDefinition("idx_course_category", "course", false, "category_id", "id"),
+            new IndexDefinition("idx_course_name", "course", false, "name"));
+
+    /** Number of prepared statements cached per connection by default. */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    /** Active database connection (single connection mode only). */
     private Connection connection;
 
+    /** Connection pool (pooled mode only). */
+    private ConnectionPool pool;
+
+    /**
+     * Held by the thread using the shared connection (single connection mode only), from
+     * borrowing a handle until closing it. Reentrant, so nested borrows on one thread work.
+     */
+    private final ReentrantLock sharedConnectionLock = new ReentrantLock();
+
+    /** Prepared statement cache shared by all connections handed out by this PDO. */
+    private final StatementCache statementCache;
+
+    /** Connection of the transaction running on the current thread, if any. */
+    private final ThreadLocal<Connection> currentTransaction = new ThreadLocal<>();
+
+    /** Actions to run once the current thread's transaction commits, in registration order. */
+    private final ThreadLocal<List<Runnable>> afterCommitActions = new ThreadLocal<>();
+
+    /** Actions to run if the current thread's transaction rolls back, in registration order. */
+    private final ThreadLocal<List<Runnable>> afterRollbackActions = new ThreadLocal<>();
+
     /**
      * Constructs a new PDO instance and initializes the database.
      *
@@ -67,10 +133,51 @@ public class PDO {
      * not throw exceptions (to match the example's error handling style).
      */
     public PDO() {
+        this.statementCache = new StatementCache(DEFAULT_STATEMENT_CACHE_SIZE);
         initializeConnection();
         createTables();
     }
 
+    /**
+     * Constructs a new PDO instance backed by a connection pool and initializes the database.
+     *
+     * <p>The pool keeps at least {@code minPoolSize} connections open, which also keeps the
+     * in-memory database alive while the PDO is in use.
+     *
+     * <p>Any errors during initialization are logged to stderr, like {@link #PDO()}.
+     *
+     * @param minPoolSize connections kept open even when idle (at least 1)
+     * @param maxPoolSize maximum connections borrowed at the same time
+     * @param borrowTimeoutMillis how long {@link #borrowConnection()} waits for a free connection
+     * @param idleTimeoutMillis how long a connection above the minimum may stay idle
+     * @throws IllegalArgumentException if the pool sizes or timeouts are out of range
+     */
+    public PDO(int minPoolSize, int maxPoolSize, long borrowTimeoutMillis, long idleTimeoutMillis) {
+        this(minPoolSize, maxPoolSize, borrowTimeoutMillis, idleTimeoutMillis, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new pooled PDO instance with a custom prepared statement cache size.
+     *
+     * @param minPoolSize connections kept open even when idle (at least 1)
+     * @param maxPoolSize maximum connections borrowed at the same time
+     * @param borrowTimeoutMillis how long {@link #borrowConnection()} waits for a free connection
+     * @param idleTimeoutMillis how long a connection above the minimum may stay idle
+     * @param statementCacheSize prepared statements cached per connection
+     * @throws IllegalArgumentException if the pool sizes, timeouts or cache size are out of range
+     * @see StatementCache
+     */
+    public PDO(
+            int minPoolSize,
+            int maxPoolSize,
+            long borrowTimeoutMillis,
+            long idleTimeoutMillis,
+            int statementCacheSize) {
+        this.statementCache = new StatementCache(statementCacheSize);
+        initializePool(minPoolSize, maxPoolSize, borrowTimeoutMillis, idleTimeoutMillis);
+        createTables();
+    }
+
     /**
      * Gets the active database connection.
      *
@@ -78,11 +185,252 @@ public class PDO {
      * this connection directly - use {@link #close()} instead.
      *
      * @return the JDBC connection to the H2 database
+     * @throws IllegalStateException in pooled mode; use {@link #borrowConnection()} instead
      */
     public Connection getConnection() {
+        if (pool != null) {
+            throw new IllegalStateException("PDO is pooled; use borrowConnection() instead");
+        }
         return connection;
     }
 
+    /**
+     * Borrows a connection for one unit of work.
+     *
+     * <p>Callers must close the returned connection when done, preferably with
+     * try-with-resources. In pooled mode closing returns it to the pool; in single connection
+     * mode the handle holds the shared connection exclusively, other threads wait until it is
+     * closed, and the shared connection itself stays open.
+     *
+     * <p>Inside {@link #inTransaction(TransactionWork)} this returns a handle to the
+     * transaction's connection, so code that borrows its own connection takes part in the
+     * surrounding transaction. Closing that handle does not end the transaction.
+     *
+     * @return a connection handle
+     * @throws SQLException if no connection could be obtained (e.g. the pool timed out)
+     */
+    public Connection borrowConnection() throws SQLException {
+        Connection transaction = currentTransaction.get();
+        if (transaction != null) {
+            return ManagedConnection.wrap(transaction, null, () -> { });
+        }
+        return borrowOwnConnection();
+    }
+
+    /**
+     * Borrows a connection from the pool or the shared connection, ignoring any running
+     * transaction. Private so the constructors can use it without calling an overridable
+     * method.
+     */
+    private Connection borrowOwnConnection() throws SQLException {
+        if (pool != null) {
+            return pool.borrow();
+        }
+        try {
+            sharedConnectionLock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the shared connection", e);
+        }
+        return ManagedConnection.wrap(connection, statementCache, sharedConnectionLock::unlock);
+    }
+
+    /**
+     * Runs work in a transaction and commits it.
+     *
+     * <p>The work runs on one connection with auto-commit disabled. If it completes, the
+     * transaction is committed; if it throws, the transaction is rolled back and the exception
+     * is rethrown. While the work runs, {@link #borrowConnection()} on the same thread returns
+     * the transaction's connection, so repository calls made by the work join the transaction.
+     *
+     * <p><b>Nesting:</b> Called inside another transaction on the same thread, the work runs
+     * under a savepoint of the outer transaction instead. If it throws, only its own changes
+     * are rolled back; the outer transaction decides whether the rest is committed.
+     *
+     * <p>In single connection mode the transaction holds the shared connection until it ends;
+     * other threads borrowing it wait instead of joining the transaction.
+     *
+     * <p>Actions registered with {@link #afterCommit(Runnable)} while the work runs are run
+     * after the commit, on this thread, once the connection has been released. Actions
+     * registered with {@link #afterRollback(Runnable)} are run after a rollback instead, on this
+     * thread, before the exception is rethrown.
+     *
+     * <p>The work must not call {@code commit}, {@code rollback} or {@code setAutoCommit} on
+     * the connection itself.
+     *
+     * @param work the work to run
+     * @param <T> the result type
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        Connection transaction = currentTransaction.get();
+        if (transaction != null) {
+            return inSavepoint(transaction, work);
+        }
+        T result;
+        List<Runnable> committedActions;
+        try (Connection connection = borrowConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            currentTransaction.set(connection);
+            afterCommitActions.set(new ArrayList<>());
+            afterRollbackActions.set(new ArrayList<>());
+            try {
+                result = work.run(ManagedConnection.wrap(connection, null, () -> { }));
+                connection.commit();
+                committedActions = afterCommitActions.get();
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                runAllReversed(afterRollbackActions.get());
+                throw e;
+            } finally {
+                currentTransaction.remove();
+                afterCommitActions.remove();
+                afterRollbackActions.remove();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        runAll(committedActions);
+        return result;
+    }
+
+    /**
+     * Runs an action once the current thread's transaction has committed.
+     *
+     * <p>Inside {@link #inTransaction(TransactionWork)} the action is queued and runs after the
+     * outermost transaction commits. It is dropped if that transaction rolls back, or if it was
+     * registered under a savepoint that rolls back. Outside a transaction the action runs at
+     * once, since every write has already been committed.
+     *
+     * <p>Use it to publish the effects of a write (cache invalidation, in-process indexes) only
+     * once other connections can see the write. An action that throws is logged and does not
+     * affect the transaction or the other actions.
+     *
+     * @param action the action to run
+     */
+    public void afterCommit(Runnable action) {
+        List<Runnable> actions = afterCommitActions.get();
+        if (actions != null) {
+            actions.add(action);
+        } else {
+            runAll(List.of(action));
+        }
+    }
+
+    /**
+     * Runs an action if the current thread's transaction rolls back.
+     *
+     * <p>Inside {@link #inTransaction(TransactionWork)} the action runs when the outermost
+     * transaction rolls back, or when the savepoint it was registered under rolls back. It is
+     * dropped once the outermost transaction commits. Outside a transaction it is ignored,
+     * since every write has already been committed.
+     *
+     * <p>Use it to undo the in-memory effects of a write (assigned IDs, bumped versions, clean
+     * flags) that a caller's transaction may still discard. Actions run in the reverse order of
+     * their registration, so several undos of one object restore its oldest state. An action
+     * that throws is logged and does not affect the other actions.
+     *
+     * @param action the action to run
+     */
+    public void afterRollback(Runnable action) {
+        List<Runnable> actions = afterRollbackActions.get();
+        if (actions != null) {
+            actions.add(action);
+        }
+    }
+
+    /** Runs after-commit actions, logging failures so one action can't skip the rest. */
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("After-commit action failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Runs after-rollback actions, newest first, logging failures like {@link #runAll}. */
+    private static void runAllReversed(List<Runnable> actions) {
+        for (int i = actions.size() - 1; i >= 0; i--) {
+            try {
+                actions.get(i).run();
+            } catch (RuntimeException e) {
+                System.err.println("After-rollback action failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns whether the current thread is inside {@link #inTransaction(TransactionWork)}.
+     *
+     * @return {@code true} if a transaction is running on this thread
+     */
+    public boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    /**
+     * Runs nested transactional work under a savepoint of the running transaction. If the
+     * savepoint is rolled back, the after-commit actions registered under it are dropped and
+     * the after-rollback actions registered under it are run.
+     */
+    private <T> T inSavepoint(Connection connection, TransactionWork<T> work) throws SQLException {
+        List<Runnable> actions = afterCommitActions.get();
+        int registered = actions.size();
+        List<Runnable> undoActions = afterRollbackActions.get();
+        int undoRegistered = undoActions.size();
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            T result = work.run(ManagedConnection.wrap(connection, null, () -> { }));
+            connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (SQLException | RuntimeException | Error e) {
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            actions.subList(registered, actions.size()).clear();
+            List<Runnable> undone = undoActions.subList(undoRegistered, undoActions.size());
+            runAllReversed(undone);
+            undone.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether this PDO hands out connections from a pool.
+     *
+     * @return {@code true} in pooled mode
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /**
+     * Gets the connection pool statistics.
+     *
+     * @return a statistics snapshot, or {@code null} in single connection mode
+     */
+    public ConnectionPool.Statistics getPoolStatistics() {
+        return pool != null ? pool.getStatistics() : null;
+    }
+
+    /**
+     * Gets the prepared statement cache statistics.
+     *
+     * @return a statistics snapshot covering every connection of this PDO
+     */
+    public StatementCache.Statistics getStatementCacheStatistics() {
+        return statementCache.getStatistics();
+    }
+
     /**
      * Initializes the JDBC connection to the H2 database.
      *
@@ -104,17 +452,45 @@ public class PDO {
         }
     }
 
+    /**
+     * Initializes the connection pool.
+     *
+     * <p>Errors are caught and logged to stderr, like {@link #initializeConnection()}.
+     */
+    private void initializePool(int minSize, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis) {
+        try {
+            Class.forName("org.h2.Driver");
+            this.pool = new ConnectionPool(
+                    DB_URL,
+                    DB_USER,
+                    DB_PASSWORD,
+                    minSize,
+                    maxSize,
+                    borrowTimeoutMillis,
+                    idleTimeoutMillis,
+                    statementCache);
+        } catch (ClassNotFoundException | SQLException e) {
+            System.err.println("Error creating connection pool: " + e.getMessage());
+        }
+    }
+
     /**
      * Creates the required database tables if they don't already exist.
      *
-     * <p>Creates two tables:
+     * <p>Creates two sequences, two tables and the secondary {@link #INDEXES}:
      * <ol>
-     *   <li><b>category:</b> id (AUTO_INCREMENT), name (VARCHAR 255)</li>
-     *   <li><b>course:</b> id (AUTO_INCREMENT), name (VARCHAR 255), category_id (FK to category),
-     *       description (VARCHAR 500)</li>
+     *   <li><b>category_seq, course_seq:</b> ID sequences, also used by {@link IdAllocator}</li>
+     *   <li><b>category:</b> id (from category_seq), name (VARCHAR 255, unique through
+     *       idx_category_name)</li>
+     *   <li><b>course:</b> id (from course_seq), name (VARCHAR 255), category_id (FK to category),
+     *       description (VARCHAR 500), version (BIGINT, starts at 0; see
+     *       {@link com.solid.srp.good.Course#getVersion()})</li>
      * </ol>
      *
-     * <p>Uses "CREATE TABLE IF NOT EXISTS" to allow safe re-initialization.
+     * <p>Uses "CREATE ... IF NOT EXISTS" to allow safe re-initialization.
+     *
+     * <p>IDs default to the next sequence value, so rows inserted without an ID and IDs reserved
+     * up front through an {@link IdAllocator} never collide.
      *
      * <p>The course table has a foreign key constraint linking category_id to the category table,
      * maintaining referential integrity.
@@ -123,13 +499,21 @@ public class PDO {
      */
     private void createTables() {
         try {
-            String categorySQL = "CREATE TABLE IF NOT EXISTS category (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL)";
-            String courseSQL = "CREATE TABLE IF NOT EXISTS course (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL, category_id INT, description VARCHAR(500), FOREIGN KEY (category_id) REFERENCES category(id))";
+            String categorySequenceSQL = "CREATE SEQUENCE IF NOT EXISTS " + CATEGORY_SEQUENCE;
+            String courseSequenceSQL = "CREATE SEQUENCE IF NOT EXISTS " + COURSE_SEQUENCE;
+            String categorySQL = "CREATE TABLE IF NOT EXISTS category (id INT DEFAULT NEXT VALUE FOR " + CATEGORY_SEQUENCE + " PRIMARY KEY, name VARCHAR(255) NOT NULL)";
+            String courseSQL = "CREATE TABLE IF NOT EXISTS course (id INT DEFAULT NEXT VALUE FOR " + COURSE_SEQUENCE + " PRIMARY KEY, name VARCHAR(255) NOT NULL, category_id INT, description VARCHAR(500), version BIGINT DEFAULT 0 NOT NULL, FOREIGN KEY (category_id) REFERENCES category(id))";
 
-            Statement statement = connection.createStatement();
-            statement.execute(categorySQL);
-            statement.execute(courseSQL);
-            statement.close();
+            try (Connection connection = borrowOwnConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(categorySequenceSQL);
+                statement.execute(courseSequenceSQL);
+                statement.execute(categorySQL);
+                statement.execute(courseSQL);
+                for (IndexDefinition index : INDEXES) {
+                    statement.execute(index.toSql());
+                }
+            }
         } catch (SQLException e) {
             System.err.println("Error creating tables: " + e.getMessage());
         }
@@ -142,8 +526,9 @@ public class PDO {
      * demonstrate the violation. In the good example, this functionality is encapsulated
      * in {@link com.solid.srp.good.CourseRepository}.
      *
-     * <p>The generated database ID is automatically assigned back to the category object
-     * using {@link Category#setId(int)}.
+     * <p>Category names are unique, so the row is upserted by name: a new name is inserted,
+     * and a name that already exists reuses its row. Either way the database ID is assigned back
+     * to the category object using {@link Category#setId(int)}.
      *
      * <p><b>Security:</b> Uses PreparedStatement to prevent SQL injection.
      *
@@ -151,16 +536,16 @@ public class PDO {
      * @throws SQLException if a database error occurs
      */
     public void saveCategory(Category category) throws SQLException {
-        String sql = "INSERT INTO category (name) VALUES (?)";
-        PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-        preparedStatement.setString(1, category.getName());
-        preparedStatement.executeUpdate();
+        String sql = "SELECT id FROM FINAL TABLE (MERGE INTO category (name) KEY (name) VALUES (?))";
+        try (Connection connection = borrowConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, category.getName());
 
-        ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            category.setId(generatedKeys.getInt(1));
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (resultSet.next()) {
+                category.setId(resultSet.getInt(1));
+            }
         }
-        preparedStatement.close();
     }
 
     /**
@@ -182,34 +567,59 @@ public class PDO {
      */
     public void saveCourse(Course course) throws SQLException {
         String sql = "INSERT INTO course (name, category_id, description) VALUES (?, ?, ?)";
-        PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-        preparedStatement.setString(1, course.getName());
-        preparedStatement.setInt(2, course.getCategory().getId());
-        preparedStatement.setString(3, course.getDescription());
-        preparedStatement.executeUpdate();
+        try (Connection connection = borrowConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            preparedStatement.setString(1, course.getName());
+            preparedStatement.setInt(2, course.getCategory().getId());
+            preparedStatement.setString(3, course.getDescription());
+            preparedStatement.executeUpdate();
 
-        ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            course.setId(generatedKeys.getInt(1));
+            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                course.setId(generatedKeys.getInt(1));
+            }
         }
-        preparedStatement.close();
     }
 
     /**
      * Closes the database connection.
      *
      * <p>Should be called when done with database operations. This method safely checks if
-     * the connection exists and is open before closing.
+     * the connection exists and is open before closing. In pooled mode the pool and all its
+     * idle connections are closed.
      *
      * <p>Any errors during closing are caught and logged to stderr (to match demo's error handling).
      */
     public void close() {
+        if (pool != null) {
+            pool.close();
+            return;
+        }
         try {
             if (connection != null && !connection.isClosed()) {
+                statementCache.discard(connection);
                 connection.close();
             }
         } catch (SQLException e) {
             System.err.println("Error closing connection: " + e.getMessage());
         }
     }
+
+    /**
+     * Work run inside a transaction by {@link #inTransaction(TransactionWork)}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+
+        /**
+         * Runs the work.
+         *
+         * @param connection the transaction's connection; closing it does not end the transaction
+         * @return the result of the work
+         * @throws SQLException if a database error occurs; the transaction is rolled back
+         */
+        T run(Connection connection) throws SQLException;
+    }
 }
@@ -0,0 +1,472 @@
+package com.solid.srp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable compact trie answering top-K prefix completions.
+ *
+ * <p>Every word start of every key is indexed, so "boot" completes "Spring Boot Masterclass".
+ * The suffixes are sorted once and the trie is built over them with path compression: each
+ * node covers a contiguous range of the sorted suffixes, and edges skip over characters that
+ * all keys below them share. Every node stores its best {@code maxResults} entries, computed
+ * bottom-up at build time, so a lookup walks at most one node per prefix character and then
+ * copies a precomputed list; its cost does not depend on how many keys match.
+ *
+ * <p><b>Ranking:</b> Entries are ranked by key length, then key, then ID, so the shortest,
+ * most exact completions come first. {@link #compareRank} exposes the same order for callers
+ * that merge results from elsewhere.
+ *
+ * <p>Keys are compared after {@link #normalize(String)}. Instances are immutable and safe to
+ * share between threads.
+ */
+public final class PrefixTrie {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final int maxResults;
+
+    /** IDs and normalized keys by rank (best first). */
+    private final int[] rankedIds;
+    private final String[] rankedKeys;
+
+    /** IDs in ascending order and the rank of each, for {@link #rankOf(int)}. */
+    private final int[] sortedIds;
+    private final int[] ranksBySortedId;
+
+    /** Sorted suffixes: the rank of their key and where in the key they start. */
+    private final int[] suffixRanks;
+    private final int[] suffixStarts;
+
+    /** Per node: number of leading characters shared by all suffixes below it. */
+    private final int[] nodeDepths;
+
+    /** Per node: first suffix below it (a representative for comparing edge characters). */
+    private final int[] nodeFirstSuffixes;
+
+    /** Per node: position of its children in {@link #children} and their count. */
+    private final int[] nodeChildStarts;
+    private final int[] nodeChildCounts;
+
+    /** Per node: position of its best ranks in {@link #topRanks} and their count. */
+    private final int[] nodeTopStarts;
+    private final int[] nodeTopCounts;
+
+    /** Child node indexes, grouped per parent and ordered by {@link #childLabels}. */
+    private final int[] children;
+    private final char[] childLabels;
+
+    /** Best ranks of every node, concatenated. */
+    private final int[] topRanks;
+
+    /**
+     * Builds a trie.
+     *
+     * @param ids the entry IDs
+     * @param keys the entry keys, parallel to {@code ids}; normalized by the trie
+     * @param maxResults the largest {@code k} that {@link #complete} will serve
+     * @throws IllegalArgumentException if the arrays differ in length or {@code maxResults} is
+     *     less than 1
+     */
+    public PrefixTrie(int[] ids, String[] keys, int maxResults) {
+        if (ids.length != keys.length) {
+            throw new IllegalArgumentException(
+                    "Got " + ids.length + " IDs but " + keys.length + " keys");
+        }
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("Result limit must be at least 1, got " + maxResults);
+        }
+        this.maxResults = maxResults;
+
+        int count = ids.length;
+        String[] normalized = new String[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            normalized[i] = normalize(keys[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareRank(normalized[a], ids[a], normalized[b], ids[b]));
+        rankedIds = new int[count];
+        rankedKeys = new String[count];
+        for (int rank = 0; rank < count; rank++) {
+            rankedIds[rank] = ids[order[rank]];
+            rankedKeys[rank] = normalized[order[rank]];
+        }
+
+        Integer[] byId = new Integer[count];
+        for (int rank = 0; rank < count; rank++) {
+            byId[rank] = rank;
+        }
+        Arrays.sort(byId, (a, b) -> Integer.compare(rankedIds[a], rankedIds[b]));
+        sortedIds = new int[count];
+        ranksBySortedId = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedIds[i] = rankedIds[byId[i]];
+            ranksBySortedId[i] = byId[i];
+        }
+
+        List<long[]> suffixes = new ArrayList<>();
+        for (int rank = 0; rank < count; rank++) {
+            String key = rankedKeys[rank];
+            for (int start = 0; start < key.length(); start++) {
+                if (isWordStart(key, start)) {
+                    suffixes.add(new long[] {rank, start});
+                }
+            }
+        }
+        suffixes.sort((a, b) -> compareSuffixes((int) a[0], (int) a[1], (int) b[0], (int) b[1]));
+        suffixRanks = new int[suffixes.size()];
+        suffixStarts = new int[suffixes.size()];
+        for (int i = 0; i < suffixes.size(); i++) {
+            suffixRanks[i] = (int) suffixes.get(i)[0];
+            suffixStarts[i] = (int) suffixes.get(i)[1];
+        }
+
+        Builder builder = new Builder();
+        builder.build(0, suffixRanks.length, 0);
+        nodeDepths = builder.depths.toArray();
+        nodeFirstSuffixes = builder.firstSuffixes.toArray();
+        nodeChildStarts = builder.childStarts.toArray();
+        nodeChildCounts = builder.childCounts.toArray();
+        nodeTopStarts = builder.topStarts.toArray();
+        nodeTopCounts = builder.topCounts.toArray();
+        children = builder.children.toArray();
+        childLabels = builder.childLabels.toString().toCharArray();
+        topRanks = builder.tops.toArray();
+    }
+
+    /**
+     * Normalizes a key or prefix: lower case, runs of whitespace collapsed to one space,
+     * leading whitespace removed.
+     *
+     * @param text the text to normalize
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized.append(' ');
+                    space = true;
+                }
+            } else {
+                normalized.append(c);
+                space = false;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Orders entries the way completions are ranked: shorter keys first, then by key, then by
+     * ID.
+     *
+     * @param key a normalized key
+     * @param id its ID
+     * @param otherKey another normalized key
+     * @param otherId its ID
+     * @return a negative number if the first entry ranks higher, positive if lower, 0 if equal
+     */
+    public static int compareRank(String key, int id, String otherKey, int otherId) {
+        int byLength = Integer.compare(key.length(), otherKey.length());
+        if (byLength != 0) {
+            return byLength;
+        }
+        int byKey = key.compareTo(otherKey);
+        return byKey != 0 ? byKey : Integer.compare(id, otherId);
+    }
+
+    /**
+     * Returns whether a word of a normalized key starts with a normalized prefix, i.e. whether
+     * the trie would complete the prefix to that key.
+     *
+     * @param key a normalized key
+     * @param prefix a normalized prefix
+     * @return {@code true} if the key matches
+     */
+    public static boolean matches(String key, String prefix) {
+        if (prefix.isEmpty()) {
+            return true;
+        }
+        for (int start = 0; start + prefix.length() <= key.length(); start++) {
+            if (isWordStart(key, start) && key.startsWith(prefix, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the best-ranked IDs whose key has a word starting with the prefix.
+     *
+     * @param prefix the prefix typed so far; normalized by the trie
+     * @param k the maximum number of results (capped at {@code maxResults})
+     * @return the matching IDs, best first
+     */
+    public int[] complete(String prefix, int k) {
+        int[] ranks = completeRanks(prefix, k);
+        int[] ids = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            ids[i] = rankedIds[ranks[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the ranks of the best matches for a prefix; see {@link #complete}.
+     *
+     * @param prefix the prefix typed so far; normalized by the trie
+     * @param k the maximum number of results (capped at {@code maxResults})
+     * @return the matching ranks, ascending
+     */
+    public int[] completeRanks(String prefix, int k) {
+        String normalized = normalize(prefix);
+        if (suffixRanks.length == 0 || k < 1) {
+            return NO_IDS;
+        }
+        int node = 0;
+        int matched = 0;
+        while (matched < normalized.length()) {
+            int depth = nodeDepths[node];
+            if (matched >= depth) {
+                node = child(node, normalized.charAt(matched));
+                if (node < 0) {
+                    return NO_IDS;
+                }
+                continue;
+            }
+            // Compare the compressed edge with a representative suffix below the node
+            int suffix = nodeFirstSuffixes[node];
+            int end = Math.min(depth, normalized.length());
+            String key = rankedKeys[suffixRanks[suffix]];
+            int start = suffixStarts[suffix];
+            if (!key.regionMatches(start + matched, normalized, matched, end - matched)) {
+                return NO_IDS;
+            }
+            matched = end;
+        }
+        int count = Math.min(Math.min(k, maxResults), nodeTopCounts[node]);
+        return Arrays.copyOfRange(topRanks, nodeTopStarts[node], nodeTopStarts[node] + count);
+    }
+
+    /**
+     * Returns the normalized key of an ID.
+     *
+     * @param id the ID
+     * @return the key, or {@code null} if the ID is not in the trie
+     */
+    public String keyOf(int id) {
+        int rank = rankOf(id);
+        return rank >= 0 ? rankedKeys[rank] : null;
+    }
+
+    /**
+     * Returns the rank of an ID.
+     *
+     * @param id the ID
+     * @return the rank, or -1 if the ID is not in the trie
+     */
+    public int rankOf(int id) {
+        int index = Arrays.binarySearch(sortedIds, id);
+        return index >= 0 ? ranksBySortedId[index] : -1;
+    }
+
+    /** @return the number of entries */
+    public int size() {
+        return rankedIds.length;
+    }
+
+    /** @return the largest {@code k} served by {@link #complete} */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Returns the ID of the entry with a given rank.
+     *
+     * @param rank the rank, from 0 (best) to {@code size() - 1}
+     * @return the ID
+     */
+    public int idAt(int rank) {
+        return rankedIds[rank];
+    }
+
+    /**
+     * Returns the normalized key of the entry with a given rank.
+     *
+     * @param rank the rank, from 0 (best) to {@code size() - 1}
+     * @return the key
+     */
+    public String keyAt(int rank) {
+        return rankedKeys[rank];
+    }
+
+    @Override
+    public String toString() {
+        return "PrefixTrie{entries=" + rankedIds.length
+                + ", suffixes=" + suffixRanks.length
+                + ", nodes=" + nodeDepths.length + '}';
+    }
+
+    private static boolean isWordStart(String key, int start) {
+        return key.charAt(start) != ' ' && (start == 0 || key.charAt(start - 1) == ' ');
+    }
+
+    /** Finds the child of a node whose edge starts with {@code label}, or -1. */
+    private int child(int node, char label) {
+        int low = nodeChildStarts[node];
+        int high = low + nodeChildCounts[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char candidate = childLabels[middle];
+            if (candidate < label) {
+                low = middle + 1;
+            } else if (candidate > label) {
+                high = middle - 1;
+            } else {
+                return children[middle];
+            }
+        }
+        return -1;
+    }
+
+    private int suffixLength(int suffix) {
+        return rankedKeys[suffixRanks[suffix]].length() - suffixStarts[suffix];
+    }
+
+    private char suffixChar(int suffix, int offset) {
+        return rankedKeys[suffixRanks[suffix]].charAt(suffixStarts[suffix] + offset);
+    }
+
+    private int compareSuffixes(int rank, int start, int otherRank, int otherStart) {
+        String key = rankedKeys[rank];
+        String otherKey = rankedKeys[otherRank];
+        int length = Math.min(key.length() - start, otherKey.length() - otherStart);
+        for (int i = 0; i < length; i++) {
+            int difference = key.charAt(start + i) - otherKey.charAt(otherStart + i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return Integer.compare(key.length() - start, otherKey.length() - otherStart);
+    }
+
+    /** Builds the node arrays recursively over the sorted suffixes. */
+    private final class Builder {
+        private final IntList depths = new IntList();
+        private final IntList firstSuffixes = new IntList();
+        private final IntList childStarts = new IntList();
+        private final IntList childCounts = new IntList();
+        private final IntList topStarts = new IntList();
+        private final IntList topCounts = new IntList();
+        private final IntList children = new IntList();
+        private final StringBuilder childLabels = new StringBuilder();
+        private final IntList tops = new IntList();
+
+        /**
+         * Builds the node for suffixes {@code [low, high)}, which share {@code depth} leading
+         * characters.
+         *
+         * @return the node index
+         */
+        int build(int low, int high, int depth) {
+            int node = depths.size();
+            depths.add(depth);
+            firstSuffixes.add(low);
+            childStarts.add(0);
+            childCounts.add(0);
+            topStarts.add(0);
+            topCounts.add(0);
+
+            // Suffixes that end here sort first; the rest are grouped by their next character
+            int index = low;
+            while (index < high && suffixLength(index) == depth) {
+                index++;
+            }
+            // Equal suffixes keep rank order (the sort is stable), so the first few are the best
+            IntList candidates = new IntList();
+            for (int i = low; i < index && i < low + maxResults; i++) {
+                candidates.add(suffixRanks[i]);
+            }
+            IntList nodeChildren = new IntList();
+            StringBuilder nodeLabels = new StringBuilder();
+            while (index < high) {
+                char label = suffixChar(index, depth);
+                int end = index + 1;
+                while (end < high && suffixChar(end, depth) == label) {
+                    end++;
+                }
+                int childDepth = depth + 1;
+                int limit = Math.min(suffixLength(index), suffixLength(end - 1));
+                while (childDepth < limit
+                        && suffixChar(index, childDepth) == suffixChar(end - 1, childDepth)) {
+                    childDepth++;
+                }
+                int child = build(index, end, childDepth);
+                nodeChildren.add(child);
+                nodeLabels.append(label);
+                for (int i = 0; i < topCounts.get(child); i++) {
+                    candidates.add(tops.get(topStarts.get(child) + i));
+                }
+                index = end;
+            }
+
+            childStarts.set(node, this.children.size());
+            childCounts.set(node, nodeChildren.size());
+            for (int i = 0; i < nodeChildren.size(); i++) {
+                this.children.add(nodeChildren.get(i));
+            }
+            childLabels.append(nodeLabels);
+
+            int[] best = candidates.toArray();
+            Arrays.sort(best);
+            topStarts.set(node, tops.size());
+            int kept = 0;
+            for (int i = 0; i < best.length && kept < maxResults; i++) {
+                if (i == 0 || best[i] != best[i - 1]) {
+                    tops.add(best[i]);
+                    kept++;
+                }
+            }
+            topCounts.set(node, kept);
+            return node;
+        }
+    }
+
+    /** Growable int array used while building. */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.solid.srp.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup check that the application's queries are served by indexes.
+ *
+ * <p>Each query is run through {@code EXPLAIN} (parameters stay unbound, so nothing is
+ * executed) and the plan is searched for H2's {@code tableScan} marker. A query that falls
+ * back to a full table scan is reported with a warning on stderr, so a missing or unusable
+ * index shows up when the application starts instead of when the table has grown large.
+ *
+ * @see IndexDefinition
+ * @see PDO#INDEXES
+ */
+public class QueryPlanChecker {
+
+    /** Marker H2 puts in a plan for a table read without an index. */
+    private static final String TABLE_SCAN_MARKER = ".tableScan";
+
+    private final PDO pdo;
+
+    /**
+     * Creates a checker.
+     *
+     * @param pdo the database whose plans are checked
+     */
+    public QueryPlanChecker(PDO pdo) {
+        this.pdo = pdo;
+    }
+
+    /**
+     * Explains each query and warns about those that scan a whole table.
+     *
+     * @param queries the SQL to check, keyed by a name used in the warnings
+     * @return the warnings, empty if every query uses an index
+     * @throws SQLException if a query cannot be explained
+     */
+    public List<String> check(Map<String, String> queries) throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        try (Connection connection = pdo.borrowConnection()) {
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                String plan = explain(connection, query.getValue());
+                if (plan.contains(TABLE_SCAN_MARKER)) {
+                    String warning = "Query '" + query.getKey() + "' scans a whole table: "
+                            + plan.replaceAll("\\s+", " ");
+                    System.err.println("WARNING: " + warning);
+                    warnings.add(warning);
+                }
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * Returns the plan of a query.
+     *
+     * @param connection the connection to use
+     * @param sql the query
+     * @return the plan as reported by {@code EXPLAIN}
+     * @throws SQLException if the query cannot be explained
+     */
+    private String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.solid.srp.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of prepared statements, kept per physical connection.
+ *
+ * <p>Connections handed out by {@link PDO#borrowConnection()} route
+ * {@link Connection#prepareStatement(String)} and
+ * {@link Connection#prepareStatement(String, int)} through this cache. Statements are keyed by
+ * SQL text and generated-keys flag and stay prepared for the life of the physical connection,
+ * so the database parses and plans each SQL string once per connection instead of once per
+ * call.
+ *
+ * <p>Callers keep using the usual prepare/close pattern: closing a cached statement only
+ * clears its parameters and makes it available to the next caller.
+ *
+ * <p><b>Cache behaviour:</b>
+ * <ul>
+ *   <li><b>LRU bound:</b> Each connection keeps at most {@code maxStatementsPerConnection}
+ *       statements; the least recently used one is closed when the bound is exceeded</li>
+ *   <li><b>In-use statements:</b> A statement that is still open elsewhere is never handed out
+ *       twice; the second caller gets a fresh, uncached statement</li>
+ *   <li><b>Statistics:</b> {@link #getStatistics()} reports hits, misses and evictions across
+ *       all connections</li>
+ * </ul>
+ */
+public class StatementCache {
+
+    /** Maximum cached statements per physical connection. */
+    private final int maxStatementsPerConnection;
+
+    /** Per-connection caches, removed with {@link #discard(Connection)}. */
+    private final ConcurrentHashMap<Connection, ConnectionCache> caches = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a statement cache.
+     *
+     * @param maxStatementsPerConnection maximum statements cached per physical connection
+     * @throws IllegalArgumentException if the bound is less than 1
+     */
+    public StatementCache(int maxStatementsPerConnection) {
+        if (maxStatementsPerConnection < 1) {
+            throw new IllegalArgumentException(
+                    "Statement cache size must be at least 1, got " + maxStatementsPerConnection);
+        }
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one when possible.
+     *
+     * @param physical the physical connection that owns the statement
+     * @param handle the connection handle the caller is using
+     * @param sql the SQL text
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or
+     *     {@link Statement#NO_GENERATED_KEYS}
+     * @return a statement whose {@code close()} returns it to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection physical, Connection handle, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        ConnectionCache cache = caches.computeIfAbsent(physical, ignored -> new ConnectionCache());
+        Key key = new Key(sql, autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS);
+
+        CachedStatement cached;
+        synchronized (cache) {
+            cached = cache.statements.get(key);
+            if (cached != null && cached.inUse) {
+                // Same SQL already open on this connection: don't share it
+                misses.increment();
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            if (cached != null) {
+                hits.increment();
+                cached.inUse = true;
+                return cached.open(handle);
+            }
+        }
+
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        cached = new CachedStatement(statement, cache);
+        cached.inUse = true;
+        synchronized (cache) {
+            if (!cache.statements.containsKey(key)) {
+                cache.statements.put(key, cached);
+                cache.evictOverflow();
+            } else {
+                cached.evicted = true;
+            }
+        }
+        return cached.open(handle);
+    }
+
+    /**
+     * Drops and closes every statement cached for a physical connection.
+     *
+     * <p>Must be called when the physical connection is closed for good.
+     *
+     * @param physical the physical connection being discarded
+     */
+    void discard(Connection physical) {
+        ConnectionCache cache = caches.remove(physical);
+        if (cache == null) {
+            return;
+        }
+        synchronized (cache) {
+            for (CachedStatement cached : cache.statements.values()) {
+                cached.evict();
+            }
+            cache.statements.clear();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return current cache statistics
+     */
+    public Statistics getStatistics() {
+        int size = 0;
+        for (ConnectionCache cache : caches.values()) {
+            synchronized (cache) {
+                size += cache.statements.size();
+            }
+        }
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /** Cache key: SQL text plus whether generated keys were requested. */
+    private static final class Key {
+        private final String sql;
+        private final boolean returnGeneratedKeys;
+
+        Key(String sql, boolean returnGeneratedKeys) {
+            this.sql = sql;
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return returnGeneratedKeys == key.returnGeneratedKeys && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, returnGeneratedKeys);
+        }
+    }
+
+    /** LRU map of the statements cached for one physical connection. */
+    private final class ConnectionCache {
+        private final LinkedHashMap<Key, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        /** Closes least recently used statements beyond the bound. Caller holds the lock. */
+        void evictOverflow() {
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > maxStatementsPerConnection && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                iterator.remove();
+                evictions.increment();
+                eldest.evict();
+            }
+        }
+    }
+
+    /** A physical statement living in the cache. State is guarded by the owning cache's lock. */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final Object lock;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement, Object lock) {
+            this.statement = statement;
+            this.lock = lock;
+        }
+
+        PreparedStatement open(Connection handle) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class},
+                    new Handle(this, handle));
+        }
+
+        /** Removes the statement from service, closing it now or when its user is done. */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        /** Called when a caller closes its handle. */
+        void release() throws SQLException {
+            boolean retired;
+            synchronized (lock) {
+                retired = evicted;
+            }
+            try {
+                if (!retired) {
+                    ResultSet resultSet = statement.getResultSet();
+                    if (resultSet != null) {
+                        resultSet.close();
+                    }
+                    statement.clearParameters();
+                    statement.clearBatch();
+                }
+            } finally {
+                synchronized (lock) {
+                    inUse = false;
+                    retired = evicted;
+                }
+                if (retired) {
+                    closeQuietly();
+                }
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Per-use view of a cached statement; closing it returns the statement to the cache. */
+    private static final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connection;
+        private boolean closed;
+
+        Handle(CachedStatement cached, Connection connection) {
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time statistics of a {@link StatementCache}.
+     */
+    public static final class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        Statistics(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        /** @return prepares served from the cache */
+        public long getHits() {
+            return hits;
+        }
+
+        /** @return prepares that had to create a new statement */
+        public long getMisses() {
+            return misses;
+        }
+
+        /** @return statements closed to respect the LRU bound */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /** @return statements currently cached across all connections */
+        public int getSize() {
+            return size;
+        }
+
+        /** @return fraction of prepares served from the cache, between 0 and 1 */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{"
+                    + "hits=" + hits
+                    + ", misses=" + misses
+                    + ", evictions=" + evictions
+                    + ", size=" + size
+                    + '}';
+        }
+    }
+}
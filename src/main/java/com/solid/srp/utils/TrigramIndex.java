@@ -0,0 +1,423 @@
+package com.solid.srp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory fuzzy matcher finding strings within a small edit distance of a query.
+ *
+ * <p>Every string is cut into overlapping three-character grams (padded at both ends), and
+ * each gram keeps a sorted {@code int[]} of the internal numbers of the strings containing
+ * it. A search runs in three steps:
+ * <ol>
+ *   <li><b>Counting:</b> the posting lists of the query's grams are read sequentially,
+ *       counting per string how many grams it shares with the query in one byte each.</li>
+ *   <li><b>Pruning:</b> one edit destroys at most three grams, so a string within edit
+ *       distance {@code d} of a query with {@code g} distinct grams shares at least
+ *       {@code g - 3d} of them. Strings below that count, and strings whose length differs by
+ *       more than {@code d}, are skipped.</li>
+ *   <li><b>Verification:</b> the survivors are compared with a Levenshtein distance limited
+ *       to a diagonal band of width {@code 2d + 1}, which stops as soon as {@code d} is
+ *       exceeded.</li>
+ * </ol>
+ * Short queries have too few grams to prune with; they fall back to checking every string of
+ * a suitable length.
+ *
+ * <p>Strings are compared after lower-casing and collapsing whitespace. Removing or replacing
+ * a string marks its old number deleted; posting lists are rewritten once as many numbers are
+ * deleted as are live.
+ *
+ * <p><b>Thread safety:</b> Searches share a read lock; writes take the write lock.
+ */
+public class TrigramIndex {
+
+    /** Deleted strings tolerated before compaction, regardless of the live count. */
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    /** Padding character; cannot occur in normalized text. */
+    private static final char PAD = '\u0000';
+
+    /** Posting lists by gram (three chars packed into a long). Guarded by {@link #lock}. */
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+
+    /** Internal number by caller's ID, for live strings. Guarded by {@link #lock}. */
+    private final IntIntMap documentsById = new IntIntMap();
+
+    /** Caller's ID and normalized string by internal number. Guarded by {@link #lock}. */
+    private int[] idsByDocument = new int[16];
+    private String[] textsByDocument = new String[16];
+
+    /** Internal numbers of deleted strings. Guarded by {@link #lock}. */
+    private BitSet deleted = new BitSet();
+
+    private int documentCount;
+    private int deletedCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Lower-cases text and collapses runs of whitespace to one space, trimming both ends.
+     *
+     * @param text the text; {@code null} is treated as empty
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Computes the edit distance between two strings, giving up beyond a limit.
+     *
+     * <p>Only cells within {@code maxDistance} of the diagonal are filled, so the cost is
+     * {@code O(maxDistance * length)}.
+     *
+     * @param a one string
+     * @param b the other string
+     * @param maxDistance the largest distance of interest
+     * @return the Levenshtein distance, or {@code maxDistance + 1} if it is larger
+     */
+    public static int boundedDistance(String a, String b, int maxDistance) {
+        int tooFar = maxDistance + 1;
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return tooFar;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j <= maxDistance ? j : tooFar;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(b.length(), i + maxDistance);
+            current[from - 1] = from == 1 && i <= maxDistance ? i : tooFar;
+            int rowMinimum = current[from - 1];
+            char ac = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (ac == b.charAt(j - 1) ? 0 : 1);
+                int deletion = previous[j] + 1;
+                int insertion = current[j - 1] + 1;
+                int cell = Math.min(Math.min(substitution, deletion), Math.min(insertion, tooFar));
+                current[j] = cell;
+                rowMinimum = Math.min(rowMinimum, cell);
+            }
+            if (to < b.length()) {
+                current[to + 1] = tooFar;
+            }
+            if (rowMinimum > maxDistance) {
+                return tooFar;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], tooFar);
+    }
+
+    /**
+     * Indexes a string, replacing any previous one with the same ID.
+     *
+     * @param id the caller's ID
+     * @param text the string
+     */
+    public void put(int id, String text) {
+        String normalized = normalize(text);
+        long[] grams = distinctGrams(normalized);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            int document = documentCount++;
+            if (document == idsByDocument.length) {
+                idsByDocument = Arrays.copyOf(idsByDocument, document * 2);
+                textsByDocument = Arrays.copyOf(textsByDocument, document * 2);
+            }
+            idsByDocument[document] = id;
+            textsByDocument[document] = normalized;
+            documentsById.put(id, document);
+            for (long gram : grams) {
+                postingsByGram.computeIfAbsent(gram, key -> new Postings()).append(document);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a string.
+     *
+     * @param id the caller's ID
+     * @return {@code true} if the string was indexed
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeDocument(id);
+            compactIfNeeded();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every string. */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByGram.clear();
+            documentsById.clear();
+            idsByDocument = new int[16];
+            textsByDocument = new String[16];
+            deleted = new BitSet();
+            documentCount = 0;
+            deletedCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the strings closest to a query.
+     *
+     * @param query the text to match
+     * @param maxDistance the largest edit distance accepted
+     * @param limit the maximum number of matches
+     * @return the matches, closest first; ties go to the string closest in length, then to
+     *     the lower ID
+     */
+    public List<Match> search(String query, int maxDistance, int limit) {
+        String normalized = normalize(query);
+        List<Match> matches = new ArrayList<>();
+        if (limit < 1 || maxDistance < 0 || normalized.isEmpty()) {
+            return matches;
+        }
+        long[] grams = distinctGrams(normalized);
+        int required = grams.length - 3 * maxDistance;
+
+        lock.readLock().lock();
+        try {
+            // Count the query grams each string shares, saturating at Byte.MAX_VALUE
+            byte[] shared = null;
+            int threshold = Math.min(required, Byte.MAX_VALUE);
+            if (required > 0) {
+                shared = new byte[documentCount];
+                for (long gram : grams) {
+                    Postings postings = postingsByGram.get(gram);
+                    if (postings == null) {
+                        continue;
+                    }
+                    int[] documents = postings.documents;
+                    for (int i = 0; i < postings.size; i++) {
+                        int document = documents[i];
+                        if (shared[document] < Byte.MAX_VALUE) {
+                            shared[document]++;
+                        }
+                    }
+                }
+            }
+            for (int document = 0; document < documentCount; document++) {
+                if (shared != null && shared[document] < threshold) {
+                    continue;
+                }
+                if (deleted.get(document)) {
+                    continue;
+                }
+                String text = textsByDocument[document];
+                int lengthDifference = Math.abs(text.length() - normalized.length());
+                if (lengthDifference > maxDistance) {
+                    continue;
+                }
+                int distance = boundedDistance(normalized, text, maxDistance);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(idsByDocument[document], text, distance, lengthDifference));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(null);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Finds the strings closest to a query, allowing one edit per four characters (at least
+     * one, at most three).
+     *
+     * @param query the text to match
+     * @param limit the maximum number of matches
+     * @return the matches, closest first
+     */
+    public List<Match> search(String query, int limit) {
+        int length = normalize(query).length();
+        return search(query, Math.max(1, Math.min(3, length / 4)), limit);
+    }
+
+    /**
+     * Returns whether a string is indexed under an ID.
+     *
+     * @param id the caller's ID
+     * @return {@code true} if it is indexed
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return documentsById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of live strings */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "TrigramIndex{strings=" + (documentCount - deletedCount)
+                    + ", deleted=" + deletedCount
+                    + ", grams=" + postingsByGram.size() + '}';
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The distinct padded grams of a normalized string. */
+    private static long[] distinctGrams(String normalized) {
+        String padded = "" + PAD + PAD + normalized + PAD + PAD;
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32)
+                    | ((long) padded.charAt(i + 1) << 16)
+                    | padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /** Marks a string deleted; the caller holds the write lock. */
+    private boolean removeDocument(int id) {
+        int document = documentsById.getOrDefault(id, -1);
+        if (document < 0) {
+            return false;
+        }
+        documentsById.remove(id);
+        deleted.set(document);
+        textsByDocument[document] = null;
+        deletedCount++;
+        return true;
+    }
+
+    /** Renumbers the live strings once deleted ones outnumber them; holds the write lock. */
+    private void compactIfNeeded() {
+        int liveCount = documentCount - deletedCount;
+        if (deletedCount < Math.max(MIN_DELETED_BEFORE_COMPACTION, liveCount)) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int[] ids = new int[Math.max(16, liveCount)];
+        String[] texts = new String[ids.length];
+        int next = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = next;
+                ids[next] = idsByDocument[document];
+                texts[next] = textsByDocument[document];
+                documentsById.put(ids[next], next);
+                next++;
+            }
+        }
+        postingsByGram.values().removeIf(postings -> {
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int document = renumbered[postings.documents[i]];
+                if (document >= 0) {
+                    postings.documents[kept++] = document;
+                }
+            }
+            postings.size = kept;
+            postings.documents = Arrays.copyOf(postings.documents, Math.max(kept, 1));
+            return kept == 0;
+        });
+        idsByDocument = ids;
+        textsByDocument = texts;
+        deleted = new BitSet();
+        documentCount = next;
+        deletedCount = 0;
+    }
+
+    /** One search result. */
+    public static final class Match implements Comparable<Match> {
+        private final int id;
+        private final String text;
+        private final int distance;
+        private final int lengthDifference;
+
+        Match(int id, String text, int distance, int lengthDifference) {
+            this.id = id;
+            this.text = text;
+            this.distance = distance;
+            this.lengthDifference = lengthDifference;
+        }
+
+        /** @return the caller's ID of the matched string */
+        public int getId() {
+            return id;
+        }
+
+        /** @return the matched string, normalized */
+        public String getText() {
+            return text;
+        }
+
+        /** @return the edit distance from the query */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (distance != other.distance) {
+                return Integer.compare(distance, other.distance);
+            }
+            if (lengthDifference != other.lengthDifference) {
+                return Integer.compare(lengthDifference, other.lengthDifference);
+            }
+            return Integer.compare(id, other.id);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{id=" + id + ", text='" + text + "', distance=" + distance + '}';
+        }
+    }
+
+    /** Ascending internal numbers of the strings containing one gram. */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+
+        void append(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.solid.srp.utils;
+
+import java.sql.SQLException;
+
+/**
+ * Unchecked wrapper for a {@link SQLException}.
+ *
+ * <p>Used where a checked exception cannot be thrown directly, such as inside lambdas or while
+ * a {@link java.util.stream.Stream} backed by a result set is being consumed.
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Wraps a SQL exception.
+     *
+     * @param cause the SQL exception to wrap
+     */
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Gets the wrapped SQL exception.
+     *
+     * @return the original SQL exception
+     */
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,122 @@
+package com.solid.srp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Append-only list of strings packed as UTF-8 into one {@code byte[]}.
+ *
+ * <p>A {@code String} costs an object header, a length, a hash and a separate backing array;
+ * a million short strings spread over the heap. The arena instead appends each string's UTF-8
+ * bytes to one array and remembers where each starts, so it costs the encoded bytes plus four
+ * bytes per string, and neighbouring strings sit next to each other in memory. Strings are
+ * decoded on each {@link #get(int)}.
+ *
+ * <p>{@code null} is stored as a flag, distinct from the empty string.
+ *
+ * <p>Not thread-safe while strings are being added; safe to read from any thread once
+ * published after the last {@link #add(String)}.
+ */
+public class Utf8Arena {
+
+    /** Encoded strings, back to back. */
+    private byte[] bytes;
+
+    /** Start of string {@code i} at {@code offsets[i]}, end at {@code offsets[i + 1]}. */
+    private int[] offsets;
+
+    /** Strings that are {@code null}. */
+    private final BitSet nulls = new BitSet();
+
+    private int size;
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param expectedStrings the number of strings to reserve room for
+     * @param expectedBytes the number of encoded bytes to reserve room for
+     */
+    public Utf8Arena(int expectedStrings, int expectedBytes) {
+        this.bytes = new byte[Math.max(16, expectedBytes)];
+        this.offsets = new int[Math.max(16, expectedStrings) + 1];
+    }
+
+    /**
+     * Appends a string.
+     *
+     * @param value the string, or {@code null}
+     * @return its index
+     */
+    public int add(String value) {
+        byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int start = offsets[size];
+        if (start + encoded.length > bytes.length) {
+            int capacity = Math.max(start + encoded.length, bytes.length * 2);
+            bytes = Arrays.copyOf(bytes, capacity);
+        }
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(encoded, 0, bytes, start, encoded.length);
+        if (value == null) {
+            nulls.set(size);
+        }
+        offsets[size + 1] = start + encoded.length;
+        return size++;
+    }
+
+    /**
+     * Decodes a string.
+     *
+     * @param index the string's index
+     * @return the string, or {@code null} if {@code null} was added
+     * @throws IndexOutOfBoundsException if the index is not below {@link #size()}
+     */
+    public String get(int index) {
+        checkIndex(index);
+        if (nulls.get(index)) {
+            return null;
+        }
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index],
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the encoded length of a string.
+     *
+     * @param index the string's index
+     * @return its length in UTF-8 bytes (0 for {@code null})
+     */
+    public int byteLength(int index) {
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /** @return the number of strings */
+    public int size() {
+        return size;
+    }
+
+    /** @return the bytes held by the arena's arrays */
+    public long sizeInBytes() {
+        return (long) bytes.length + 4L * offsets.length;
+    }
+
+    /** Releases the room reserved beyond the strings added so far. */
+    public void trimToSize() {
+        bytes = Arrays.copyOf(bytes, offsets[size]);
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Utf8Arena{strings=" + size + ", bytes=" + offsets[size] + '}';
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.solid.srp.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-width float vectors with exhaustive top-K cosine search.
+ *
+ * <p><b>Layout:</b> All vectors live in one {@code float[]}, one slot of {@code dimensions}
+ * floats after the other, so a search streams through memory instead of chasing one array per
+ * vector. Vectors are scaled to unit length when stored, which turns cosine similarity into a
+ * plain dot product. Slots freed by {@link #remove(int)} are reused by the next
+ * {@link #put(int, float[])}.
+ *
+ * <p><b>Scoring:</b> The dot product runs over eight independent partial sums. The JIT keeps
+ * them in registers and overlaps the additions instead of waiting on one running total, which
+ * is what an explicit SIMD version would also do.
+ *
+ * <p><b>Thread safety:</b> Searches share a read lock; writes take the write lock.
+ */
+public class VectorIndex {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final int dimensions;
+
+    /** Unit vectors by slot, {@code dimensions} floats each. Guarded by {@link #lock}. */
+    private float[] vectors;
+
+    /** Caller's ID by slot. Guarded by {@link #lock}. */
+    private int[] idsBySlot;
+
+    /** Slots holding a vector. Guarded by {@link #lock}. */
+    private final BitSet used = new BitSet();
+
+    /** Slot by caller's ID. Guarded by {@link #lock}. */
+    private final IntIntMap slotsById = new IntIntMap();
+
+    /** Slots handed out so far, used or free. Guarded by {@link #lock}. */
+    private int slotCount;
+
+    /** Slots freed by {@link #remove(int)}, reused last-freed first. Guarded by {@link #lock}. */
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param dimensions the length of every vector
+     * @throws IllegalArgumentException if {@code dimensions} is less than 1
+     */
+    public VectorIndex(int dimensions) {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("Dimensions must be at least 1, got " + dimensions);
+        }
+        this.dimensions = dimensions;
+        this.vectors = new float[16 * dimensions];
+        this.idsBySlot = new int[16];
+    }
+
+    /**
+     * Computes the dot product of two slices of float arrays.
+     *
+     * @param a the first array
+     * @param aOffset where the first slice starts
+     * @param b the second array
+     * @param bOffset where the second slice starts
+     * @param length the slice length
+     * @return the dot product
+     */
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        float s4 = 0;
+        float s5 = 0;
+        float s6 = 0;
+        float s7 = 0;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+            s4 += a[aOffset + i + 4] * b[bOffset + i + 4];
+            s5 += a[aOffset + i + 5] * b[bOffset + i + 5];
+            s6 += a[aOffset + i + 6] * b[bOffset + i + 6];
+            s7 += a[aOffset + i + 7] * b[bOffset + i + 7];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7));
+    }
+
+    /**
+     * Stores a vector, replacing any previous one with the same ID.
+     *
+     * @param id the caller's ID
+     * @param vector the vector; copied and scaled to unit length
+     * @throws IllegalArgumentException if the vector has the wrong length
+     */
+    public void put(int id, float[] vector) {
+        float[] unit = unit(vector);
+        lock.writeLock().lock();
+        try {
+            int slot = slotsById.getOrDefault(id, -1);
+            if (slot < 0) {
+                slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+                if (slot == idsBySlot.length) {
+                    idsBySlot = Arrays.copyOf(idsBySlot, slot * 2);
+                    vectors = Arrays.copyOf(vectors, slot * 2 * dimensions);
+                }
+                used.set(slot);
+                idsBySlot[slot] = id;
+                slotsById.put(id, slot);
+            }
+            System.arraycopy(unit, 0, vectors, slot * dimensions, dimensions);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a vector.
+     *
+     * @param id the caller's ID
+     * @return {@code true} if a vector was stored under the ID
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotsById.getOrDefault(id, -1);
+            if (slot < 0) {
+                return false;
+            }
+            slotsById.remove(id);
+            used.clear(slot);
+            Arrays.fill(vectors, slot * dimensions, (slot + 1) * dimensions, 0f);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every vector. */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            vectors = new float[16 * dimensions];
+            idsBySlot = new int[16];
+            used.clear();
+            slotsById.clear();
+            slotCount = 0;
+            freeSlots = new int[16];
+            freeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of a stored (unit) vector.
+     *
+     * @param id the caller's ID
+     * @return the vector, or {@code null} if none is stored under the ID
+     */
+    public float[] get(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotsById.getOrDefault(id, -1);
+            return slot < 0
+                    ? null
+                    : Arrays.copyOfRange(vectors, slot * dimensions, (slot + 1) * dimensions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the stored vectors most similar to a query.
+     *
+     * @param query the query vector; need not be unit length
+     * @param limit the maximum number of IDs to return
+     * @param excludedId an ID to leave out (typically the query's own), or any unused ID
+     * @return the IDs of vectors with a positive cosine similarity, most similar first; ties go
+     *     to the lower ID
+     * @throws IllegalArgumentException if the query has the wrong length
+     */
+    public int[] nearest(float[] query, int limit, int excludedId) {
+        float[] unit = unit(query);
+        if (limit < 1) {
+            return NO_IDS;
+        }
+        lock.readLock().lock();
+        try {
+            float[] scores = new float[slotCount];
+            // The heap's head is the weakest slot kept: lowest score, then highest ID
+            int capacity = Math.min(limit, slotCount) + 1;
+            PriorityQueue<Integer> heap = new PriorityQueue<>(capacity, (slot, other) -> {
+                int byScore = Float.compare(scores[slot], scores[other]);
+                return byScore != 0 ? byScore : Integer.compare(idsBySlot[other], idsBySlot[slot]);
+            });
+            for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+                if (idsBySlot[slot] == excludedId) {
+                    continue;
+                }
+                float score = dot(unit, 0, vectors, slot * dimensions, dimensions);
+                if (score <= 0) {
+                    continue;
+                }
+                scores[slot] = score;
+                if (heap.size() < limit) {
+                    heap.add(slot);
+                } else if (heap.comparator().compare(slot, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(slot);
+                }
+            }
+            int[] ids = new int[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = idsBySlot[heap.poll()];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the length of every vector */
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /** @return the number of stored vectors */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VectorIndex{dimensions=" + dimensions + ", vectors=" + size() + '}';
+    }
+
+    /** Copies a vector scaled to unit length; the zero vector stays zero. */
+    private float[] unit(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                    "Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        float norm = (float) Math.sqrt(dot(vector, 0, vector, 0, dimensions));
+        float[] unit = vector.clone();
+        if (norm > 0) {
+            for (int i = 0; i < unit.length; i++) {
+                unit[i] /= norm;
+            }
+        }
+        return unit;
+    }
+}
@@ -0,0 +1,73 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AsyncCourseRepository} over a pooled {@link PDO}.
+ */
+class AsyncCourseRepositoryTest {
+
+  private PDO pdo;
+
+  private AsyncCourseRepository repository;
+
+  @BeforeEach
+  void openDatabase() {
+    pdo = new PDO(1, 4, 5_000, 60_000);
+    repository = new AsyncCourseRepository(new CourseRepository(pdo), 4);
+  }
+
+  @AfterEach
+  void closeDatabase() {
+    repository.close();
+    pdo.close();
+  }
+
+  @Test
+  void concurrentCallsAllComplete() {
+    Category category = new Category("Programming");
+    repository.saveAsync(new Course("Seed", category, "Resolves the category")).join();
+    List<CompletableFuture<Course>> saves = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      saves.add(repository.saveAsync(new Course("Course " + i, category, "Description")));
+    }
+    int[] ids = saves.stream().map(CompletableFuture::join).mapToInt(Course::getId).toArray();
+
+    CourseLookup lookup = repository.findByIdsAsync(ids).join();
+    assertEquals(50, lookup.getCourses().size());
+    assertEquals("Course 7", repository.findByIdAsync(ids[7]).join().getName());
+    assertEquals(51, repository.pageAsync(null, 100).join().getCourses().size());
+    // Every call has given its connection back
+    assertEquals(0, pdo.getPoolStatistics().getActive());
+  }
+
+  @Test
+  void failuresCompleteTheFutureExceptionally() {
+    Course invalid = new Course(null, new Category("Programming"), "Name is NOT NULL");
+    CompletionException thrown =
+        assertThrows(CompletionException.class, () -> repository.saveAsync(invalid).join());
+    assertInstanceOf(SQLException.class, thrown.getCause());
+  }
+
+  @Test
+  void deleteAsyncRemovesTheCourse() {
+    Course course =
+        repository.saveAsync(new Course("Java", new Category("Programming"), "Basics")).join();
+    repository.deleteAsync(course.getId()).join();
+    assertNull(repository.findByIdAsync(course.getId()).join());
+  }
+}
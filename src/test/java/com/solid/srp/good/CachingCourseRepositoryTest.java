@@ -0,0 +1,91 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import com.solid.srp.utils.UncheckedSQLException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachingCourseRepository}: hits, and invalidation only once writes commit.
+ */
+class CachingCourseRepositoryTest {
+
+  private PDO pdo;
+
+  private CachingCourseRepository repository;
+
+  @BeforeEach
+  void openDatabase() {
+    pdo = new PDO(1, 4, 1_000, 60_000);
+    repository = new CachingCourseRepository(pdo, 100, 60_000);
+  }
+
+  @AfterEach
+  void closeDatabase() {
+    pdo.close();
+  }
+
+  @Test
+  void repeatedLookupsAreServedFromTheCache() throws SQLException {
+    Course course = saved("Java");
+    repository.findById(course.getId()).setName("Changed by the caller");
+    assertEquals("Java", repository.findById(course.getId()).getName());
+    assertEquals(1, repository.getCacheStatistics().getMisses());
+    assertEquals(1, repository.getCacheStatistics().getHits());
+  }
+
+  @Test
+  void updateInvalidatesOnlyOnceCommitted() throws SQLException {
+    Course course = saved("Java");
+    repository.findById(course.getId());
+
+    assertThrows(IllegalStateException.class, () -> pdo.inTransaction(connection -> {
+      Course changed = repository.findById(course.getId());
+      changed.setName("Kotlin");
+      repository.update(changed);
+      // Inside the transaction lookups bypass the cache and see the uncommitted write
+      assertEquals("Kotlin", repository.findById(course.getId()).getName());
+      throw new IllegalStateException("roll back");
+    }));
+    assertEquals("Java", repository.findById(course.getId()).getName());
+
+    Course changed = repository.findById(course.getId());
+    changed.setName("Kotlin");
+    pdo.inTransaction(connection -> {
+      repository.update(changed);
+      // Another thread still reads the committed row and caches it again before the commit
+      CompletableFuture<Course> reader = CompletableFuture.supplyAsync(() -> {
+        try {
+          return repository.findById(course.getId());
+        } catch (SQLException e) {
+          throw new UncheckedSQLException(e);
+        }
+      });
+      assertEquals("Java", reader.join().getName());
+      return null;
+    });
+    assertEquals("Kotlin", repository.findById(course.getId()).getName());
+  }
+
+  @Test
+  void deleteInvalidates() throws SQLException {
+    Course course = saved("Java");
+    repository.findById(course.getId());
+    repository.delete(course.getId());
+    assertNull(repository.findById(course.getId()));
+  }
+
+  private Course saved(String name) throws SQLException {
+    Course course = new Course(name, new Category("Programming"), "Basics");
+    repository.save(course);
+    return course;
+  }
+}
@@ -0,0 +1,122 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PrefixTrie;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CourseNameCompleter}, fed through its listener methods and checked against a
+ * scan of a {@link HashMap} of names.
+ */
+class CourseNameCompleterTest {
+
+  private static final String[] WORDS = {"java", "javascript", "spring", "boot", "go", "rust"};
+
+  private static final String[] PREFIXES = {"j", "java", "javas", "s", "spring b", "go", "x"};
+
+  private static final Category CATEGORY = new Category(1, "Programming");
+
+  @Test
+  void completionsMatchScanWhileCompactingInTheBackground() throws InterruptedException {
+    Random random = new Random(1);
+    CourseNameCompleter completer = new CourseNameCompleter(5, 8);
+    Map<Integer, String> names = new HashMap<>();
+    for (int step = 0; step < 3_000; step++) {
+      int id = random.nextInt(200);
+      if (random.nextInt(4) == 0) {
+        completer.onDeleted(id);
+        names.remove(id);
+      } else {
+        String name = randomName(random);
+        Course course = new Course(id, name, CATEGORY, null);
+        if (names.containsKey(id)) {
+          completer.onUpdated(course);
+        } else {
+          completer.onSaved(course);
+        }
+        names.put(id, name);
+      }
+      for (String prefix : PREFIXES) {
+        // Between compactions a lookup may come up short, but never out of order
+        int[] expected = expected(names, prefix, 5);
+        int[] found = completer.complete(prefix, 5);
+        assertArrayEquals(Arrays.copyOf(expected, found.length), found, prefix);
+      }
+    }
+    awaitEmptyOverlay(completer);
+    assertEquals(names.size(), completer.size());
+    for (String prefix : PREFIXES) {
+      assertArrayEquals(expected(names, prefix, 5), completer.complete(prefix, 5), prefix);
+    }
+  }
+
+  @Test
+  void fullOverlayIsCompactedWithoutACaller() throws InterruptedException {
+    CourseNameCompleter completer = new CourseNameCompleter(3, 4);
+    for (int id = 1; id <= 4; id++) {
+      completer.onSaved(new Course(id, "Spring " + id, CATEGORY, null));
+    }
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (completer.getPendingChangeCount() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(0, completer.getPendingChangeCount());
+    assertArrayEquals(new int[] {1, 2, 3}, completer.complete("spr", 3));
+  }
+
+  @Test
+  void unchangedNamesAreNotRecorded() {
+    CourseNameCompleter completer = new CourseNameCompleter();
+    completer.onSaved(new Course(1, "Spring Boot", CATEGORY, null));
+    completer.onUpdated(new Course(1, "  spring   BOOT", CATEGORY, null));
+    assertEquals(1, completer.getPendingChangeCount());
+    completer.compact();
+    completer.onUpdated(new Course(1, "Spring Boot", CATEGORY, null));
+    assertEquals(0, completer.getPendingChangeCount());
+    completer.onDeleted(2);
+    assertEquals(0, completer.getPendingChangeCount());
+    assertEquals(1, completer.size());
+  }
+
+  /** Compacts until the overlay is empty, waiting out a background compaction if one runs. */
+  private static void awaitEmptyOverlay(CourseNameCompleter completer)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (completer.getPendingChangeCount() > 0 && System.nanoTime() < deadline) {
+      completer.compact();
+      Thread.sleep(5);
+    }
+    assertTrue(completer.getPendingChangeCount() == 0, "overlay was never compacted");
+  }
+
+  private static int[] expected(Map<Integer, String> names, String prefix, int k) {
+    String normalized = PrefixTrie.normalize(prefix);
+    return names.entrySet().stream()
+        .filter(entry -> PrefixTrie.matches(PrefixTrie.normalize(entry.getValue()), normalized))
+        .sorted((a, b) -> PrefixTrie.compareRank(PrefixTrie.normalize(a.getValue()), a.getKey(),
+            PrefixTrie.normalize(b.getValue()), b.getKey()))
+        .limit(k)
+        .mapToInt(Map.Entry::getKey)
+        .toArray();
+  }
+
+  private static String randomName(Random random) {
+    StringBuilder name = new StringBuilder();
+    int words = 1 + random.nextInt(3);
+    for (int w = 0; w < words; w++) {
+      if (w > 0) {
+        name.append(' ');
+      }
+      name.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return name.toString();
+  }
+}
@@ -0,0 +1,493 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.IdAllocator;
+import com.solid.srp.utils.PDO;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.h2.engine.Session;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CourseRepository} against the in-memory H2 database of {@link PDO}.
+ */
+class CourseRepositoryTest {
+
+  private PDO pdo;
+
+  private CourseRepository repository;
+
+  @BeforeEach
+  void openDatabase() {
+    pdo = new PDO(1, 4, 1_000, 60_000);
+    repository = new CourseRepository(pdo);
+  }
+
+  @AfterEach
+  void closeDatabase() {
+    // Closing the last connection drops the in-memory database, so every test starts empty
+    pdo.close();
+  }
+
+  @Test
+  void saveAllAssignsIdsAcrossBatches() throws SQLException {
+    Category category = new Category("Programming");
+    List<Course> courses = courses(category, 7);
+    repository.saveAll(courses, 3);
+
+    Set<Integer> ids = new HashSet<>();
+    for (Course course : courses) {
+      assertTrue(course.getId() > 0);
+      assertEquals(0, course.getVersion());
+      assertFalse(course.isDirty());
+      ids.add(course.getId());
+      assertEquals(course.getName(), repository.findById(course.getId()).getName());
+    }
+    assertEquals(7, ids.size());
+    assertTrue(category.getId() > 0);
+    assertEquals(7, countRows("course"));
+  }
+
+  @Test
+  void saveAllKeepsBatchesCommittedBeforeAFailure() throws SQLException {
+    Category category = new Category("Programming");
+    List<Course> courses = courses(category, 3);
+    // The name column is NOT NULL, so the second batch fails
+    courses.add(new Course(null, category, "Invalid"));
+    assertThrows(SQLException.class, () -> repository.saveAll(courses, 2));
+
+    assertTrue(courses.get(0).getId() > 0);
+    assertTrue(courses.get(1).getId() > 0);
+    assertEquals(0, courses.get(2).getId());
+    assertEquals(0, courses.get(3).getId());
+    assertEquals(2, countRows("course"));
+  }
+
+  @Test
+  void saveAllRejectsInvalidBatchSize() {
+    List<Course> courses = courses(new Category("Programming"), 1);
+    assertThrows(IllegalArgumentException.class, () -> repository.saveAll(courses, 0));
+  }
+
+  @Test
+  void findByIdReturnsNullForUnknownId() throws SQLException {
+    assertNull(repository.findById(42));
+  }
+
+  @Test
+  void repeatedQueriesReuseCachedStatements() throws SQLException {
+    Course course = new Course("Java", new Category("Programming"), "Basics");
+    repository.save(course);
+    repository.findById(course.getId());
+    long hits = pdo.getStatementCacheStatistics().getHits();
+    for (int i = 0; i < 5; i++) {
+      repository.findById(course.getId());
+    }
+    assertEquals(hits + 5, pdo.getStatementCacheStatistics().getHits());
+  }
+
+  @Test
+  void categoriesWithTheSameNameShareOneRow() throws SQLException {
+    Course first = new Course("Java", new Category("Programming"), "Basics");
+    Course second = new Course("Go", new Category("Programming"), "Basics");
+    repository.save(first);
+    repository.saveAll(List.of(second));
+
+    assertEquals(first.getCategory().getId(), second.getCategory().getId());
+    assertEquals(first.getCategory().getId(),
+        repository.getCategoryResolver().cachedId("Programming"));
+    assertEquals(1, countRows("category"));
+  }
+
+  @Test
+  void findByIdsKeepsRequestOrderAcrossChunks() throws SQLException {
+    List<Course> courses = courses(new Category("Programming"), 150);
+    repository.saveAll(courses);
+    int missing = courses.get(149).getId() + 1;
+    // More IDs than one IN list binds, in descending order, with a duplicate and a missing ID
+    int[] ids = new int[152];
+    for (int i = 0; i < 150; i++) {
+      ids[i] = courses.get(149 - i).getId();
+    }
+    ids[150] = missing;
+    ids[151] = courses.get(0).getId();
+
+    CourseLookup lookup = repository.findByIds(ids);
+    assertFalse(lookup.isComplete());
+    assertArrayEquals(new int[] {missing}, lookup.getMissingIds());
+    assertEquals(151, lookup.getCourses().size());
+    for (int i = 0; i < 150; i++) {
+      assertEquals(ids[i], lookup.getCourses().get(i).getId());
+    }
+    assertEquals(ids[151], lookup.getCourses().get(150).getId());
+    assertTrue(repository.findByIds(new int[0]).isComplete());
+  }
+
+  @Test
+  void streamAllReturnsEveryCourseInIdOrder() throws SQLException {
+    List<Course> courses = courses(new Category("Programming"), 25);
+    repository.saveAll(courses);
+    try (Stream<Course> stream = repository.streamAll(4)) {
+      assertArrayEquals(
+          courses.stream().mapToInt(Course::getId).toArray(),
+          stream.mapToInt(Course::getId).toArray());
+    }
+  }
+
+  @Test
+  void closingAStreamReleasesItsConnection() throws SQLException {
+    repository.saveAll(courses(new Category("Programming"), 10));
+    Stream<Course> stream = repository.streamAll(2);
+    assertTrue(stream.iterator().hasNext());
+    assertEquals(1, pdo.getPoolStatistics().getActive());
+    stream.close();
+    assertEquals(0, pdo.getPoolStatistics().getActive());
+
+    // A fully consumed stream gives its connection back even before it is closed
+    try (Stream<Course> consumed = repository.streamAll(3)) {
+      assertEquals(10, consumed.count());
+      assertEquals(0, pdo.getPoolStatistics().getActive());
+    }
+  }
+
+  @Test
+  void streamInsideATransactionKeepsTheCallersLazySetting() throws SQLException {
+    pdo.inTransaction(connection -> {
+      Course course = new Course("Java", new Category("Programming"), "Basics");
+      repository.save(course);
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("SET LAZY_QUERY_EXECUTION TRUE");
+      }
+      try (Stream<Course> stream = repository.streamByCategory(course.getCategory().getId())) {
+        assertEquals(1, stream.count());
+      }
+      assertTrue(isLazy(connection));
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("SET LAZY_QUERY_EXECUTION FALSE");
+      }
+      try (Stream<Course> stream = repository.streamAll()) {
+        assertEquals(1, stream.count());
+      }
+      assertFalse(isLazy(connection));
+      return null;
+    });
+  }
+
+  @Test
+  void pageTokensWalkEveryCourseOnce() throws SQLException {
+    Category java = new Category("Java");
+    Category go = new Category("Go");
+    List<Course> courses = new ArrayList<>();
+    for (int i = 0; i < 23; i++) {
+      courses.add(new Course("Course " + i, i % 3 == 0 ? go : java, "Description " + i));
+    }
+    repository.saveAll(courses);
+
+    List<Integer> all = new ArrayList<>();
+    CoursePage page = repository.page(null, 5);
+    all.addAll(ids(page));
+    while (page.hasMore()) {
+      page = repository.page(page.getContinuationToken(), 5);
+      all.addAll(ids(page));
+    }
+    assertEquals(courses.stream().map(Course::getId).toList(), all);
+
+    List<Integer> inGo = new ArrayList<>();
+    page = repository.pageByCategory(go.getId(), 0, 3);
+    inGo.addAll(ids(page));
+    while (page.hasMore()) {
+      page = repository.page(page.getContinuationToken(), 3);
+      inGo.addAll(ids(page));
+    }
+    List<Integer> expected = courses.stream()
+        .filter(course -> course.getCategory() == go)
+        .map(Course::getId)
+        .toList();
+    assertEquals(expected, inGo);
+  }
+
+  @Test
+  void pageWithTheLargestLimitReturnsEverything() throws SQLException {
+    repository.saveAll(courses(new Category("Programming"), 4));
+    CoursePage page = repository.page(0, Integer.MAX_VALUE);
+    assertEquals(4, page.getCourses().size());
+    assertFalse(page.hasMore());
+  }
+
+  @Test
+  void pageRejectsBadArguments() {
+    assertThrows(IllegalArgumentException.class, () -> repository.page(0, 0));
+    assertThrows(IllegalArgumentException.class, () -> repository.page("nonsense", 5));
+    assertThrows(IllegalArgumentException.class, () -> repository.page(
+        CoursePage.categoryToken(1, 2) + ":3", 5));
+  }
+
+  @Test
+  void allocatedIdsNeverCollideWithGeneratedKeys() throws SQLException {
+    IdAllocator courseIds = new IdAllocator(pdo, PDO.COURSE_SEQUENCE, 10);
+    CourseRepository allocating =
+        new CourseRepository(pdo, repository.getCategoryResolver(), courseIds);
+    Category category = new Category("Programming");
+    List<Course> allocated = courses(category, 12);
+    allocating.saveAll(allocated, 5);
+    Course single = new Course("Single", category, "Allocated");
+    allocating.save(single);
+    List<Course> generated = courses(category, 3);
+    repository.saveAll(generated);
+
+    Set<Integer> ids = new HashSet<>();
+    for (Course course : allocated) {
+      ids.add(course.getId());
+      assertEquals(0, course.getVersion());
+    }
+    ids.add(single.getId());
+    generated.forEach(course -> ids.add(course.getId()));
+    assertEquals(16, ids.size());
+    assertEquals(16, countRows("course"));
+    assertEquals("Single", repository.findById(single.getId()).getName());
+  }
+
+  @Test
+  void updateWritesOnlyChangedColumns() throws SQLException {
+    Course course = new Course("Java", new Category("Programming"), "Basics");
+    repository.save(course);
+    Course unversioned =
+        new Course(course.getId(), "Java", course.getCategory(), "Basics");
+    unversioned.markClean();
+    execute("UPDATE course SET name = 'Renamed elsewhere' WHERE id = " + course.getId());
+
+    unversioned.setDescription("Advanced");
+    assertEquals(EnumSet.of(Course.Field.DESCRIPTION), unversioned.getDirtyFields());
+    repository.update(unversioned);
+    assertFalse(unversioned.isDirty());
+    Course written = repository.findById(course.getId());
+    assertEquals("Renamed elsewhere", written.getName());
+    assertEquals("Advanced", written.getDescription());
+
+    // A clean course is not written at all, so its version stays put
+    repository.update(written);
+    assertEquals(written.getVersion(), repository.findById(course.getId()).getVersion());
+  }
+
+  @Test
+  void staleUpdateIsRejected() throws SQLException {
+    Course saved = new Course("Java", new Category("Programming"), "Basics");
+    repository.save(saved);
+    Course first = repository.findById(saved.getId());
+    Course second = repository.findById(saved.getId());
+
+    first.setName("Kotlin");
+    repository.update(first);
+    assertEquals(1, first.getVersion());
+    second.setName("Scala");
+    OptimisticLockException conflict =
+        assertThrows(OptimisticLockException.class, () -> repository.update(second));
+    assertArrayEquals(new int[] {saved.getId()}, conflict.getCourseIds());
+    assertTrue(second.isDirty());
+    assertEquals(0, second.getVersion());
+    assertEquals("Kotlin", repository.findById(saved.getId()).getName());
+
+    repository.delete(saved.getId());
+    first.setName("Deleted meanwhile");
+    assertThrows(OptimisticLockException.class, () -> repository.update(first));
+  }
+
+  @Test
+  void updateAllRollsBackABatchWithConflicts() throws SQLException {
+    List<Course> saved = courses(new Category("Programming"), 4);
+    repository.saveAll(saved);
+    Course stale = repository.findById(saved.get(1).getId());
+    Course newer = repository.findById(saved.get(1).getId());
+    newer.setName("Changed elsewhere");
+    repository.update(newer);
+
+    List<Course> loaded = new ArrayList<>();
+    for (Course course : saved) {
+      Course copy = course.getId() == stale.getId() ? stale : repository.findById(course.getId());
+      copy.setDescription("Updated");
+      loaded.add(copy);
+    }
+    OptimisticLockException conflict =
+        assertThrows(OptimisticLockException.class, () -> repository.updateAll(loaded, 2));
+    assertArrayEquals(new int[] {stale.getId()}, conflict.getCourseIds());
+    // The first batch held the conflict and was rolled back; the second was never sent
+    for (Course course : saved) {
+      assertEquals(course.getDescription(), repository.findById(course.getId()).getDescription());
+    }
+    assertTrue(loaded.get(0).isDirty());
+  }
+
+  @Test
+  void rolledBackTransactionUndoesWritesAndTheirInMemoryEffects() throws SQLException {
+    Course existing = new Course("Java", new Category("Programming"), "Basics");
+    repository.save(existing);
+    Course loaded = repository.findById(existing.getId());
+    Category newCategory = new Category("Systems");
+    Course single = new Course("Rust", newCategory, "Basics");
+    List<Course> batch = courses(newCategory, 3);
+
+    assertThrows(IllegalStateException.class, () -> pdo.inTransaction(connection -> {
+      repository.save(single);
+      repository.saveAll(batch, 2);
+      loaded.setName("Kotlin");
+      repository.update(loaded);
+      throw new IllegalStateException("roll back");
+    }));
+
+    assertEquals(1, countRows("course"));
+    assertEquals("Java", repository.findById(existing.getId()).getName());
+    assertEquals(0, newCategory.getId());
+    for (Course course : List.of(single, batch.get(0), batch.get(1), batch.get(2))) {
+      assertEquals(0, course.getId());
+      assertEquals(Course.UNVERSIONED, course.getVersion());
+      assertEquals(EnumSet.allOf(Course.Field.class), course.getDirtyFields());
+    }
+    assertEquals(EnumSet.of(Course.Field.NAME), loaded.getDirtyFields());
+    assertEquals(0, loaded.getVersion());
+
+    // Undone courses can be written again
+    repository.save(single);
+    repository.update(loaded);
+    assertEquals("Kotlin", repository.findById(existing.getId()).getName());
+    assertEquals(2, countRows("course"));
+  }
+
+  @Test
+  void failedNestedTransactionRollsBackOnlyItsSavepoint() throws SQLException {
+    Category category = new Category("Programming");
+    Course outer = new Course("Java", category, "Basics");
+    Course inner = new Course("Go", category, "Basics");
+    List<String> events = new ArrayList<>();
+
+    pdo.inTransaction(connection -> {
+      repository.save(outer);
+      pdo.afterCommit(() -> events.add("outer committed"));
+      assertThrows(IllegalStateException.class, () -> pdo.inTransaction(nested -> {
+        repository.save(inner);
+        pdo.afterCommit(() -> events.add("inner committed"));
+        pdo.afterRollback(() -> events.add("inner rolled back"));
+        throw new IllegalStateException("roll back the savepoint");
+      }));
+      assertEquals(List.of("inner rolled back"), events);
+      return null;
+    });
+
+    assertEquals(List.of("inner rolled back", "outer committed"), events);
+    assertTrue(outer.getId() > 0);
+    assertEquals(0, inner.getId());
+    assertEquals(1, countRows("course"));
+  }
+
+  @Test
+  void listenersHearOnlyCommittedWrites() throws SQLException {
+    List<String> events = new ArrayList<>();
+    repository.addListener(new CourseRepositoryListener() {
+      @Override
+      public void onSaved(Course course) {
+        events.add("saved " + course.getName());
+      }
+    });
+    assertThrows(IllegalStateException.class, () -> pdo.inTransaction(connection -> {
+      repository.save(new Course("Rolled back", new Category("Programming"), "Basics"));
+      throw new IllegalStateException("roll back");
+    }));
+    pdo.inTransaction(connection -> {
+      repository.save(new Course("Committed", new Category("Programming"), "Basics"));
+      assertTrue(events.isEmpty());
+      return null;
+    });
+    assertEquals(List.of("saved Committed"), events);
+  }
+
+  @Test
+  void everyRepositoryQueryUsesAnIndex() throws SQLException {
+    assertEquals(List.of(), repository.checkQueryPlans());
+  }
+
+  @Test
+  void categoryIndexFollowsCommittedWrites() throws SQLException {
+    Category java = new Category("Java");
+    Category go = new Category("Go");
+    List<Course> javaCourses = courses(java, 3);
+    repository.saveAll(javaCourses);
+    Course moved = javaCourses.get(1);
+    CategoryCourseIndex index = repository.enableCategoryIndex();
+    assertEquals(3, repository.countByCategory(java.getId()));
+
+    Course goCourse = new Course("Go", go, "Basics");
+    repository.save(goCourse);
+    Course loaded = repository.findById(moved.getId());
+    loaded.setCategory(go);
+    repository.update(loaded);
+    repository.delete(javaCourses.get(0).getId());
+    assertThrows(IllegalStateException.class, () -> pdo.inTransaction(connection -> {
+      repository.save(new Course("Rolled back", go, "Basics"));
+      throw new IllegalStateException("roll back");
+    }));
+
+    assertArrayEquals(new int[] {javaCourses.get(2).getId()},
+        repository.findIdsByCategory(java.getId()));
+    assertArrayEquals(new int[] {moved.getId(), goCourse.getId()},
+        repository.findIdsByCategory(go.getId()));
+    assertEquals(List.of("Course 1", "Go"),
+        repository.findByCategory(go.getId()).stream().map(Course::getName).toList());
+    assertEquals(3, index.size());
+    assertEquals(0, repository.countByCategory(999));
+  }
+
+  /** Builds {@code count} unsaved courses named "Course 0", "Course 1", ... */
+  private static List<Course> courses(Category category, int count) {
+    List<Course> courses = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      courses.add(new Course("Course " + i, category, "Description " + i));
+    }
+    return courses;
+  }
+
+  private static List<Integer> ids(CoursePage page) {
+    return page.getCourses().stream().map(Course::getId).toList();
+  }
+
+  /** Tells whether the H2 session behind a connection runs queries lazily. */
+  private static boolean isLazy(Connection connection) throws SQLException {
+    Session session = connection.unwrap(JdbcConnection.class).getSession();
+    return ((SessionLocal) session).isLazyQueryExecution();
+  }
+
+  /** Runs a statement, bypassing the repository. */
+  private void execute(String sql) throws SQLException {
+    try (Connection connection = pdo.borrowConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  /** Counts the rows of a table, bypassing the repository. */
+  private int countRows(String table) throws SQLException {
+    try (Connection connection = pdo.borrowConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+}
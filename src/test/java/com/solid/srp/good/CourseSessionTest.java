@@ -0,0 +1,136 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CourseSession}: the identity map, the batched flush and how a flush is
+ * undone when a surrounding transaction rolls back.
+ */
+class CourseSessionTest {
+
+  private PDO pdo;
+
+  private CourseRepository repository;
+
+  @BeforeEach
+  void openDatabase() {
+    pdo = new PDO(1, 4, 1_000, 60_000);
+    repository = new CourseRepository(pdo);
+  }
+
+  @AfterEach
+  void closeDatabase() {
+    pdo.close();
+  }
+
+  @Test
+  void findReturnsOneInstancePerId() throws SQLException {
+    Category category = new Category("Programming");
+    Course java = new Course("Java", category, "Basics");
+    Course go = new Course("Go", category, "Basics");
+    repository.save(java);
+    repository.save(go);
+
+    try (CourseSession session = repository.openSession()) {
+      Course first = session.find(java.getId());
+      assertSame(first, session.find(java.getId()));
+      CourseLookup lookup = session.find(new int[] {go.getId(), java.getId(), 999});
+      assertSame(first, lookup.getCourses().get(1));
+      assertSame(first.getCategory(), lookup.getCourses().get(0).getCategory());
+      assertEquals(1, lookup.getMissingIds().length);
+      assertEquals(2, session.size());
+      assertFalse(session.hasChanges());
+    }
+  }
+
+  @Test
+  void flushWritesEveryPendingChange() throws SQLException {
+    Course kept = new Course("Java", new Category("Programming"), "Basics");
+    Course removed = new Course("Cobol", new Category("Legacy"), "Basics");
+    repository.save(kept);
+    repository.save(removed);
+
+    try (CourseSession session = repository.openSession()) {
+      session.find(kept.getId()).setName("Java 21");
+      session.delete(removed.getId());
+      Course added = new Course("Rust", new Category("Systems"), "Basics");
+      session.persist(added);
+      assertTrue(session.hasChanges());
+      session.flush();
+
+      assertFalse(session.hasChanges());
+      assertTrue(added.getId() > 0);
+      assertSame(added, session.find(added.getId()));
+      assertNull(session.find(removed.getId()));
+    }
+    assertEquals("Java 21", repository.findById(kept.getId()).getName());
+    assertEquals(1, repository.findById(kept.getId()).getVersion());
+    assertNull(repository.findById(removed.getId()));
+  }
+
+  @Test
+  void failedFlushKeepsPendingChanges() throws SQLException {
+    Course saved = new Course("Java", new Category("Programming"), "Basics");
+    repository.save(saved);
+    Course invalid = new Course(null, new Category("Systems"), "Name is NOT NULL");
+
+    try (CourseSession session = repository.openSession()) {
+      session.find(saved.getId()).setName("Java 21");
+      session.persist(invalid);
+      assertThrows(SQLException.class, session::flush);
+      assertEquals(0, invalid.getId());
+      assertEquals(0, invalid.getCategory().getId());
+      assertTrue(session.hasChanges());
+
+      invalid.setName("Rust");
+      session.flush();
+      assertTrue(invalid.getId() > 0);
+    }
+    assertEquals("Java 21", repository.findById(saved.getId()).getName());
+  }
+
+  @Test
+  void rolledBackOuterTransactionRestoresTheSession() throws SQLException {
+    Course changed = new Course("Java", new Category("Programming"), "Basics");
+    Course removed = new Course("Cobol", new Category("Legacy"), "Basics");
+    repository.save(changed);
+    repository.save(removed);
+
+    try (CourseSession session = repository.openSession()) {
+      Course managed = session.find(changed.getId());
+      Course added = new Course("Rust", new Category("Systems"), "Basics");
+      assertThrows(IllegalStateException.class, () -> pdo.inTransaction(connection -> {
+        managed.setName("Java 21");
+        session.delete(removed.getId());
+        session.persist(added);
+        session.flush();
+        assertFalse(session.hasChanges());
+        throw new IllegalStateException("roll back");
+      }));
+
+      assertEquals(0, added.getId());
+      assertEquals(0, added.getCategory().getId());
+      assertTrue(managed.isDirty());
+      assertEquals(0, managed.getVersion());
+      assertTrue(session.hasChanges());
+
+      // The restored session flushes again as if the first flush never happened
+      session.flush();
+      assertTrue(added.getId() > 0);
+    }
+    assertEquals("Java 21", repository.findById(changed.getId()).getName());
+    assertNull(repository.findById(removed.getId()));
+  }
+}
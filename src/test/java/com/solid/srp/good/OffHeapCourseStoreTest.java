@@ -0,0 +1,128 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.IntHashing;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OffHeapCourseStore}, against a {@link HashMap} of courses as reference.
+ */
+class OffHeapCourseStoreTest {
+
+  /** Capacity of a fresh index; keys homed at its end force probe runs to wrap. */
+  private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+  @Test
+  void storesCoursesLikeAMap() {
+    Random random = new Random(1);
+    Category[] categories = {new Category(1, "Programming"), new Category(2, "Data"), null};
+    Map<Integer, Course> reference = new HashMap<>();
+    // Small pages and heavy overwriting trigger compaction and index growth
+    try (OffHeapCourseStore store = new OffHeapCourseStore(4096)) {
+      for (int i = 0; i < 30_000; i++) {
+        int id = random.nextInt(3_000);
+        if (random.nextInt(4) == 0) {
+          assertEquals(reference.remove(id) != null, store.remove(id));
+        } else {
+          Course course = new Course(id, random.nextInt(10) == 0 ? null : "Course " + i,
+              categories[random.nextInt(categories.length)],
+              random.nextInt(5) == 0 ? null : "Ünïcödé description ".repeat(random.nextInt(20)));
+          course.setVersion(random.nextInt(100));
+          store.put(course);
+          reference.put(id, course);
+        }
+        assertEquals(reference.size(), store.size());
+      }
+      for (int id = 0; id < 3_000; id++) {
+        assertSameCourse(reference.get(id), store.get(id));
+        assertEquals(reference.containsKey(id), store.contains(id));
+      }
+    }
+  }
+
+  @Test
+  void removalShiftsWrappedProbeRunsBack() {
+    List<Integer> tail = new ArrayList<>();
+    for (int id = 1; tail.size() < 6; id++) {
+      if ((IntHashing.mix(id) & (INITIAL_INDEX_CAPACITY - 1)) >= INITIAL_INDEX_CAPACITY - 2) {
+        tail.add(id);
+      }
+    }
+    for (int removed : tail) {
+      try (OffHeapCourseStore store = new OffHeapCourseStore(4096)) {
+        for (int id : tail) {
+          store.put(new Course(id, "Course " + id, null, null));
+        }
+        assertTrue(store.remove(removed));
+        assertFalse(store.remove(removed));
+        for (int id : tail) {
+          Course course = store.get(id);
+          if (id == removed) {
+            assertNull(course);
+          } else {
+            assertEquals("Course " + id, course.getName(), "after removing " + removed);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void storesIdZero() {
+    try (OffHeapCourseStore store = new OffHeapCourseStore(4096)) {
+      assertNull(store.get(0));
+      store.put(new Course(0, "zero", null, ""));
+      assertEquals("zero", store.get(0).getName());
+      assertEquals("", store.get(0).getDescription());
+      assertTrue(store.remove(0));
+      assertNull(store.get(0));
+    }
+  }
+
+  @Test
+  void storesRecordsLargerThanAPage() {
+    String description = "x".repeat(10_000);
+    try (OffHeapCourseStore store = new OffHeapCourseStore(256)) {
+      store.put(new Course(1, "Big", null, description));
+      store.put(new Course(2, "Small", null, "s"));
+      assertEquals(description, store.get(1).getDescription());
+      assertEquals("s", store.get(2).getDescription());
+    }
+  }
+
+  @Test
+  void rejectsUseAfterClose() {
+    OffHeapCourseStore store = new OffHeapCourseStore(4096);
+    store.close();
+    store.close();
+    assertThrows(IllegalStateException.class, () -> store.get(1));
+  }
+
+  private static void assertSameCourse(Course expected, Course actual) {
+    if (expected == null) {
+      assertNull(actual);
+      return;
+    }
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getDescription(), actual.getDescription());
+    assertEquals(expected.getVersion(), actual.getVersion());
+    if (expected.getCategory() == null) {
+      assertNull(actual.getCategory());
+    } else {
+      assertEquals(expected.getCategory().getId(), actual.getCategory().getId());
+      assertEquals(expected.getCategory().getName(), actual.getCategory().getName());
+    }
+  }
+}
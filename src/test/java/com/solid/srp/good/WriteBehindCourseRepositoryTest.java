@@ -0,0 +1,143 @@
+package com.solid.srp.good;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.solid.srp.Category;
+import com.solid.srp.utils.PDO;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link WriteBehindCourseRepository}, checked against the rows a plain {@link
+ * CourseRepository} reads.
+ */
+class WriteBehindCourseRepositoryTest {
+
+  private PDO pdo;
+
+  private CourseRepository database;
+
+  private final List<WriteBehindCourseRepository> repositories = new ArrayList<>();
+
+  @BeforeEach
+  void openDatabase() {
+    pdo = new PDO(1, 4, 1_000, 60_000);
+    database = new CourseRepository(pdo);
+  }
+
+  @AfterEach
+  void closeDatabase() throws SQLException {
+    for (WriteBehindCourseRepository repository : repositories) {
+      repository.close();
+    }
+    pdo.close();
+  }
+
+  @Test
+  void repeatedUpdatesAreCoalescedIntoOneWrite() throws SQLException {
+    WriteBehindCourseRepository repository = repository(100, 60_000);
+    Course course = saved(repository, "Java");
+    for (int i = 1; i <= 10; i++) {
+      course.setName("Java " + i);
+      repository.update(course);
+    }
+    course.setDescription("Advanced");
+    repository.update(course);
+
+    assertEquals(1, repository.getPendingCount());
+    assertEquals("Java", database.findById(course.getId()).getName());
+    Course pending = repository.findById(course.getId());
+    assertEquals("Java 10", pending.getName());
+    assertEquals(1, pending.getVersion());
+
+    repository.flush();
+    Course written = database.findById(course.getId());
+    assertEquals("Java 10", written.getName());
+    assertEquals("Advanced", written.getDescription());
+    // One UPDATE, so the version went up once
+    assertEquals(1, written.getVersion());
+    assertEquals(1, course.getVersion());
+    assertEquals(0, repository.getPendingCount());
+  }
+
+  @Test
+  void fullBufferIsFlushedByTheUpdate() throws SQLException {
+    WriteBehindCourseRepository repository = repository(3, 60_000);
+    List<Course> courses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      courses.add(saved(repository, "Course " + i));
+    }
+    for (Course course : courses) {
+      course.setName(course.getName() + " changed");
+      repository.update(course);
+    }
+    assertEquals(0, repository.getPendingCount());
+    assertEquals("Course 2 changed", database.findById(courses.get(2).getId()).getName());
+  }
+
+  @Test
+  void pendingUpdatesAreFlushedInTheBackground() throws Exception {
+    WriteBehindCourseRepository repository = repository(100, 20);
+    Course course = saved(repository, "Java");
+    course.setName("Kotlin");
+    repository.update(course);
+    // The pending count drops as soon as a flush takes the buffer, so wait for the commit
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!"Kotlin".equals(database.findById(course.getId()).getName())
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals("Kotlin", database.findById(course.getId()).getName());
+    assertEquals(0, repository.getPendingCount());
+  }
+
+  @Test
+  void deleteDiscardsThePendingUpdate() throws SQLException {
+    WriteBehindCourseRepository repository = repository(100, 60_000);
+    Course course = saved(repository, "Java");
+    course.setName("Kotlin");
+    repository.update(course);
+    repository.delete(course.getId());
+    assertEquals(0, repository.getPendingCount());
+    assertNull(repository.findById(course.getId()));
+  }
+
+  @Test
+  void conflictingUpdatesAreDroppedAndTheRestStayPending() throws SQLException {
+    WriteBehindCourseRepository repository = repository(100, 60_000);
+    Course stale = saved(repository, "Java");
+    Course current = saved(repository, "Go");
+    Course other = database.findById(stale.getId());
+    other.setName("Changed elsewhere");
+    database.update(other);
+
+    stale.setName("Kotlin");
+    repository.update(stale);
+    current.setName("Rust");
+    repository.update(current);
+    assertThrows(OptimisticLockException.class, repository::flush);
+    assertEquals(1, repository.getPendingCount());
+    repository.flush();
+    assertEquals("Changed elsewhere", database.findById(stale.getId()).getName());
+    assertEquals("Rust", database.findById(current.getId()).getName());
+  }
+
+  private WriteBehindCourseRepository repository(int maxPending, long flushIntervalMillis) {
+    WriteBehindCourseRepository repository =
+        new WriteBehindCourseRepository(pdo, maxPending, flushIntervalMillis);
+    repositories.add(repository);
+    return repository;
+  }
+
+  private static Course saved(CourseRepository repository, String name) throws SQLException {
+    Course course = new Course(name, new Category("Programming"), "Basics");
+    repository.save(course);
+    return course;
+  }
+}
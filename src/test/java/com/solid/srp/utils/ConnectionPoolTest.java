@@ -0,0 +1,131 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ConnectionPool} against an in-memory H2 database.
+ */
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:h2:mem:connection-pool-test;DB_CLOSE_DELAY=-1";
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+
+    @AfterEach
+    void closePools() {
+        pools.forEach(ConnectionPool::close);
+    }
+
+    @Test
+    void timesOutWhenEveryConnectionIsCheckedOut() throws SQLException {
+        ConnectionPool pool = pool(1, 1, 50, 60_000);
+        Connection borrowed = pool.borrow();
+        long start = System.nanoTime();
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+        assertTrue(System.nanoTime() - start >= 40_000_000L, "borrow should wait for the timeout");
+        borrowed.close();
+        try (Connection connection = pool.borrow()) {
+            assertTrue(connection.isValid(1));
+        }
+        assertEquals(1, pool.getStatistics().getTimeoutCount());
+        assertEquals(0, pool.getStatistics().getActive());
+    }
+
+    @Test
+    void zeroBorrowTimeoutFailsAtOnce() throws SQLException {
+        ConnectionPool pool = pool(1, 1, 0, 60_000);
+        Connection connection = pool.borrow();
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+        connection.close();
+        pool.borrow().close();
+    }
+
+    @Test
+    void evictsIdleConnectionsDownToMinimum() throws Exception {
+        ConnectionPool pool = pool(1, 3, 1_000, 50);
+        List<Connection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            borrowed.add(pool.borrow());
+        }
+        assertEquals(3, pool.getStatistics().getTotal());
+        for (Connection connection : borrowed) {
+            connection.close();
+        }
+        assertEquals(3, pool.getStatistics().getIdle());
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (pool.getStatistics().getTotal() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.getStatistics().getTotal());
+        assertEquals(1, pool.getStatistics().getIdle());
+    }
+
+    @Test
+    void returnedConnectionsAreReusedAndRolledBack() throws SQLException {
+        ConnectionPool pool = pool(1, 1, 1_000, 60_000);
+        try (Connection connection = pool.borrow();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS pool_test (id INT)");
+            statement.execute("DELETE FROM pool_test");
+            connection.setAutoCommit(false);
+            statement.execute("INSERT INTO pool_test VALUES (1)");
+        }
+        try (Connection connection = pool.borrow();
+             Statement statement = connection.createStatement()) {
+            assertTrue(connection.getAutoCommit());
+            try (var resultSet = statement.executeQuery("SELECT COUNT(*) FROM pool_test")) {
+                resultSet.next();
+                assertEquals(0, resultSet.getInt(1));
+            }
+        }
+        assertEquals(1, pool.getStatistics().getTotal());
+    }
+
+    @Test
+    void closingAHandleTwiceReleasesOnce() throws SQLException {
+        ConnectionPool pool = pool(1, 2, 0, 60_000);
+        Connection connection = pool.borrow();
+        connection.close();
+        connection.close();
+        assertEquals(0, pool.getStatistics().getActive());
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        assertThrows(SQLTimeoutException.class, pool::borrow);
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void rejectsBorrowsAfterClose() throws SQLException {
+        ConnectionPool pool = pool(1, 1, 0, 60_000);
+        pool.close();
+        assertThrows(SQLException.class, pool::borrow);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> pool(0, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> pool(2, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> pool(1, 1, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> pool(1, 1, 0, 0));
+    }
+
+    private ConnectionPool pool(int minSize, int maxSize, long borrowTimeoutMillis,
+                                long idleTimeoutMillis) throws SQLException {
+        ConnectionPool pool = new ConnectionPool(
+                URL, "sa", "", minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis);
+        pools.add(pool);
+        return pool;
+    }
+}
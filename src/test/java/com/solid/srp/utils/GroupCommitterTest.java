@@ -0,0 +1,105 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link GroupCommitter} against the in-memory H2 database of {@link PDO}.
+ */
+class GroupCommitterTest {
+
+    private PDO pdo;
+
+    @BeforeEach
+    void openDatabase() {
+        pdo = new PDO(1, 4, 1_000, 60_000);
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        // Closing the last connection drops the in-memory database, so every test starts empty
+        pdo.close();
+    }
+
+    @Test
+    void queuedWorkIsCommittedInGroups() throws SQLException {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        try (GroupCommitter committer = new GroupCommitter(pdo, 5, 5_000)) {
+            for (int i = 0; i < 20; i++) {
+                futures.add(committer.submit(insertCategory("Category " + i)));
+            }
+            for (CompletableFuture<Integer> future : futures) {
+                assertEquals(1, future.join());
+            }
+            // Twenty pieces of work in groups of five, each group filled by the size trigger
+            assertEquals(4, committer.getCommitCount());
+            assertEquals(20, committer.getOperationCount());
+        }
+        assertEquals(20, countCategories());
+    }
+
+    @Test
+    void failedWorkIsRolledBackAlone() throws SQLException {
+        try (GroupCommitter committer = new GroupCommitter(pdo, 3, 5_000)) {
+            CompletableFuture<Integer> before = committer.submit(insertCategory("Java"));
+            CompletableFuture<Integer> failing = committer.submit(connection -> {
+                insertCategory("Rolled back").run(connection);
+                // Category names are unique, so this insert fails
+                return insertCategory("Java").run(connection);
+            });
+            CompletableFuture<Integer> after = committer.submit(insertCategory("Go"));
+
+            CompletionException thrown = assertThrows(CompletionException.class, failing::join);
+            assertInstanceOf(SQLException.class, thrown.getCause());
+            assertEquals(1, before.join());
+            assertEquals(1, after.join());
+            assertEquals(1, committer.getCommitCount());
+        }
+        assertEquals(2, countCategories());
+    }
+
+    @Test
+    void closeCommitsQueuedWorkAndRejectsNewWork() throws SQLException {
+        GroupCommitter committer = new GroupCommitter(pdo, 100, 60_000);
+        CompletableFuture<Integer> queued = committer.submit(insertCategory("Java"));
+        committer.close();
+        assertTrue(queued.isDone());
+        assertEquals(1, queued.join());
+        assertEquals(1, countCategories());
+        assertThrows(IllegalStateException.class, () -> committer.submit(insertCategory("Go")));
+    }
+
+    private static PDO.TransactionWork<Integer> insertCategory(String name) {
+        return connection -> {
+            try (PreparedStatement statement =
+                    connection.prepareStatement("INSERT INTO category (name) VALUES (?)")) {
+                statement.setString(1, name);
+                return statement.executeUpdate();
+            }
+        };
+    }
+
+    private int countCategories() throws SQLException {
+        try (Connection connection = pdo.borrowConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM category")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IntLruCache}, against an access-ordered {@link LinkedHashMap} as reference.
+ */
+class IntLruCacheTest {
+
+    private static final long NO_EXPIRY = 3_600_000;
+
+    @Test
+    void evictsLikeAccessOrderedLinkedHashMap() {
+        Random random = new Random(1);
+        for (int maxEntries : new int[] {1, 3, 17, 100}) {
+            IntLruCache<Integer> cache = new IntLruCache<>(maxEntries, NO_EXPIRY);
+            Map<Integer, Integer> reference = new LinkedHashMap<>(16, 0.75f, true);
+            for (int i = 0; i < 100_000; i++) {
+                int key = random.nextInt(3 * maxEntries) - maxEntries;
+                switch (random.nextInt(8)) {
+                    case 0, 1, 2 -> assertEquals(reference.get(key), cache.get(key));
+                    case 3 -> {
+                        cache.invalidate(key);
+                        reference.remove(key);
+                    }
+                    default -> {
+                        cache.put(key, i);
+                        reference.put(key, i);
+                        if (reference.size() > maxEntries) {
+                            Iterator<Integer> eldest = reference.keySet().iterator();
+                            eldest.next();
+                            eldest.remove();
+                        }
+                    }
+                }
+                assertEquals(reference.size(), cache.size());
+            }
+            cache.clear();
+            assertEquals(0, cache.size());
+            assertNull(cache.get(0));
+        }
+    }
+
+    @Test
+    void countsHitsMissesAndEvictions() {
+        IntLruCache<String> cache = new IntLruCache<>(2, NO_EXPIRY);
+        cache.put(0, "zero");
+        cache.put(1, "one");
+        assertEquals("zero", cache.get(0));
+        cache.put(2, "two");
+        assertNull(cache.get(1));
+        IntLruCache.Statistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(2, statistics.getSize());
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        IntLruCache<String> cache = new IntLruCache<>(4, 1);
+        cache.put(1, "one");
+        Thread.sleep(5);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getStatistics().getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void skipsStoresMadeStaleByAnInvalidation() {
+        IntLruCache<String> cache = new IntLruCache<>(4, NO_EXPIRY);
+        long stamp = cache.stamp();
+        cache.invalidate(1);
+        assertFalse(cache.putIfUnchanged(1, "stale", stamp));
+        assertNull(cache.get(1));
+        assertTrue(cache.putIfUnchanged(1, "fresh", cache.stamp()));
+        assertEquals("fresh", cache.get(1));
+    }
+}
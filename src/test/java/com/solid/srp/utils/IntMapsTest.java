@@ -0,0 +1,265 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the open-addressing {@code int} collections and their concurrent variants,
+ * against {@link HashMap} and {@link HashSet} as reference.
+ */
+class IntMapsTest {
+
+    /** Keys drawn from a small range collide often and keep deletions inside long probe runs. */
+    private static final int KEY_RANGE = 512;
+
+    @Test
+    void intObjectMapMatchesHashMap() {
+        Random random = new Random(1);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = randomKey(random);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(reference.remove(key), map.remove(key));
+                case 1 -> assertEquals(
+                        reference.putIfAbsent(key, "a" + i), map.putIfAbsent(key, "a" + i));
+                case 2 -> assertEquals(reference.get(key), map.get(key));
+                default -> assertEquals(reference.put(key, "p" + i), map.put(key, "p" + i));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(reference, visited);
+        assertEquals(reference.keySet(), toSet(map.keys()));
+    }
+
+    @Test
+    void intIntMapMatchesHashMap() {
+        Random random = new Random(2);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = randomKey(random);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(reference.remove(key) != null, map.remove(key));
+                case 1 -> assertEquals(reference.merge(key, 3, Integer::sum), map.addTo(key, 3));
+                case 2 -> assertEquals(reference.getOrDefault(key, -1), map.getOrDefault(key, -1));
+                default -> {
+                    reference.put(key, i);
+                    map.put(key, i);
+                }
+            }
+            assertEquals(reference.containsKey(key), map.containsKey(key));
+            assertEquals(reference.size(), map.size());
+        }
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertNull(visited.put(key, value)));
+        assertEquals(reference, visited);
+    }
+
+    @Test
+    void intSetMatchesHashSet() {
+        Random random = new Random(3);
+        IntSet set = new IntSet();
+        Set<Integer> reference = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int value = randomKey(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(value), set.remove(value));
+            } else {
+                assertEquals(reference.add(value), set.add(value));
+            }
+            assertEquals(reference.size(), set.size());
+        }
+        assertEquals(reference, toSet(set.toArray()));
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void keyZeroIsAnOrdinaryKey() {
+        IntObjectMap<String> objects = new IntObjectMap<>();
+        assertNull(objects.get(0));
+        assertNull(objects.put(0, "zero"));
+        assertTrue(objects.containsKey(0));
+        assertEquals("zero", objects.get(0));
+        assertArrayEquals(new int[] {0}, objects.keys());
+        assertEquals("zero", objects.remove(0));
+        assertFalse(objects.containsKey(0));
+
+        IntIntMap ints = new IntIntMap();
+        assertFalse(ints.containsKey(0));
+        ints.put(0, 0);
+        assertTrue(ints.containsKey(0));
+        assertEquals(0, ints.getOrDefault(0, -1));
+        assertEquals(5, ints.addTo(0, 5));
+        assertTrue(ints.remove(0));
+        assertEquals(-1, ints.getOrDefault(0, -1));
+
+        IntSet set = new IntSet();
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertTrue(set.remove(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void backwardShiftDeletionWrapsAroundTheTable() {
+        // Find keys whose home slots sit at the end of a 16-slot table, so their probe run
+        // wraps to the start, then delete from the front of the run.
+        int capacity = IntHashing.capacityFor(8);
+        List<Integer> tail = new ArrayList<>();
+        for (int key = 1; tail.size() < 6; key++) {
+            if ((IntHashing.mix(key) & (capacity - 1)) >= capacity - 2) {
+                tail.add(key);
+            }
+        }
+        for (int removed : tail) {
+            IntIntMap map = new IntIntMap(8);
+            IntObjectMap<Integer> objects = new IntObjectMap<>(8);
+            IntSet set = new IntSet(8);
+            for (int key : tail) {
+                map.put(key, key * 10);
+                objects.put(key, key);
+                set.add(key);
+            }
+            assertTrue(map.remove(removed));
+            assertEquals(removed, objects.remove(removed));
+            assertTrue(set.remove(removed));
+            for (int key : tail) {
+                boolean expected = key != removed;
+                assertEquals(expected, map.containsKey(key),
+                        "key " + key + " after removing " + removed);
+                assertEquals(expected ? key * 10 : -1, map.getOrDefault(key, -1));
+                assertEquals(expected ? key : null, objects.get(key));
+                assertEquals(expected, set.contains(key));
+            }
+        }
+    }
+
+    @Test
+    void shouldShiftHandlesWrappedRuns() {
+        // Gap at the end of the table, entry wrapped to slot 1
+        assertTrue(IntHashing.shouldShift(15, 1, 14));
+        assertTrue(IntHashing.shouldShift(15, 1, 15));
+        assertFalse(IntHashing.shouldShift(15, 1, 0));
+        assertFalse(IntHashing.shouldShift(15, 1, 1));
+        // Unwrapped run
+        assertTrue(IntHashing.shouldShift(4, 6, 3));
+        assertFalse(IntHashing.shouldShift(4, 6, 5));
+    }
+
+    @Test
+    void concurrentMapsMatchReferenceAfterParallelWrites() throws Exception {
+        ConcurrentIntObjectMap<Integer> objects = new ConcurrentIntObjectMap<>(4);
+        ConcurrentIntIntMap counters = new ConcurrentIntIntMap(4);
+        ConcurrentIntSet set = new ConcurrentIntSet(4);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        int key = i % KEY_RANGE;
+                        counters.addTo(key, 1);
+                        objects.computeIfAbsent(key, k -> k * 2);
+                        // Each thread owns the keys congruent to its number
+                        int owned = i * threads + thread;
+                        set.add(owned);
+                        if (owned % 3 == 0) {
+                            set.remove(owned);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Integer, Integer> expectedCounts = new HashMap<>();
+        for (int i = 0; i < perThread; i++) {
+            expectedCounts.merge(i % KEY_RANGE, threads, Integer::sum);
+        }
+        Map<Integer, Integer> counts = new HashMap<>();
+        counters.forEach(counts::put);
+        assertEquals(expectedCounts, counts);
+
+        assertEquals(KEY_RANGE, objects.size());
+        objects.forEach((key, value) -> assertEquals(key * 2, value));
+
+        Set<Integer> expectedSet = new HashSet<>();
+        for (int owned = 0; owned < perThread * threads; owned++) {
+            if (owned % 3 != 0) {
+                expectedSet.add(owned);
+            }
+        }
+        assertEquals(expectedSet, toSet(set.toArray()));
+        assertEquals(expectedSet.size(), set.size());
+    }
+
+    @Test
+    void concurrentMapsMatchHashMapSingleThreaded() {
+        Random random = new Random(4);
+        ConcurrentIntObjectMap<Integer> objects = new ConcurrentIntObjectMap<>();
+        ConcurrentIntIntMap ints = new ConcurrentIntIntMap();
+        Map<Integer, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = randomKey(random);
+            if (random.nextInt(3) == 0) {
+                Integer removed = reference.remove(key);
+                assertEquals(removed, objects.remove(key));
+                assertEquals(removed != null, ints.remove(key));
+            } else {
+                Integer previous = reference.put(key, i);
+                assertEquals(previous, objects.put(key, i));
+                ints.put(key, i);
+            }
+            assertEquals(reference.get(key), objects.get(key));
+            assertEquals(reference.getOrDefault(key, -1), ints.getOrDefault(key, -1));
+        }
+        assertEquals(reference.size(), objects.size());
+        assertEquals(reference.size(), ints.size());
+    }
+
+    /** Returns a key from a small range, including 0 and negative keys. */
+    private static int randomKey(Random random) {
+        return random.nextInt(8) == 0 ? random.nextInt() : random.nextInt(KEY_RANGE) - 16;
+    }
+
+    private static Set<Integer> toSet(int[] values) {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) {
+            assertTrue(set.add(value), "duplicate " + value);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,140 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link InvertedIndex}: boolean matching against a scan of the documents, and
+ * BM25 ranking on hand-built corpora.
+ */
+class InvertedIndexTest {
+
+    private static final String[] TERMS = {"java", "spring", "boot", "sql", "data", "web", "api"};
+
+    @Test
+    void matchesAgreeWithScan() {
+        Random random = new Random(1);
+        InvertedIndex index = new InvertedIndex();
+        Map<Integer, Set<String>> documents = new HashMap<>();
+        // Enough churn to trigger compaction several times
+        for (int i = 0; i < 6_000; i++) {
+            int id = random.nextInt(1_500);
+            if (random.nextInt(4) == 0) {
+                assertEquals(documents.remove(id) != null, index.remove(id));
+                continue;
+            }
+            StringBuilder text = new StringBuilder();
+            int words = 1 + random.nextInt(5);
+            for (int w = 0; w < words; w++) {
+                text.append(TERMS[random.nextInt(TERMS.length)])
+                        .append(random.nextBoolean() ? " " : ", ");
+            }
+            index.put(id, text.toString());
+            documents.put(id, new HashSet<>(InvertedIndex.tokenize(text.toString())));
+        }
+        assertEquals(documents.size(), index.size());
+
+        String[] queries = {"java", "+java", "java spring", "+java -spring", "+sql +data", "-web",
+                "web -api -sql", "+boot api", "missing", "+missing java"};
+        for (String query : queries) {
+            int[] found = index.search(query, Integer.MAX_VALUE);
+            assertEquals(expected(documents, query), toSet(found), query);
+        }
+    }
+
+    @Test
+    void ranksByBm25() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "java");
+        index.put(2, "java java java");
+        index.put(3, "java and a lot of other words about nothing in particular");
+        index.put(4, "python");
+        // Higher term frequency wins; a longer document is penalized
+        assertArrayEquals(new int[] {2, 1, 3}, index.search("java", 10));
+        assertArrayEquals(new int[] {2}, index.search("java", 1));
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "common rare");
+        index.put(2, "common common");
+        index.put(3, "common");
+        index.put(4, "common");
+        assertEquals(1, index.search("common rare", 10)[0]);
+    }
+
+    @Test
+    void tiesGoToTheLowerId() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(9, "spring boot");
+        index.put(3, "spring boot");
+        index.put(5, "boot spring");
+        assertArrayEquals(new int[] {3, 5, 9}, index.search("spring", 10));
+    }
+
+    @Test
+    void replacingADocumentDropsItsOldTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "java");
+        index.put(1, "python");
+        assertArrayEquals(new int[0], index.search("java", 10));
+        assertArrayEquals(new int[] {1}, index.search("python", 10));
+        assertTrue(index.contains(1));
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void tokenizesRunsOfLettersAndDigits() {
+        assertEquals(List.of("spring", "boot", "3", "x"),
+                InvertedIndex.tokenize("Spring-Boot 3.x"));
+        assertEquals(List.of(), InvertedIndex.tokenize(null));
+    }
+
+    /** Applies the query semantics to a term set per document. */
+    private static Set<Integer> expected(Map<Integer, Set<String>> documents, String query) {
+        Set<String> required = new HashSet<>();
+        Set<String> optional = new HashSet<>();
+        Set<String> excluded = new HashSet<>();
+        for (String word : query.split(" ")) {
+            if (word.startsWith("+")) {
+                required.add(word.substring(1));
+            } else if (word.startsWith("-")) {
+                excluded.add(word.substring(1));
+            } else {
+                optional.add(word);
+            }
+        }
+        Set<Integer> ids = new TreeSet<>();
+        documents.forEach((id, terms) -> {
+            boolean accepted = required.isEmpty()
+                    ? optional.stream().anyMatch(terms::contains)
+                    : terms.containsAll(required);
+            if (accepted && excluded.stream().noneMatch(terms::contains)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private static Set<Integer> toSet(int[] ids) {
+        Set<Integer> set = new TreeSet<>();
+        Arrays.stream(ids).forEach(set::add);
+        assertEquals(ids.length, set.size(), "duplicate IDs");
+        return set;
+    }
+}
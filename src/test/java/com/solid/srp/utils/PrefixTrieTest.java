@@ -0,0 +1,116 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PrefixTrie}, against a linear scan with {@link PrefixTrie#matches} and
+ * {@link PrefixTrie#compareRank}.
+ */
+class PrefixTrieTest {
+
+    private static final String[] WORDS = {
+        "java", "javascript", "spring", "boot", "spring boot", "data", "database", "dat",
+        "a", "ab", "abc", "masterclass", "Intro", "to", "SQL", "sql server", "python", "py",
+    };
+
+    @Test
+    void completionsMatchLinearScan() {
+        Random random = new Random(1);
+        int count = 2_000;
+        int[] ids = new int[count];
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = random.nextInt(100_000);
+            StringBuilder key = new StringBuilder();
+            int words = 1 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                key.append(w == 0 ? "" : random.nextBoolean() ? " " : "  ")
+                        .append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            keys[i] = key.toString();
+        }
+        int maxResults = 10;
+        PrefixTrie trie = new PrefixTrie(ids, keys, maxResults);
+
+        List<String> prefixes = new ArrayList<>(List.of("", " ", "s", "sp", "spring b", "DAT",
+                "database ", "zzz", "a", "ab", "abcd", "boot m", "py"));
+        for (int i = 0; i < 200; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes.add(word.substring(0, 1 + random.nextInt(word.length())));
+        }
+        for (String prefix : prefixes) {
+            for (int k : new int[] {1, 3, maxResults, maxResults + 5}) {
+                assertArrayEquals(expected(ids, keys, prefix, Math.min(k, maxResults)),
+                        trie.complete(prefix, k), "prefix '" + prefix + "', k=" + k);
+            }
+        }
+    }
+
+    @Test
+    void ranksShorterKeysFirstThenByKeyThenById() {
+        PrefixTrie trie = new PrefixTrie(
+                new int[] {5, 4, 3, 2, 1},
+                new String[] {"Spring Boot", "spring", "Spring", "Summer", "Spring Data"},
+                10);
+        assertArrayEquals(new int[] {3, 4, 5, 1}, trie.complete("sp", 10));
+        assertArrayEquals(new int[] {3, 4, 2}, trie.complete("s", 3));
+        assertArrayEquals(new int[] {5}, trie.complete("boot", 10));
+        assertArrayEquals(new int[0], trie.complete("pring", 10));
+        assertArrayEquals(new int[0], trie.complete("sp", 0));
+    }
+
+    @Test
+    void keyOfReturnsNormalizedKey() {
+        PrefixTrie trie = new PrefixTrie(new int[] {7}, new String[] {"  Spring   Boot"}, 1);
+        assertEquals("spring boot", trie.keyOf(7));
+        assertNull(trie.keyOf(8));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void rankOfFindsTheEntryOfAnId() {
+        PrefixTrie trie = new PrefixTrie(
+                new int[] {9, 4, 6}, new String[] {"Kotlin", "Go", "Java"}, 2);
+        for (int rank = 0; rank < trie.size(); rank++) {
+            assertEquals(rank, trie.rankOf(trie.idAt(rank)));
+        }
+        assertEquals(0, trie.rankOf(4));
+        assertEquals(-1, trie.rankOf(5));
+    }
+
+    @Test
+    void emptyTrieCompletesNothing() {
+        PrefixTrie trie = new PrefixTrie(new int[0], new String[0], 5);
+        assertArrayEquals(new int[0], trie.complete("", 5));
+        assertArrayEquals(new int[0], trie.complete("a", 5));
+    }
+
+    @Test
+    void rejectsMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PrefixTrie(new int[] {1}, new String[0], 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PrefixTrie(new int[0], new String[0], 0));
+    }
+
+    private static int[] expected(int[] ids, String[] keys, String prefix, int k) {
+        String normalizedPrefix = PrefixTrie.normalize(prefix);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (PrefixTrie.matches(PrefixTrie.normalize(keys[i]), normalizedPrefix)) {
+                matches.add(i);
+            }
+        }
+        matches.sort((a, b) -> PrefixTrie.compareRank(
+                PrefixTrie.normalize(keys[a]), ids[a], PrefixTrie.normalize(keys[b]), ids[b]));
+        return matches.stream().limit(k).mapToInt(i -> ids[i]).toArray();
+    }
+}
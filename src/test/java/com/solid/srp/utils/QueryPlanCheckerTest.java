@@ -0,0 +1,42 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link QueryPlanChecker} against the schema and {@link PDO#INDEXES} of {@link PDO}.
+ */
+class QueryPlanCheckerTest {
+
+    private PDO pdo;
+
+    @BeforeEach
+    void openDatabase() {
+        pdo = new PDO(1, 2, 1_000, 60_000);
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        pdo.close();
+    }
+
+    @Test
+    void reportsOnlyQueriesThatScanATable() throws SQLException {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("byName", "SELECT id FROM course WHERE name = ?");
+        queries.put("byCategory", "SELECT id FROM course WHERE category_id = ? ORDER BY id");
+        queries.put("byDescription", "SELECT id FROM course WHERE description = ?");
+        List<String> warnings = new QueryPlanChecker(pdo).check(queries);
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).startsWith("Query 'byDescription' scans a whole table"),
+                warnings.get(0));
+    }
+}
@@ -0,0 +1,144 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RoaringBitmap}, against a {@link TreeSet} as reference.
+ */
+class RoaringBitmapTest {
+
+    @Test
+    void randomOperationsMatchTreeSet() {
+        Random random = new Random(1);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        TreeSet<Integer> reference = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Mix dense and sparse chunks so both container kinds are exercised
+            int value = random.nextBoolean()
+                    ? random.nextInt(3 * 65536)
+                    : random.nextInt(Integer.MAX_VALUE);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(reference.add(value), bitmap.add(value));
+            }
+        }
+        assertMatches(reference, bitmap);
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(3 * 65536);
+            assertEquals(reference.contains(value), bitmap.contains(value));
+        }
+    }
+
+    @Test
+    void setOperationsMatchTreeSet() {
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            TreeSet<Integer> left = new TreeSet<>();
+            TreeSet<Integer> right = new TreeSet<>();
+            RoaringBitmap a = new RoaringBitmap();
+            RoaringBitmap b = new RoaringBitmap();
+            int bound = (round % 2 == 0 ? 1 : 40) * 65536;
+            for (int i = 0; i < 20_000; i++) {
+                int x = random.nextInt(bound);
+                int y = random.nextInt(bound);
+                left.add(x);
+                a.add(x);
+                right.add(y);
+                b.add(y);
+            }
+            TreeSet<Integer> and = new TreeSet<>(left);
+            and.retainAll(right);
+            TreeSet<Integer> or = new TreeSet<>(left);
+            or.addAll(right);
+            TreeSet<Integer> andNot = new TreeSet<>(left);
+            andNot.removeAll(right);
+            assertMatches(and, a.and(b));
+            assertMatches(or, a.or(b));
+            assertMatches(andNot, a.andNot(b));
+            assertMatches(left, a);
+            assertMatches(right, b);
+        }
+    }
+
+    @Test
+    void keepsValuesAcrossContainerConversion() {
+        // Both container kinds cost 8 KB at the limit, so check contents rather than size
+        RoaringBitmap bitmap = new RoaringBitmap();
+        TreeSet<Integer> reference = new TreeSet<>();
+        for (int value = 0; value < RoaringBitmap.ARRAY_MAX; value++) {
+            bitmap.add(value * 2);
+            reference.add(value * 2);
+        }
+        long arraySize = bitmap.sizeInBytes();
+        assertTrue(bitmap.add(1));
+        reference.add(1);
+        assertMatches(reference, bitmap);
+        assertEquals(arraySize, bitmap.sizeInBytes(), "one chunk should stay one 8 KB container");
+
+        int beyondLastEven = 2 * RoaringBitmap.ARRAY_MAX + 7;
+        RoaringBitmap sparse = RoaringBitmap.of(1, 3, 4, beyondLastEven);
+        TreeSet<Integer> sparseReference = new TreeSet<>(List.of(1, 3, 4, beyondLastEven));
+        TreeSet<Integer> and = new TreeSet<>(reference);
+        and.retainAll(sparseReference);
+        TreeSet<Integer> or = new TreeSet<>(reference);
+        or.addAll(sparseReference);
+        TreeSet<Integer> andNot = new TreeSet<>(reference);
+        andNot.removeAll(sparseReference);
+        assertMatches(and, bitmap.and(sparse));
+        assertMatches(and, sparse.and(bitmap));
+        assertMatches(or, bitmap.or(sparse));
+        assertMatches(or, sparse.or(bitmap));
+        assertMatches(andNot, bitmap.andNot(sparse));
+
+        assertTrue(bitmap.remove(1));
+        assertTrue(bitmap.remove(0));
+        reference.remove(1);
+        reference.remove(0);
+        assertMatches(reference, bitmap);
+        assertTrue(bitmap.add(1));
+        reference.add(1);
+        assertMatches(reference, bitmap);
+    }
+
+    @Test
+    void removingEveryValueEmptiesTheBitmap() {
+        RoaringBitmap bitmap = RoaringBitmap.of(0, 65535, 65536, Integer.MAX_VALUE);
+        for (int value : bitmap.toArray()) {
+            assertTrue(bitmap.remove(value));
+        }
+        assertTrue(bitmap.isEmpty());
+        assertArrayEquals(new int[0], bitmap.toArray());
+        assertFalse(bitmap.remove(0));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        RoaringBitmap bitmap = RoaringBitmap.of(1, 2, 3);
+        RoaringBitmap copy = bitmap.copy();
+        copy.add(4);
+        bitmap.remove(1);
+        assertArrayEquals(new int[] {2, 3}, bitmap.toArray());
+        assertArrayEquals(new int[] {1, 2, 3, 4}, copy.toArray());
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-1));
+    }
+
+    private static void assertMatches(TreeSet<Integer> expected, RoaringBitmap actual) {
+        assertEquals(expected.size(), actual.cardinality());
+        int[] values = expected.stream().mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(values, actual.toArray());
+    }
+}
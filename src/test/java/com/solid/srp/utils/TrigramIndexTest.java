@@ -0,0 +1,161 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TrigramIndex}: the banded distance against a full Levenshtein table, and
+ * searches against a scan of every string.
+ */
+class TrigramIndexTest {
+
+    @Test
+    void boundedDistanceMatchesFullLevenshtein() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            String a = randomString(random, 12);
+            String b = random.nextBoolean() ? mutate(random, a) : randomString(random, 12);
+            int distance = levenshtein(a, b);
+            for (int max = 0; max <= 4; max++) {
+                int expected = distance <= max ? distance : max + 1;
+                assertEquals(expected, TrigramIndex.boundedDistance(a, b, max),
+                        "'" + a + "' vs '" + b + "', max " + max);
+            }
+        }
+    }
+
+    @Test
+    void boundedDistanceCutsOffAtTheLimit() {
+        assertEquals(0, TrigramIndex.boundedDistance("", "", 0));
+        assertEquals(1, TrigramIndex.boundedDistance("a", "", 0));
+        assertEquals(3, TrigramIndex.boundedDistance("abc", "", 3));
+        assertEquals(3, TrigramIndex.boundedDistance("abcdef", "abc", 2));
+        assertEquals(2, TrigramIndex.boundedDistance("kitten", "sitting", 1));
+        assertEquals(3, TrigramIndex.boundedDistance("kitten", "sitting", 3));
+        // Same length but every character differs: the band alone cannot reject it
+        assertEquals(2, TrigramIndex.boundedDistance("abcd", "wxyz", 1));
+        assertEquals(4, TrigramIndex.boundedDistance("abcd", "wxyz", 4));
+    }
+
+    @Test
+    void searchMatchesScan() {
+        Random random = new Random(2);
+        TrigramIndex index = new TrigramIndex();
+        Map<Integer, String> texts = new HashMap<>();
+        List<String> bases = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bases.add(randomString(random, 14));
+        }
+        for (int i = 0; i < 4_000; i++) {
+            int id = random.nextInt(1_200);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                texts.remove(id);
+            } else {
+                String text = mutate(random, bases.get(random.nextInt(bases.size())));
+                index.put(id, text);
+                texts.put(id, TrigramIndex.normalize(text));
+            }
+        }
+        assertEquals(texts.size(), index.size());
+        for (int q = 0; q < 200; q++) {
+            String query = mutate(random, bases.get(random.nextInt(bases.size())));
+            if (query.isEmpty()) {
+                // An empty query matches nothing by definition
+                assertTrue(index.search(query, 3, 20).isEmpty());
+                continue;
+            }
+            int maxDistance = random.nextInt(4);
+            List<int[]> expected = new ArrayList<>();
+            String normalized = TrigramIndex.normalize(query);
+            texts.forEach((id, text) -> {
+                int distance = levenshtein(normalized, text);
+                if (distance <= maxDistance) {
+                    int lengthDifference = Math.abs(text.length() - normalized.length());
+                    expected.add(new int[] {distance, lengthDifference, id});
+                }
+            });
+            expected.sort(Comparator.<int[]>comparingInt(m -> m[0])
+                    .thenComparingInt(m -> m[1])
+                    .thenComparingInt(m -> m[2]));
+            List<TrigramIndex.Match> matches = index.search(query, maxDistance, 20);
+            assertEquals(Math.min(20, expected.size()), matches.size(), query);
+            for (int i = 0; i < matches.size(); i++) {
+                assertEquals(expected.get(i)[2], matches.get(i).getId(), query);
+                assertEquals(expected.get(i)[0], matches.get(i).getDistance(), query);
+            }
+        }
+    }
+
+    @Test
+    void defaultDistanceGrowsWithQueryLength() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Java");
+        index.put(2, "Spring Boot Masterclass");
+        assertEquals(1, index.search("jav", 10).get(0).getId());
+        assertTrue(index.search("jv", 10).isEmpty());
+        assertEquals(2, index.search("sprng boot mastrclass", 10).get(0).getId());
+        // Two transpositions are four edits, more than a 23-character query allows
+        assertTrue(index.search("sprnig boot mastreclass", 10).isEmpty());
+    }
+
+    /** Textbook Levenshtein distance over the full table. */
+    private static int levenshtein(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            table[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            table[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int edit = Math.min(table[i - 1][j], table[i][j - 1]) + 1;
+                table[i][j] = Math.min(table[i - 1][j - 1] + cost, edit);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(6)));
+        }
+        return text.toString();
+    }
+
+    /** Applies up to three random edits. */
+    private static String mutate(Random random, String text) {
+        StringBuilder mutated = new StringBuilder(text);
+        int edits = random.nextInt(4);
+        for (int e = 0; e < edits; e++) {
+            int position = random.nextInt(mutated.length() + 1);
+            char c = (char) ('a' + random.nextInt(6));
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.insert(position, c);
+                case 1 -> {
+                    if (position < mutated.length()) {
+                        mutated.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < mutated.length()) {
+                        mutated.setCharAt(position, c);
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+}
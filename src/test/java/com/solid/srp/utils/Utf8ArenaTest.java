@@ -0,0 +1,68 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Utf8Arena}, against a {@link List} of strings as reference.
+ */
+class Utf8ArenaTest {
+
+    private static final String[] SAMPLES = {"", "java", "Ünïcödé", "日本語", "emoji 😀", null};
+
+    @Test
+    void storesStringsLikeAList() {
+        Random random = new Random(1);
+        Utf8Arena arena = new Utf8Arena(1, 1);
+        List<String> reference = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String value = random.nextInt(4) == 0
+                    ? SAMPLES[random.nextInt(SAMPLES.length)]
+                    : "course " + i;
+            assertEquals(reference.size(), arena.add(value));
+            reference.add(value);
+        }
+        assertEqualsReference(reference, arena);
+        arena.trimToSize();
+        assertEqualsReference(reference, arena);
+        arena.add("after trim");
+        assertEquals("after trim", arena.get(reference.size()));
+    }
+
+    @Test
+    void keepsNullDistinctFromEmpty() {
+        Utf8Arena arena = new Utf8Arena(2, 0);
+        arena.add(null);
+        arena.add("");
+        assertNull(arena.get(0));
+        assertEquals("", arena.get(1));
+        assertEquals(0, arena.byteLength(0));
+        assertEquals(0, arena.byteLength(1));
+    }
+
+    @Test
+    void rejectsIndexesOutOfBounds() {
+        Utf8Arena arena = new Utf8Arena(4, 16);
+        arena.add("a");
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.byteLength(1));
+    }
+
+    private static void assertEqualsReference(List<String> reference, Utf8Arena arena) {
+        assertEquals(reference.size(), arena.size());
+        for (int i = 0; i < reference.size(); i++) {
+            String expected = reference.get(i);
+            assertEquals(expected, arena.get(i));
+            int length = expected == null ? 0 : expected.getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(length, arena.byteLength(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.solid.srp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VectorIndex}, against a scan over a {@link HashMap} of vectors.
+ */
+class VectorIndexTest {
+
+    private static final int DIMENSIONS = 11;
+
+    @Test
+    void nearestMatchesScanThroughSlotReuse() {
+        Random random = new Random(1);
+        VectorIndex index = new VectorIndex(DIMENSIONS);
+        Map<Integer, float[]> reference = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(800);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(id) != null, index.remove(id));
+            } else {
+                float[] vector = randomVector(random);
+                index.put(id, vector);
+                reference.put(id, unit(vector));
+            }
+        }
+        assertEquals(reference.size(), index.size());
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomVector(random);
+            int excluded = random.nextInt(800);
+            assertArrayEquals(expected(reference, unit(query), excluded, 10),
+                    index.nearest(query, 10, excluded));
+        }
+        for (Map.Entry<Integer, float[]> entry : reference.entrySet()) {
+            float[] stored = index.get(entry.getKey());
+            for (int d = 0; d < DIMENSIONS; d++) {
+                assertEquals(entry.getValue()[d], stored[d], 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    void removedSlotsAreReused() {
+        VectorIndex index = new VectorIndex(2);
+        index.put(1, new float[] {1, 0});
+        index.put(2, new float[] {0, 1});
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertNull(index.get(1));
+        index.put(3, new float[] {1, 1});
+        assertEquals(2, index.size());
+        assertArrayEquals(new int[] {3, 2}, index.nearest(new float[] {1, 0.2f}, 10, -1));
+        index.clear();
+        assertEquals(0, index.size());
+        index.put(4, new float[] {1, 0});
+        assertArrayEquals(new int[] {4}, index.nearest(new float[] {1, 0}, Integer.MAX_VALUE, -1));
+    }
+
+    /** IDs with a positive cosine similarity, most similar first, ties to the lower ID. */
+    private static int[] expected(Map<Integer, float[]> vectors, float[] query, int excluded,
+                                  int limit) {
+        List<Map.Entry<Integer, Float>> scores = new ArrayList<>();
+        vectors.forEach((id, vector) -> {
+            float score = VectorIndex.dot(vector, 0, query, 0, DIMENSIONS);
+            if (id != excluded && score > 0) {
+                scores.add(Map.entry(id, score));
+            }
+        });
+        scores.sort((a, b) -> {
+            int byScore = Float.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+        });
+        return scores.stream().limit(limit).mapToInt(Map.Entry::getKey).toArray();
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+
+    private static float[] unit(float[] vector) {
+        float norm = (float) Math.sqrt(VectorIndex.dot(vector, 0, vector, 0, vector.length));
+        float[] unit = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            unit[d] = vector[d] / norm;
+        }
+        return unit;
+    }
+}